@@ -0,0 +1,524 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+import io.openliberty.tools.langserver.lemminx.services.ServerConfigGraph;
+import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+import io.openliberty.tools.langserver.lemminx.services.WorkspaceScanner;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+
+/**
+ * Validates the features of the server.xml files under a directory outside of
+ * an editor, and writes the problems as a JSON or SARIF report. Files are
+ * validated in parallel on a fork-join pool with the same diagnostics as the
+ * language server, sharing the feature catalog of the {@link FeatureService}.
+ *
+ * Usage: BatchValidator [--format json|sarif] [--output &lt;file&gt;]
+ * [--threads &lt;count&gt;] [--liberty-version &lt;version&gt;]
+ * [--ignore &lt;pattern&gt;]... &lt;directory&gt;
+ *
+ * The exit code is 0 if no problems were found, 1 if problems were found and 2
+ * if the validation could not run or a file could not be validated.
+ */
+public class BatchValidator {
+
+    private static final Logger LOGGER = Logger.getLogger(BatchValidator.class.getName());
+
+    private static final String USAGE = "Usage: BatchValidator [--format json|sarif] [--output <file>] "
+            + "[--threads <count>] [--liberty-version <version>] [--ignore <pattern>]... <directory>";
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String INFORMATION_URI = "https://github.com/OpenLiberty/liberty-language-server";
+
+    private final int threads;
+    private final LibertyDiagnosticParticipant participant = new LibertyDiagnosticParticipant(true);
+
+    /**
+     * @param threads number of files validated in parallel
+     */
+    public BatchValidator(int threads) {
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        String format = "json";
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String libertyVersion = null;
+        List<String> ignorePatterns = new ArrayList<String>();
+        Path root = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.startsWith("--") && i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value of " + arg);
+                }
+                if ("--format".equals(arg)) {
+                    format = args[++i];
+                } else if ("--output".equals(arg)) {
+                    output = Paths.get(args[++i]);
+                } else if ("--threads".equals(arg)) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if ("--liberty-version".equals(arg)) {
+                    libertyVersion = args[++i];
+                } else if ("--ignore".equals(arg)) {
+                    ignorePatterns.add(args[++i]);
+                } else if (root == null && !arg.startsWith("--")) {
+                    root = Paths.get(arg).toAbsolutePath().normalize();
+                } else {
+                    throw new IllegalArgumentException("Unexpected argument " + arg);
+                }
+            }
+            if (root == null || threads < 1 || !("json".equals(format) || "sarif".equals(format))) {
+                throw new IllegalArgumentException("Invalid arguments");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (!Files.isDirectory(root)) {
+            System.err.println("Not a directory: " + root);
+            return 2;
+        }
+
+        if (libertyVersion != null) {
+            useLibertyVersion(libertyVersion, root);
+        }
+        List<Path> files = findServerXMLFiles(root, ignorePatterns);
+        Report report = new BatchValidator(threads).validate(files);
+        JsonObject json = "sarif".equals(format) ? report.toSarif(root) : report.toJson(root);
+        try (Writer writer = output == null ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(json, writer);
+            writer.write(System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Unable to write the report: " + e.getMessage());
+            return 2;
+        }
+        System.err.println(String.format("Validated %d files in %.2f s on %d threads (%.1f files/s): %d problems",
+                report.getFiles().size(), report.getDurationNanos() / 1e9, threads, report.getFilesPerSecond(),
+                report.getProblemCount()));
+        if (report.getErrorCount() > 0) {
+            System.err.println(String.format("Unable to validate %d files", report.getErrorCount()));
+            return 2;
+        }
+        return report.getProblemCount() > 0 ? 1 : 0;
+    }
+
+    /**
+     * Validates the documents against the features of a Liberty version
+     * instead of the default features, waiting for the feature list to be
+     * downloaded if it is not cached yet
+     */
+    private static void useLibertyVersion(String libertyVersion, Path root) {
+        JsonObject liberty = new JsonObject();
+        liberty.addProperty("version", libertyVersion);
+        JsonObject settings = new JsonObject();
+        settings.add("liberty", liberty);
+        SettingsService.getInstance().updateLibertySettings(settings);
+
+        FeatureService featureService = FeatureService.getInstance();
+        FeatureCatalog catalog = featureService.getFeatureCatalog(libertyVersion, 0, root.toUri().toString());
+        if (!libertyVersion.equals(catalog.getLibertyVersion())) {
+            try {
+                catalog = featureService.fetchFeatureCatalog(libertyVersion).get();
+            } catch (ExecutionException e) {
+                System.err.println("Unable to get the features of Liberty " + libertyVersion + ", using "
+                        + catalog.getLibertyVersion() + ": " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        DocumentContextService.getInstance().invalidate();
+    }
+
+    /**
+     * Finds the server.xml files under a directory
+     *
+     * @param root           directory to scan
+     * @param ignorePatterns .gitignore style patterns of the paths to skip, see
+     *                       {@link WorkspaceScanner}
+     * @return server.xml files, sorted by path
+     */
+    public static List<Path> findServerXMLFiles(Path root, List<String> ignorePatterns) {
+        WorkspaceScanner scanner = new WorkspaceScanner(ignorePatterns, SettingsService.getInstance().getScanDepth());
+        List<Path> files = scanner.find(root,
+                (path, directory) -> !directory && LibertyConstants.SERVER_XML.equals(path.getFileName().toString()),
+                Integer.MAX_VALUE);
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Validates the features of server.xml files
+     *
+     * @param files server.xml files
+     * @return problems of each file, in the order of the files
+     */
+    public Report validate(List<Path> files) {
+        FileResult[] results = new FileResult[files.size()];
+        ServerConfigGraph.getInstance().setWatching(false);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new ValidateTask(files, results, 0, files.size()));
+        } finally {
+            pool.shutdown();
+            ServerConfigGraph.getInstance().setWatching(true);
+        }
+        long duration = System.nanoTime() - start;
+        List<FileResult> fileResults = new ArrayList<FileResult>(results.length);
+        Collections.addAll(fileResults, results);
+        return new Report(fileResults, duration);
+    }
+
+    /**
+     * Validates a server.xml file
+     *
+     * @param file server.xml file
+     * @return problems of the file
+     */
+    public FileResult validate(Path file) {
+        String documentURI = file.toUri().toString();
+        try {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            DOMDocument document = DOMParser.getInstance().parse(text, documentURI, null);
+            List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+            participant.doDiagnostics(document, diagnostics, null, () -> {
+            });
+            return new FileResult(file, diagnostics, null);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Unable to validate " + file + ": " + e);
+            return new FileResult(file, Collections.<Diagnostic>emptyList(), e.toString());
+        } finally {
+            // documents are validated once, nothing to keep for them
+            ServerConfigGraph.getInstance().remove(documentURI);
+            DocumentContextService.getInstance().remove(documentURI);
+            FeatureDiagnosticsCache.getInstance().remove(documentURI);
+        }
+    }
+
+    /**
+     * Validates a range of the files, splitting it in halves until a single
+     * file is left
+     */
+    private class ValidateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> files;
+        private final FileResult[] results;
+        private final int from;
+        private final int to;
+
+        ValidateTask(List<Path> files, FileResult[] results, int from, int to) {
+            this.files = files;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = validate(files.get(from));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidateTask(files, results, from, middle), new ValidateTask(files, results, middle, to));
+        }
+    }
+
+    /**
+     * The problems found in a server.xml file
+     */
+    public static class FileResult {
+
+        private final Path file;
+        private final List<Diagnostic> diagnostics;
+        private final String error;
+
+        FileResult(Path file, List<Diagnostic> diagnostics, String error) {
+            this.file = file;
+            this.diagnostics = diagnostics;
+            this.error = error;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public List<Diagnostic> getDiagnostics() {
+            return diagnostics;
+        }
+
+        /**
+         * @return why the file could not be validated, or null
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * The problems found in the validated files and the time the validation
+     * took
+     */
+    public static class Report {
+
+        private final List<FileResult> files;
+        private final long durationNanos;
+
+        Report(List<FileResult> files, long durationNanos) {
+            this.files = files;
+            this.durationNanos = durationNanos;
+        }
+
+        public List<FileResult> getFiles() {
+            return files;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public double getFilesPerSecond() {
+            return durationNanos == 0 ? 0 : files.size() / (durationNanos / 1e9);
+        }
+
+        public int getProblemCount() {
+            int count = 0;
+            for (FileResult file : files) {
+                count += file.getDiagnostics().size();
+            }
+            return count;
+        }
+
+        /**
+         * @return number of files that could not be validated
+         */
+        public int getErrorCount() {
+            int count = 0;
+            for (FileResult file : files) {
+                if (file.getError() != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @param root directory the file paths are relative to
+         * @return report with the diagnostics of each file and a summary
+         */
+        public JsonObject toJson(Path root) {
+            JsonArray fileArray = new JsonArray();
+            for (FileResult file : files) {
+                JsonObject fileObject = new JsonObject();
+                fileObject.addProperty("path", relativePath(root, file.getFile()));
+                if (file.getError() != null) {
+                    fileObject.addProperty("error", file.getError());
+                }
+                JsonArray diagnostics = new JsonArray();
+                for (Diagnostic diagnostic : file.getDiagnostics()) {
+                    JsonObject range = new JsonObject();
+                    range.add("start", toJson(diagnostic.getRange().getStart()));
+                    range.add("end", toJson(diagnostic.getRange().getEnd()));
+                    JsonObject diagnosticObject = new JsonObject();
+                    diagnosticObject.addProperty("severity", getLevel(diagnostic));
+                    diagnosticObject.addProperty("message", diagnostic.getMessage());
+                    diagnosticObject.add("range", range);
+                    diagnostics.add(diagnosticObject);
+                }
+                fileObject.add("diagnostics", diagnostics);
+                fileArray.add(fileObject);
+            }
+            JsonObject summary = new JsonObject();
+            summary.addProperty("files", files.size());
+            summary.addProperty("problems", getProblemCount());
+            summary.addProperty("durationMillis", TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            summary.addProperty("filesPerSecond", Math.round(getFilesPerSecond() * 10) / 10.0);
+            JsonObject report = new JsonObject();
+            report.add("files", fileArray);
+            report.add("summary", summary);
+            return report;
+        }
+
+        private static JsonElement toJson(Position position) {
+            JsonObject object = new JsonObject();
+            object.addProperty("line", position.getLine());
+            object.addProperty("character", position.getCharacter());
+            return object;
+        }
+
+        /**
+         * @param root directory the artifact locations are relative to
+         * @return SARIF 2.1.0 log with a result for each diagnostic
+         */
+        public JsonObject toSarif(Path root) {
+            JsonObject rule = new JsonObject();
+            rule.addProperty("id", "liberty-lemminx");
+            JsonObject description = new JsonObject();
+            description.addProperty("text", "Liberty feature validation");
+            rule.add("shortDescription", description);
+            JsonArray rules = new JsonArray();
+            rules.add(rule);
+            JsonObject driver = new JsonObject();
+            driver.addProperty("name", "lemminx-liberty");
+            driver.addProperty("informationUri", INFORMATION_URI);
+            driver.add("rules", rules);
+            JsonObject tool = new JsonObject();
+            tool.add("driver", driver);
+
+            JsonArray results = new JsonArray();
+            JsonArray notifications = new JsonArray();
+            for (FileResult file : files) {
+                JsonObject artifactLocation = new JsonObject();
+                artifactLocation.addProperty("uri", relativePath(root, file.getFile()));
+                artifactLocation.addProperty("uriBaseId", "SRCROOT");
+                if (file.getError() != null) {
+                    JsonObject physicalLocation = new JsonObject();
+                    physicalLocation.add("artifactLocation", artifactLocation);
+                    JsonObject location = new JsonObject();
+                    location.add("physicalLocation", physicalLocation);
+                    JsonArray locations = new JsonArray();
+                    locations.add(location);
+                    JsonObject notification = new JsonObject();
+                    notification.addProperty("level", "error");
+                    notification.add("message", message(file.getError()));
+                    notification.add("locations", locations);
+                    notifications.add(notification);
+                }
+                for (Diagnostic diagnostic : file.getDiagnostics()) {
+                    // SARIF lines and columns start at 1
+                    Position start = diagnostic.getRange().getStart();
+                    Position end = diagnostic.getRange().getEnd();
+                    JsonObject region = new JsonObject();
+                    region.addProperty("startLine", start.getLine() + 1);
+                    region.addProperty("startColumn", start.getCharacter() + 1);
+                    region.addProperty("endLine", end.getLine() + 1);
+                    region.addProperty("endColumn", end.getCharacter() + 1);
+                    JsonObject physicalLocation = new JsonObject();
+                    physicalLocation.add("artifactLocation", artifactLocation);
+                    physicalLocation.add("region", region);
+                    JsonObject location = new JsonObject();
+                    location.add("physicalLocation", physicalLocation);
+                    JsonArray locations = new JsonArray();
+                    locations.add(location);
+                    JsonObject result = new JsonObject();
+                    result.addProperty("ruleId", "liberty-lemminx");
+                    result.addProperty("level", getLevel(diagnostic));
+                    result.add("message", message(diagnostic.getMessage()));
+                    result.add("locations", locations);
+                    results.add(result);
+                }
+            }
+
+            JsonObject invocation = new JsonObject();
+            invocation.addProperty("executionSuccessful", getErrorCount() == 0);
+            invocation.add("toolExecutionNotifications", notifications);
+            JsonObject properties = new JsonObject();
+            properties.addProperty("files", files.size());
+            properties.addProperty("durationMillis", TimeUnit.NANOSECONDS.toMillis(durationNanos));
+            properties.addProperty("filesPerSecond", Math.round(getFilesPerSecond() * 10) / 10.0);
+            invocation.add("properties", properties);
+            JsonArray invocations = new JsonArray();
+            invocations.add(invocation);
+
+            JsonObject srcRoot = new JsonObject();
+            String rootURI = root.toUri().toString();
+            srcRoot.addProperty("uri", rootURI.endsWith("/") ? rootURI : rootURI + "/");
+            JsonObject baseIds = new JsonObject();
+            baseIds.add("SRCROOT", srcRoot);
+
+            JsonObject run = new JsonObject();
+            run.add("tool", tool);
+            run.add("invocations", invocations);
+            run.add("originalUriBaseIds", baseIds);
+            run.add("results", results);
+            JsonArray runs = new JsonArray();
+            runs.add(run);
+            JsonObject log = new JsonObject();
+            log.addProperty("$schema", SARIF_SCHEMA);
+            log.addProperty("version", "2.1.0");
+            log.add("runs", runs);
+            return log;
+        }
+
+        private static JsonObject message(String text) {
+            JsonObject message = new JsonObject();
+            message.addProperty("text", text);
+            return message;
+        }
+
+        /**
+         * @return SARIF level of a diagnostic, also used in the JSON report
+         */
+        private static String getLevel(Diagnostic diagnostic) {
+            DiagnosticSeverity severity = diagnostic.getSeverity();
+            if (severity == DiagnosticSeverity.Warning) {
+                return "warning";
+            }
+            if (severity == DiagnosticSeverity.Information || severity == DiagnosticSeverity.Hint) {
+                return "note";
+            }
+            return "error";
+        }
+
+        /**
+         * @return path of a file relative to the root, with forward slashes
+         */
+        private static String relativePath(Path root, Path file) {
+            Path path = file.startsWith(root) ? root.relativize(file) : file;
+            return path.toString().replace('\\', '/');
+        }
+    }
+
+}
@@ -14,8 +14,9 @@ package io.openliberty.tools.langserver.lemminx;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lemminx.dom.DOMDocument;
@@ -26,6 +27,7 @@ import org.eclipse.lemminx.services.extensions.ICompletionRequest;
 import org.eclipse.lemminx.services.extensions.ICompletionResponse;
 import org.eclipse.lemminx.utils.XMLPositionUtility;
 import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.InsertReplaceEdit;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
@@ -33,20 +35,24 @@ import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 
 import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
-import io.openliberty.tools.langserver.lemminx.services.FeatureService;
-import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+import io.openliberty.tools.langserver.lemminx.services.DocumentContext;
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
 import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
 import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
 
 public class LibertyCompletionParticipant extends CompletionParticipantAdapter {
 
+    // the list is marked incomplete, so clients ask again as more text is typed
+    private static final int MAX_FEATURE_COMPLETION_ITEMS = 500;
+
     @Override
     public void onXMLContent(ICompletionRequest request, ICompletionResponse response, CancelChecker cancelChecker)
             throws IOException, BadLocationException {
         if (!LibertyUtils.isServerXMLFile(request.getXMLDocument()))
             return;    
 
-        LibertyUtils.getVersion(request.getXMLDocument());
+        DocumentContext context = DocumentContextService.getInstance().getContext(request.getXMLDocument());
 
         DOMElement parentElement = request.getParentElement();
         if (parentElement == null || parentElement.getTagName() == null)
@@ -55,20 +61,24 @@ public class LibertyCompletionParticipant extends CompletionParticipantAdapter {
         // if the parent element of cursor is a <feature>
         // provide the liberty features as completion options
         if (parentElement.getTagName().equals(LibertyConstants.FEATURE_ELEMENT)) {
-            List<String> existingFeatures = new ArrayList<>();
+            Set<String> existingFeatures = new HashSet<>();
             // collect existing features
             if (parentElement.getParentNode() != null
                     && parentElement.getParentNode().getNodeName().equals(LibertyConstants.FEATURE_MANAGER_ELEMENT)) {
                 existingFeatures = collectExistingFeatures(parentElement.getParentNode());
             }
+            String typedPrefix = getTypedPrefix(parentElement, request.getXMLDocument(), request.getOffset());
             List<CompletionItem> featureCompletionItems = buildCompletionItems(parentElement, request.getXMLDocument(),
-                    existingFeatures);
+                    context.getFeatureCatalog(), existingFeatures, typedPrefix);
             featureCompletionItems.stream().forEach(item -> response.addCompletionItem(item));
+            if (response instanceof CompletionList) {
+                ((CompletionList) response).setIsIncomplete(true);
+            }
         }
     }
 
-    private CompletionItem buildFeatureCompletionItem(Feature feature, DOMElement featureElement,
-            DOMDocument document) {
+    private static CompletionItem buildFeatureCompletionItem(Feature feature, DOMElement featureElement,
+            DOMDocument document, boolean prefixMatch) {
         String featureName = feature.getWlpInformation().getShortName();
 
         // Build a text edit to replace whatever is inside <feature></feature>
@@ -82,34 +92,81 @@ public class LibertyCompletionParticipant extends CompletionParticipantAdapter {
         item.setTextEdit(edit);
         item.setLabel(featureName);
         item.setDocumentation(Either.forLeft(feature.getShortDescription()));
+        // features starting with the typed text are listed first
+        item.setSortText((prefixMatch ? "0" : "1") + featureName);
         return item;
     }
 
-    private List<CompletionItem> buildCompletionItems(DOMElement featureElement, DOMDocument domDocument,
-            List<String> existingFeatures) {
-
-        String libertyVersion = LibertyUtils.getVersion(domDocument);
-
-        final int requestDelay = SettingsService.getInstance().getRequestDelay();
-        List<Feature> features = FeatureService.getInstance().getFeatures(libertyVersion, requestDelay, domDocument.getDocumentURI());
-
-        // filter out features that are already specified in the featureManager block
-        List<CompletionItem> uniqueFeatureCompletionItems = features.stream()
-                .filter(feature -> !existingFeatures.contains(feature.getWlpInformation().getShortName()))
-                .map(feat -> buildFeatureCompletionItem(feat, featureElement, domDocument)).collect(Collectors.toList());
+    /**
+     * Builds the completion items of the features matching the text typed so
+     * far, features already specified in the featureManager block are filtered
+     * out. Features starting with the text are listed first, followed by the
+     * features containing it, for example jaxrs-2.1 for rs.
+     */
+    public static List<CompletionItem> buildCompletionItems(DOMElement featureElement, DOMDocument domDocument,
+            FeatureCatalog catalog, Set<String> existingFeatures, String typedPrefix) {
+        List<CompletionItem> uniqueFeatureCompletionItems = new ArrayList<>();
+        for (Feature feature : catalog.getFeaturesWithPrefix(typedPrefix)) {
+            if (uniqueFeatureCompletionItems.size() == MAX_FEATURE_COMPLETION_ITEMS) {
+                return uniqueFeatureCompletionItems;
+            }
+            String featureName = FeatureCatalog.normalize(feature.getWlpInformation().getShortName());
+            if (!existingFeatures.contains(featureName)) {
+                uniqueFeatureCompletionItems.add(buildFeatureCompletionItem(feature, featureElement, domDocument,
+                        true));
+            }
+        }
+        if (typedPrefix.isEmpty()) {
+            return uniqueFeatureCompletionItems;
+        }
 
+        String normalizedPrefix = FeatureCatalog.normalize(typedPrefix);
+        int limit = MAX_FEATURE_COMPLETION_ITEMS + existingFeatures.size();
+        for (Feature feature : catalog.getFeaturesContaining(typedPrefix, limit)) {
+            if (uniqueFeatureCompletionItems.size() == MAX_FEATURE_COMPLETION_ITEMS) {
+                break;
+            }
+            String featureName = FeatureCatalog.normalize(feature.getWlpInformation().getShortName());
+            // features starting with the text were added above
+            if (!featureName.startsWith(normalizedPrefix) && !existingFeatures.contains(featureName)) {
+                uniqueFeatureCompletionItems.add(buildFeatureCompletionItem(feature, featureElement, domDocument,
+                        false));
+            }
+        }
         return uniqueFeatureCompletionItems;
     }
 
-    private List<String> collectExistingFeatures(DOMNode featureManager) {
-        List<String> includedFeatures = new ArrayList<>();
+    /**
+     * Returns the text typed between the <feature> start tag and the cursor, with
+     * leading whitespace removed
+     */
+    private String getTypedPrefix(DOMElement featureElement, DOMDocument document, int offset) {
+        Integer startTagClose = featureElement.getStartTagCloseOffset();
+        if (startTagClose == null) {
+            return "";
+        }
+        int start = startTagClose + 1;
+        String text = document.getText();
+        if (text == null || start >= offset || offset > text.length()) {
+            return "";
+        }
+        return text.substring(start, offset).trim();
+    }
+
+    /**
+     * Collects the normalized names of the features already specified in the
+     * featureManager block
+     */
+    private Set<String> collectExistingFeatures(DOMNode featureManager) {
+        Set<String> includedFeatures = new HashSet<>();
         List<DOMNode> features = featureManager.getChildren();
         for (DOMNode featureNode : features) {
             DOMNode featureTextNode = (DOMNode) featureNode.getChildNodes().item(0);
             // skip nodes that do not have any text value (ie. comments)
-            if (featureNode.getNodeName().equals(LibertyConstants.FEATURE_ELEMENT) && featureTextNode != null) {
+            if (featureNode.getNodeName().equals(LibertyConstants.FEATURE_ELEMENT) && featureTextNode != null
+                    && featureTextNode.getTextContent() != null) {
                 String featureName = featureTextNode.getTextContent();
-                includedFeatures.add(featureName);
+                includedFeatures.add(FeatureCatalog.normalize(featureName.trim()));
             }
         }
         return includedFeatures;
@@ -21,72 +21,268 @@ import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
-import io.openliberty.tools.langserver.lemminx.services.FeatureService;
-import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDependencyGraph;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsJobs;
+import io.openliberty.tools.langserver.lemminx.services.RevalidationService;
+import io.openliberty.tools.langserver.lemminx.services.ServerConfigGraph;
 import io.openliberty.tools.langserver.lemminx.util.*;
-import java.io.IOException;
 import java.util.*;
 
 public class LibertyDiagnosticParticipant implements IDiagnosticsParticipant {
 
+    // true to find the problems on the validating thread without a time budget,
+    // for documents validated outside of an editor
+    private final boolean synchronous;
+
+    public LibertyDiagnosticParticipant() {
+        this(false);
+    }
+
+    LibertyDiagnosticParticipant(boolean synchronous) {
+        this.synchronous = synchronous;
+    }
+
     @Override
     public void doDiagnostics(DOMDocument domDocument, List<Diagnostic> diagnostics,
             XMLValidationSettings validationSettings, CancelChecker cancelChecker) {
         if (!LibertyUtils.isServerXMLFile(domDocument))
             return;
-        try {
-            validateFeatures(domDocument, diagnostics);
-        } catch (IOException e) {
-            System.err.println("Error validating features");
-            System.err.println(e.getMessage());
+        if (!synchronous) {
+            RevalidationService.getInstance().trackDocument(domDocument.getDocumentURI());
         }
+        validateFeatures(domDocument, diagnostics, cancelChecker);
     }
 
-    private void validateFeatures(DOMDocument domDocument, List<Diagnostic> list) throws IOException {
-        List<DOMNode> nodes = domDocument.getDocumentElement().getChildren();
+    private void validateFeatures(DOMDocument domDocument, List<Diagnostic> list, CancelChecker cancelChecker) {
+        DOMNode server = domDocument.getDocumentElement();
+        if (server == null) {
+            return;
+        }
         DOMNode featureManager = null;
-        // find <featureManager> element if it exists
-        for (DOMNode node : nodes) {
-            if (LibertyConstants.FEATURE_MANAGER_ELEMENT.equals(node.getNodeName())) {
+        List<DOMNode> includes = new ArrayList<>();
+        Map<String, String> variables = new HashMap<>();
+        // find <featureManager> element if it exists, the <include> elements and
+        // the <variable> elements their locations may use
+        for (DOMNode node : server.getChildren()) {
+            if (featureManager == null && LibertyConstants.FEATURE_MANAGER_ELEMENT.equals(node.getNodeName())) {
                 featureManager = node;
-                break;
+            } else if (LibertyConstants.INCLUDE_ELEMENT.equals(node.getNodeName())) {
+                includes.add(node);
+            } else if (LibertyConstants.VARIABLE_ELEMENT.equals(node.getNodeName())) {
+                String name = node.getAttribute("name");
+                String value = node.getAttribute("value");
+                if (value == null) {
+                    value = node.getAttribute("defaultValue");
+                }
+                if (name != null && value != null) {
+                    variables.put(name, value);
+                }
             }
         }
-        // No need for validation if there is no <featureManager>
-        if (featureManager == null) {
-            return;
+
+        // collect the features with their offsets relative to <featureManager>,
+        // skipping nodes that do not have any text value (ie. comments)
+        int blockStart = featureManager != null ? featureManager.getStart() : server.getStart();
+        FeatureDiagnosticsCache.Block block = new FeatureDiagnosticsCache.Block();
+        if (featureManager != null) {
+            for (DOMNode featureNode : featureManager.getChildren()) {
+                DOMNode featureTextNode = (DOMNode) featureNode.getChildNodes().item(0);
+                if (featureTextNode != null && featureTextNode.getTextContent() != null) {
+                    block.add(featureTextNode.getTextContent(), featureTextNode.getStart() - blockStart,
+                            featureTextNode.getEnd() - blockStart);
+                }
+            }
+        }
+        // problems in included files are reported on their <include> element,
+        // and problems in configDropins on the <server> start tag
+        List<String> includeLocations = new ArrayList<>(includes.size());
+        boolean[] optionalIncludes = new boolean[includes.size()];
+        int[] includeRanges = new int[includes.size() * 2];
+        for (int i = 0; i < includes.size(); i++) {
+            DOMNode include = includes.get(i);
+            includeLocations.add(include.getAttribute(LibertyConstants.LOCATION_ATTRIBUTE));
+            optionalIncludes[i] = "true".equals(include.getAttribute(LibertyConstants.OPTIONAL_ATTRIBUTE));
+            includeRanges[i * 2] = include.getStart() - blockStart;
+            includeRanges[i * 2 + 1] = include.getEnd() - blockStart;
+        }
+        int serverTagStart = server.getStart() + 1;
+        int[] serverTagRange = { serverTagStart - blockStart,
+                serverTagStart + server.getNodeName().length() - blockStart };
+
+        // included files and the feature catalog may have to be read from disk,
+        // the problems found within the time budget are published and the
+        // document is validated again once the others are found
+        List<FeatureDiagnosticsCache.Problem> problems;
+        if (synchronous) {
+            FeatureDiagnosticsJobs.Job job = new FeatureDiagnosticsJobs.Job();
+            findProblems(domDocument, block, variables, includeLocations, optionalIncludes, includeRanges,
+                    serverTagRange, job);
+            problems = job.getProblems();
+        } else {
+            problems = FeatureDiagnosticsJobs.getInstance().run(domDocument.getDocumentURI(),
+                    job -> findProblems(domDocument, block, variables, includeLocations, optionalIncludes,
+                            includeRanges, serverTagRange, job),
+                    cancelChecker);
+        }
+        for (FeatureDiagnosticsCache.Problem problem : problems) {
+            Range range = XMLPositionUtility.createRange(blockStart + problem.getStart(),
+                    blockStart + problem.getEnd(), domDocument);
+            list.add(new Diagnostic(range, problem.getMessage(), DiagnosticSeverity.Error, "liberty-lemminx"));
+        }
+    }
+
+    /**
+     * Adds the features of the included files and configDropins to the block and
+     * reports the problems of the block and of the includes that cannot be
+     * resolved to the diagnostics job
+     */
+    private void findProblems(DOMDocument domDocument, FeatureDiagnosticsCache.Block block,
+            Map<String, String> variables, List<String> includeLocations, boolean[] optionalIncludes,
+            int[] includeRanges, int[] serverTagRange, FeatureDiagnosticsJobs.Job job) {
+        // features enabled by included files and configDropins
+        String documentURI = domDocument.getDocumentURI();
+        ServerConfigGraph.Resolution configuration = ServerConfigGraph.getInstance().resolve(documentURI,
+                includeLocations, variables, job);
+        for (int i = 0; i < includeLocations.size(); i++) {
+            for (ServerConfigGraph.IncludedFeature feature : configuration.getIncludeFeatures(i)) {
+                block.addIncluded(feature.getName(), feature.getFile().getFileName().toString(),
+                        includeRanges[i * 2], includeRanges[i * 2 + 1]);
+            }
+        }
+        for (ServerConfigGraph.IncludedFeature feature : configuration.getDropinFeatures()) {
+            block.addIncluded(feature.getName(), feature.getFile().getFileName().toString(), serverTagRange[0],
+                    serverTagRange[1]);
         }
 
-        String libertyVersion =  LibertyUtils.getVersion(domDocument);
+        // No need for validation if there are no features
+        if (block.size() != 0 || block.includedSize() != 0) {
+            FeatureCatalog catalog = DocumentContextService.getInstance().getContext(domDocument, job)
+                    .getFeatureCatalog();
 
-        final int requestDelay = SettingsService.getInstance().getRequestDelay();
+            // an edit outside of <featureManager> does not change its problems
+            FeatureDiagnosticsCache cache = FeatureDiagnosticsCache.getInstance();
+            List<FeatureDiagnosticsCache.Problem> problems = cache.get(documentURI, block, catalog);
+            if (problems != null) {
+                for (FeatureDiagnosticsCache.Problem problem : problems) {
+                    job.report(problem);
+                }
+            } else {
+                findProblems(block, catalog, job);
+                cache.put(documentURI, block, catalog, job.getProblems());
+            }
+        }
+
+        // reported after the cached problems, as they do not depend on the block
+        for (int i = 0; i < includeLocations.size(); i++) {
+            if (!optionalIncludes[i] && !configuration.isIncludeResolved(i)) {
+                String message = "ERROR: The include location \"" + includeLocations.get(i)
+                        + "\" could not be resolved.";
+                job.report(new FeatureDiagnosticsCache.Problem(includeRanges[i * 2], includeRanges[i * 2 + 1],
+                        message));
+            }
+        }
+    }
+
+    private void findProblems(FeatureDiagnosticsCache.Block block, FeatureCatalog catalog,
+            FeatureDiagnosticsJobs.Job job) {
+        // features to resolve, and where to report their conflicts (null for
+        // features of included files)
+        List<String> resolvedFeatures = new ArrayList<>();
+        List<int[]> resolvedRanges = new ArrayList<>();
+
+        // features of included files that do not exist
+        Map<String, String> includedFeatures = new HashMap<>();
+        for (int i = 0; i < block.includedSize(); i++) {
+            job.checkCanceled();
+            String featureName = block.getIncludedName(i);
+            String source = block.getIncludedSource(i);
+            if (!featureName.startsWith("usr:") && !catalog.featureExists(featureName)) {
+                String message = "ERROR: The feature \"" + featureName + "\" in " + source + " does not exist.";
+                job.report(new FeatureDiagnosticsCache.Problem(block.getIncludedStart(i), block.getIncludedEnd(i),
+                        message));
+            } else if (!includedFeatures.containsKey(featureName)) {
+                includedFeatures.put(featureName, source);
+                resolvedFeatures.add(featureName);
+                resolvedRanges.add(null);
+            }
+        }
 
         // Search for duplicate features
         // or features that do not exist
-        Set<String> includedFeatures = new HashSet<>();
-        List<DOMNode> features = featureManager.getChildren();
-        for (DOMNode featureNode : features) {
-            DOMNode featureTextNode = (DOMNode) featureNode.getChildNodes().item(0);
-            // skip nodes that do not have any text value (ie. comments)
-            if (featureTextNode != null && featureTextNode.getTextContent() != null) {
-                String featureName = featureTextNode.getTextContent();
-                // if the feature is not a user defined feature and the feature does not exist in the list of
-                // supported features show a "Feature does not exist" diagnostic
-                if (!featureName.startsWith("usr:") && !FeatureService.getInstance().featureExists(featureName, libertyVersion, requestDelay, domDocument.getDocumentURI())) {
-                    Range range = XMLPositionUtility.createRange(featureTextNode.getStart(), featureTextNode.getEnd(),
-                            domDocument);
-                    String message = "ERROR: The feature \"" + featureName + "\" does not exist.";
-                    list.add(new Diagnostic(range, message, DiagnosticSeverity.Error, "liberty-lemminx"));
+        Set<String> documentFeatures = new HashSet<>();
+        for (int i = 0; i < block.size(); i++) {
+            job.checkCanceled();
+            String featureName = block.getName(i);
+            // if the feature is not a user defined feature and the feature does not exist in the list of
+            // supported features show a "Feature does not exist" diagnostic
+            if (!featureName.startsWith("usr:") && !catalog.featureExists(featureName)) {
+                String message = "ERROR: The feature \"" + featureName + "\" does not exist.";
+                job.report(new FeatureDiagnosticsCache.Problem(block.getStart(i), block.getEnd(i), message));
+            } else {
+                if (documentFeatures.contains(featureName)) {
+                    String message = "ERROR: " + featureName + " is already included.";
+                    job.report(new FeatureDiagnosticsCache.Problem(block.getStart(i), block.getEnd(i), message));
+                } else if (includedFeatures.containsKey(featureName)) {
+                    documentFeatures.add(featureName);
+                    String message = "ERROR: " + featureName + " is already included in "
+                            + includedFeatures.get(featureName) + ".";
+                    job.report(new FeatureDiagnosticsCache.Problem(block.getStart(i), block.getEnd(i), message));
                 } else {
-                    if (includedFeatures.contains(featureName)) {
-                        Range range = XMLPositionUtility.createRange(featureTextNode.getStart(),
-                                featureTextNode.getEnd(), domDocument);
-                        String message = "ERROR: " + featureName + " is already included.";
-                        list.add(new Diagnostic(range, message, DiagnosticSeverity.Error, "liberty-lemminx"));
-                    } else {
-                        includedFeatures.add(featureName);
+                    documentFeatures.add(featureName);
+                    resolvedFeatures.add(featureName);
+                    resolvedRanges.add(new int[] { block.getStart(i), block.getEnd(i) });
+                }
+            }
+        }
+        job.checkCanceled();
+        findConflicts(catalog, resolvedFeatures, resolvedRanges, job);
+    }
+
+    /**
+     * Reports the features that enable different versions of a singleton
+     * feature, for example servlet-3.1 alongside microProfile-3.3 which
+     * requires servlet-4.0
+     */
+    private void findConflicts(FeatureCatalog catalog, List<String> featureNames, List<int[]> ranges,
+            FeatureDiagnosticsJobs.Job job) {
+        FeatureDependencyGraph.Resolution resolution = catalog.getDependencyGraph().resolve(featureNames);
+        if (!resolution.hasConflicts()) {
+            return;
+        }
+        for (List<Feature> conflict : resolution.getConflicts()) {
+            List<String> versions = new ArrayList<>();
+            for (Feature version : conflict) {
+                versions.add(version.getWlpInformation().getShortName());
+            }
+            for (int i = 0; i < featureNames.size(); i++) {
+                int[] range = ranges.get(i);
+                if (range == null) {
+                    continue;
+                }
+                String featureName = featureNames.get(i);
+                List<Feature> enabledVersions = resolution.getConflictingVersions(featureName, conflict);
+                if (enabledVersions.isEmpty()) {
+                    continue;
+                }
+                // the other features that enable another version
+                List<String> conflictingFeatures = new ArrayList<>();
+                for (int other = 0; other < featureNames.size(); other++) {
+                    String otherName = featureNames.get(other);
+                    if (other != i && !enabledVersions.containsAll(
+                            resolution.getConflictingVersions(otherName, conflict))) {
+                        conflictingFeatures.add("\"" + otherName + "\"");
                     }
                 }
+                if (!conflictingFeatures.isEmpty()) {
+                    String message = "ERROR: The feature \"" + featureName + "\" conflicts with "
+                            + String.join(", ", conflictingFeatures) + ": only one of " + String.join(", ", versions)
+                            + " can be enabled.";
+                    job.report(new FeatureDiagnosticsCache.Problem(range[0], range[1], message));
+                }
             }
         }
     }
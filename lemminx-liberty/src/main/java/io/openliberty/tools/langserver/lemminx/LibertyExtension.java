@@ -20,13 +20,23 @@ import org.eclipse.lemminx.services.extensions.diagnostics.IDiagnosticsParticipa
 import org.eclipse.lemminx.services.extensions.save.ISaveContext;
 import org.eclipse.lemminx.services.extensions.save.ISaveContext.SaveContextType;
 import org.eclipse.lemminx.uriresolver.URIResolverExtension;
+import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.InitializeParams;
 import org.eclipse.lsp4j.WorkspaceFolder;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsJobs;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+import io.openliberty.tools.langserver.lemminx.services.FileWatchService;
 import io.openliberty.tools.langserver.lemminx.services.LibertyProjectsManager;
+import io.openliberty.tools.langserver.lemminx.services.ProgressService;
+import io.openliberty.tools.langserver.lemminx.services.RevalidationService;
+import io.openliberty.tools.langserver.lemminx.services.ServerConfigGraph;
 import io.openliberty.tools.langserver.lemminx.services.SettingsService;
 
 public class LibertyExtension implements IXMLExtension {
@@ -37,6 +47,7 @@ public class LibertyExtension implements IXMLExtension {
     private ICompletionParticipant completionParticipant;
     private IHoverParticipant hoverParticipant;
     private IDiagnosticsParticipant diagnosticsParticipant;
+    private Consumer<FeatureCatalog> featureCatalogListener;
 
     @Override
     public void start(InitializeParams initializeParams, XMLExtensionsRegistry xmlExtensionsRegistry) {
@@ -48,6 +59,8 @@ public class LibertyExtension implements IXMLExtension {
         } catch (NullPointerException e) {
             LOGGER.warning("Could not get workspace folders: " + e.toString());
         }
+        ProgressService.getInstance().setWorkDoneProgressSupported(isWorkDoneProgressSupported(initializeParams));
+
         xsdResolver = new LibertyXSDURIResolver();
         xmlExtensionsRegistry.getResolverExtensionManager().registerResolver(xsdResolver);
 
@@ -59,12 +72,30 @@ public class LibertyExtension implements IXMLExtension {
 
         diagnosticsParticipant = new LibertyDiagnosticParticipant();
         xmlExtensionsRegistry.registerDiagnosticsParticipant(diagnosticsParticipant);
+
+        // revalidate open server.xml files once a feature list has been downloaded
+        RevalidationService.getInstance().initialize(xmlExtensionsRegistry.getDocumentProvider(),
+                xmlExtensionsRegistry.getValidationService());
+        featureCatalogListener = catalog -> {
+            // documents resolved against an older catalog must pick up the new one
+            DocumentContextService.getInstance().invalidate();
+            RevalidationService.getInstance().revalidateServerXMLDocuments();
+        };
+        FeatureService.getInstance().addFeatureCatalogListener(featureCatalogListener);
     }
 
     @Override
     public void stop(XMLExtensionsRegistry xmlExtensionsRegistry) {
         // clean up .libertyls folders
         LibertyProjectsManager.getInstance().cleanUpTempDirs();
+        LibertyProjectsManager.getInstance().dispose();
+        ServerConfigGraph.getInstance().dispose();
+        FileWatchService.getInstance().shutdown();
+
+        FeatureService.getInstance().cancelAllInstalledFeatures();
+        FeatureDiagnosticsJobs.getInstance().cancelAll();
+        FeatureService.getInstance().removeFeatureCatalogListener(featureCatalogListener);
+        RevalidationService.getInstance().dispose();
 
         xmlExtensionsRegistry.getResolverExtensionManager().unregisterResolver(xsdResolver);
         xmlExtensionsRegistry.unregisterCompletionParticipant(completionParticipant);
@@ -72,6 +103,14 @@ public class LibertyExtension implements IXMLExtension {
         xmlExtensionsRegistry.unregisterDiagnosticsParticipant(diagnosticsParticipant);
     }
 
+    private static boolean isWorkDoneProgressSupported(InitializeParams initializeParams) {
+        ClientCapabilities capabilities = initializeParams.getCapabilities();
+        if (capabilities == null || capabilities.getWindow() == null) {
+            return false;
+        }
+        return Boolean.TRUE.equals(capabilities.getWindow().getWorkDoneProgress());
+    }
+
     // Do save is called on startup with a Settings update
     // and any time the settings are updated.
     @Override
@@ -81,6 +120,7 @@ public class LibertyExtension implements IXMLExtension {
         if (saveContext.getType() == SaveContextType.SETTINGS) {
             Object xmlSettings = saveContext.getSettings();
             SettingsService.getInstance().updateLibertySettings(xmlSettings);
+            DocumentContextService.getInstance().invalidate();
             LOGGER.fine("Liberty XML settings updated");
         }
     }
@@ -19,8 +19,8 @@ import org.eclipse.lemminx.services.extensions.IHoverRequest;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.MarkupContent;
 import io.openliberty.tools.langserver.lemminx.models.feature.*;
-import io.openliberty.tools.langserver.lemminx.services.FeatureService;
-import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
 import io.openliberty.tools.langserver.lemminx.util.*;
 
 import java.util.Optional;
@@ -61,10 +61,8 @@ public class LibertyHoverParticipant implements IHoverParticipant {
 	}
 
 	private Hover getHoverFeatureDescription(String featureName, DOMDocument domDocument) {
-		String libertyVersion = LibertyUtils.getVersion(domDocument);
-
-		final int requestDelay = SettingsService.getInstance().getRequestDelay();
-		Optional<Feature> feature = FeatureService.getInstance().getFeature(featureName, libertyVersion, requestDelay, domDocument.getDocumentURI());
+		FeatureCatalog catalog = DocumentContextService.getInstance().getContext(domDocument).getFeatureCatalog();
+		Optional<Feature> feature = catalog.getFeature(featureName);
 		if (feature.isPresent()) {
 			return new Hover(new MarkupContent("plaintext", feature.get().getShortDescription()));
 		}
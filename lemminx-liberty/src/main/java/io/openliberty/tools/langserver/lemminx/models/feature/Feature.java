@@ -16,21 +16,26 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
+/**
+ * Feature as used by the language features. Only the fields that are read are
+ * kept; the readers that build features share the instances of repeated names
+ * and versions.
+ */
 @XmlRootElement(name = "feature")
 @XmlAccessorType(XmlAccessType.FIELD)
 public class Feature {
 
   private String description;
-  private String licenseId;
-  private String licenseType;
 
   @XmlAttribute
   private String name;
   private String shortDescription;
 
-  private String type;
   private String version;
+  // not part of the featurelist, created from the name
+  @XmlTransient
   WlpInformation wlpInformation;
 
   // Getter Methods
@@ -39,14 +44,6 @@ public class Feature {
     return description;
   }
 
-  public String getLicenseId() {
-    return licenseId;
-  }
-
-  public String getLicenseType() {
-    return licenseType;
-  }
-
   public String getName() {
     return name;
   }
@@ -55,10 +52,6 @@ public class Feature {
     return shortDescription;
   }
 
-  public String getType() {
-    return type;
-  }
-
   public String getVersion() {
     return version;
   }
@@ -73,14 +66,6 @@ public class Feature {
     this.description = description;
   }
 
-  public void setLicenseId(String licenseId) {
-    this.licenseId = licenseId;
-  }
-
-  public void setLicenseType(String licenseType) {
-    this.licenseType = licenseType;
-  }
-
   public void setName(String name) {
     this.name = name;
   }
@@ -89,10 +74,6 @@ public class Feature {
     this.shortDescription = shortDescription;
   }
 
-  public void setType(String type) {
-    this.type = type;
-  }
-
   public void setVersion(String version) {
     this.version = version;
   }
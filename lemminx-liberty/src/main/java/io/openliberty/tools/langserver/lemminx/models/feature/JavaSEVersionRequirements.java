@@ -12,12 +12,8 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.models.feature;
 
-import java.util.ArrayList;
-
 public class JavaSEVersionRequirements {
   private String minVersion;
-  ArrayList<String> rawRequirements;
-  private String versionDisplayString;
 
   // Getter Methods
 
@@ -25,25 +21,9 @@ public class JavaSEVersionRequirements {
     return minVersion;
   }
 
-  public String getVersionDisplayString() {
-    return versionDisplayString;
-  }
-
-  public ArrayList<String> getRawRequirements() {
-    return rawRequirements;
-  }
-
   // Setter Methods
 
   public void setMinVersion(String minVersion) {
     this.minVersion = minVersion;
   }
-
-  public void setVersionDisplayString(String versionDisplayString) {
-    this.versionDisplayString = versionDisplayString;
-  }
-
-  public void setRawRequirements(ArrayList<String> rawRequirements) {
-    this.rawRequirements = rawRequirements;
-  }
 }
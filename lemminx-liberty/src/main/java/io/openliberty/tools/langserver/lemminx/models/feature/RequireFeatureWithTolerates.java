@@ -0,0 +1,54 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.models.feature;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A required feature and the other versions of it that are tolerated
+ */
+public class RequireFeatureWithTolerates {
+  private static final String[] NO_VERSIONS = new String[0];
+
+  private String feature;
+  private String[] tolerates;
+
+  // Getter Methods
+
+  public String getFeature() {
+    return feature;
+  }
+
+  public List<String> getTolerates() {
+    return tolerates == null ? Collections.<String>emptyList() : Collections.unmodifiableList(Arrays.asList(tolerates));
+  }
+
+  // Setter Methods
+
+  public void setFeature(String feature) {
+    this.feature = feature;
+  }
+
+  public void setTolerates(List<String> tolerates) {
+    if (tolerates == null || tolerates.isEmpty()) {
+      this.tolerates = NO_VERSIONS;
+      return;
+    }
+    this.tolerates = new String[tolerates.size()];
+    for (int i = 0; i < this.tolerates.length; i++) {
+      this.tolerates[i] = tolerates.get(i);
+    }
+  }
+}
@@ -12,48 +12,29 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.models.feature;
 
-import java.util.ArrayList;
-
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Liberty specific information of a feature. The provided and required feature
+ * names are held in arrays and exposed as read-only lists.
+ */
 public class WlpInformation {
-  private String appliesTo;
-  private String displayPolicy;
-  private String downloadPolicy;
-  private String ibmInstallTo;
-  private String installPolicy;
+  private static final String[] NO_FEATURES = new String[0];
+
   JavaSEVersionRequirements javaSEVersionRequirements;
-  ArrayList<String> provideFeature;
-  ArrayList<String> requireFeature;
+  String[] provideFeature;
+  String[] requireFeature;
+  RequireFeatureWithTolerates[] requireFeatureWithTolerates;
   private String singleton;
-  private String typeLabel;
   private String visibility;
-  private String webDisplayPolicy;
-  private String mavenCoordinates;
   private String shortName;
 
   public WlpInformation(String shortName) {
     this.shortName = shortName;
   }
 
-  public String getAppliesTo() {
-    return appliesTo;
-  }
-
-  public String getDisplayPolicy() {
-    return displayPolicy;
-  }
-
-  public String getDownloadPolicy() {
-    return downloadPolicy;
-  }
-
-  public String getIbmInstallTo() {
-    return ibmInstallTo;
-  }
-
-  public String getInstallPolicy() {
-    return installPolicy;
-  }
-
   public JavaSEVersionRequirements getJavaSEVersionRequirements() {
     return javaSEVersionRequirements;
   }
@@ -62,54 +43,27 @@ public class WlpInformation {
     return singleton;
   }
 
-  public String getTypeLabel() {
-    return typeLabel;
-  }
-
   public String getVisibility() {
     return visibility;
   }
 
-  public String getWebDisplayPolicy() {
-    return webDisplayPolicy;
+  public List<String> getProvideFeature() {
+    return toList(provideFeature);
   }
 
-  public String getMavenCoordinates() {
-    return mavenCoordinates;
+  public List<String> getRequireFeature() {
+    return toList(requireFeature);
   }
 
-  public ArrayList<String> getProvideFeature() {
-    return provideFeature;
-  }
-
-  public ArrayList<String> getRequireFeature() {
-    return requireFeature;
+  public List<RequireFeatureWithTolerates> getRequireFeatureWithTolerates() {
+    return requireFeatureWithTolerates == null ? null
+        : Collections.unmodifiableList(Arrays.asList(requireFeatureWithTolerates));
   }
 
   public String getShortName() {
     return shortName;
   }
 
-  public void setAppliesTo(String appliesTo) {
-    this.appliesTo = appliesTo;
-  }
-
-  public void setDisplayPolicy(String displayPolicy) {
-    this.displayPolicy = displayPolicy;
-  }
-
-  public void setDownloadPolicy(String downloadPolicy) {
-    this.downloadPolicy = downloadPolicy;
-  }
-
-  public void setIbmInstallTo(String ibmInstallTo) {
-    this.ibmInstallTo = ibmInstallTo;
-  }
-
-  public void setInstallPolicy(String installPolicy) {
-    this.installPolicy = installPolicy;
-  }
-
   public void setJavaSEVersionRequirements(JavaSEVersionRequirements javaSEVersionRequirements) {
     this.javaSEVersionRequirements = javaSEVersionRequirements;
   }
@@ -118,32 +72,42 @@ public class WlpInformation {
     this.singleton = singleton;
   }
 
-  public void setTypeLabel(String typeLabel) {
-    this.typeLabel = typeLabel;
-  }
-
   public void setVisibility(String visibility) {
     this.visibility = visibility;
   }
 
-  public void setWebDisplayPolicy(String webDisplayPolicy) {
-    this.webDisplayPolicy = webDisplayPolicy;
-  }
-
-  public void setMavenCoordinates(String mavenCoordinates) {
-    this.mavenCoordinates = mavenCoordinates;
+  public void setProvideFeature(List<String> provideFeature) {
+    this.provideFeature = toArray(provideFeature);
   }
 
-  public void setProvideFeature(ArrayList<String> provideFeature) {
-    this.provideFeature = provideFeature;
+  public void setRequireFeature(List<String> requireFeature) {
+    this.requireFeature = toArray(requireFeature);
   }
 
-  public void setRequireFeature(ArrayList<String> requireFeature) {
-    this.requireFeature = requireFeature;
+  public void setRequireFeatureWithTolerates(List<RequireFeatureWithTolerates> requireFeatureWithTolerates) {
+    this.requireFeatureWithTolerates = requireFeatureWithTolerates == null ? null
+        : requireFeatureWithTolerates.toArray(new RequireFeatureWithTolerates[0]);
   }
 
   public void setShortName(String shortName) {
     this.shortName = shortName;
   }
-}
 
+  private static List<String> toList(String[] values) {
+    return values == null ? null : Collections.unmodifiableList(Arrays.asList(values));
+  }
+
+  private static String[] toArray(List<String> values) {
+    if (values == null) {
+      return null;
+    }
+    if (values.isEmpty()) {
+      return NO_FEATURES;
+    }
+    String[] array = new String[values.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = values.get(i);
+    }
+    return array;
+  }
+}
@@ -12,6 +12,8 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.models.settings;
 
+import java.util.List;
+
 /**
  * Model for settings under the 'liberty' key in xml settings
  * Ie. version refers to: xml.liberty.version
@@ -20,6 +22,15 @@ public class LibertySettings {
 
   private String version;
   private int requestDelay; // in seconds
+  private String repositoryUrl; // base URL of the Maven repository for feature lists
+  private int connectTimeout; // in seconds
+  private int readTimeout; // in seconds
+  private int installedFeaturesTimeout; // in seconds
+  private int featureCacheEntries; // maximum number of cached Liberty versions
+  private int featureCacheSize; // in megabytes
+  private List<String> ignorePatterns; // .gitignore style patterns of paths not scanned
+  private int scanDepth; // maximum directory depth scanned in workspace folders
+  private int diagnosticsTimeBudget; // in milliseconds
 
   public String getVersion() {
     return version;
@@ -37,4 +48,76 @@ public class LibertySettings {
     this.requestDelay = requestDelay;
   }
 
+  public String getRepositoryUrl() {
+    return repositoryUrl;
+  }
+
+  public void setRepositoryUrl(String repositoryUrl) {
+    this.repositoryUrl = repositoryUrl;
+  }
+
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public void setConnectTimeout(int connectTimeout) {
+    this.connectTimeout = connectTimeout;
+  }
+
+  public int getReadTimeout() {
+    return readTimeout;
+  }
+
+  public void setReadTimeout(int readTimeout) {
+    this.readTimeout = readTimeout;
+  }
+
+  public int getInstalledFeaturesTimeout() {
+    return installedFeaturesTimeout;
+  }
+
+  public void setInstalledFeaturesTimeout(int installedFeaturesTimeout) {
+    this.installedFeaturesTimeout = installedFeaturesTimeout;
+  }
+
+  public int getFeatureCacheEntries() {
+    return featureCacheEntries;
+  }
+
+  public void setFeatureCacheEntries(int featureCacheEntries) {
+    this.featureCacheEntries = featureCacheEntries;
+  }
+
+  public int getFeatureCacheSize() {
+    return featureCacheSize;
+  }
+
+  public void setFeatureCacheSize(int featureCacheSize) {
+    this.featureCacheSize = featureCacheSize;
+  }
+
+  public List<String> getIgnorePatterns() {
+    return ignorePatterns;
+  }
+
+  public void setIgnorePatterns(List<String> ignorePatterns) {
+    this.ignorePatterns = ignorePatterns;
+  }
+
+  public int getScanDepth() {
+    return scanDepth;
+  }
+
+  public void setScanDepth(int scanDepth) {
+    this.scanDepth = scanDepth;
+  }
+
+  public int getDiagnosticsTimeBudget() {
+    return diagnosticsTimeBudget;
+  }
+
+  public void setDiagnosticsTimeBudget(int diagnosticsTimeBudget) {
+    this.diagnosticsTimeBudget = diagnosticsTimeBudget;
+  }
+
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+
+/**
+ * Build step that converts the bundled features JSON into the default feature
+ * catalog resource, using the format of the {@link FeatureCatalogStore}. Run by
+ * the lemminx-liberty build during process-classes.
+ *
+ * Usage: DefaultFeatureCatalogGenerator &lt;features json&gt; &lt;output file&gt;
+ * &lt;liberty version&gt;
+ */
+public class DefaultFeatureCatalogGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(DefaultFeatureCatalogGenerator.class.getName());
+
+    private DefaultFeatureCatalogGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException(
+                    "Usage: DefaultFeatureCatalogGenerator <features json> <output file> <liberty version>");
+        }
+        Path output = Paths.get(args[1]);
+        FeatureCatalog catalog = generate(Paths.get(args[0]), output, args[2]);
+        LOGGER.info("Generated " + output + " with " + catalog.size() + " public features");
+    }
+
+    /**
+     * Converts the features JSON into a catalog file and verifies that every
+     * public feature of the JSON can be read back from it
+     *
+     * @param json           features JSON
+     * @param output         catalog file to write
+     * @param libertyVersion Liberty version of the features
+     * @return catalog read back from the written file
+     * @throws IOException if the conversion fails or drops a public feature
+     */
+    public static FeatureCatalog generate(Path json, Path output, String libertyVersion) throws IOException {
+        List<Feature> features;
+        try (Reader reader = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            features = FeatureJsonReader.readPublicFeatures(reader);
+        }
+        byte[] bytes = FeatureCatalogStore
+                .writeCatalog(new FeatureCatalogStore.Entry(new FeatureCatalog(libertyVersion, features), null, null));
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, bytes);
+
+        FeatureCatalog generated;
+        try (InputStream in = Files.newInputStream(output)) {
+            generated = FeatureCatalogStore.readCatalog(in, libertyVersion);
+        }
+        // compare against the public features found by a full parse of the JSON
+        Set<String> missing = readPublicShortNames(json);
+        for (Feature feature : generated.getFeatures()) {
+            missing.remove(FeatureCatalog.normalize(feature.getWlpInformation().getShortName()));
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Public features missing from the generated catalog " + output + ": " + missing);
+        }
+        return generated;
+    }
+
+    private static Set<String> readPublicShortNames(Path json) throws IOException {
+        Set<String> shortNames = new TreeSet<String>();
+        try (Reader reader = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            JsonArray array = new JsonParser().parse(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject wlpInformation = element.getAsJsonObject().getAsJsonObject("wlpInformation");
+                if (wlpInformation != null && wlpInformation.has("visibility")
+                        && LibertyConstants.PUBLIC_VISIBILITY.equals(wlpInformation.get("visibility").getAsString())) {
+                    shortNames.add(FeatureCatalog.normalize(wlpInformation.get("shortName").getAsString()));
+                }
+            }
+        }
+        return shortNames;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+/**
+ * Liberty information resolved for a version of a server.xml document: its
+ * workspace, the Liberty version and the catalog of features. Shared by the
+ * completion, hover and diagnostics participants, see
+ * {@link DocumentContextService}.
+ */
+public class DocumentContext {
+
+    private final String documentURI;
+    private final int documentVersion;
+    private final long generation;
+    private final LibertyWorkspace libertyWorkspace;
+    private final boolean libertyInstalled;
+    private final String libertyVersion;
+    private final FeatureCatalog featureCatalog;
+
+    DocumentContext(String documentURI, int documentVersion, long generation, LibertyWorkspace libertyWorkspace,
+            boolean libertyInstalled, String libertyVersion, FeatureCatalog featureCatalog) {
+        this.documentURI = documentURI;
+        this.documentVersion = documentVersion;
+        this.generation = generation;
+        this.libertyWorkspace = libertyWorkspace;
+        this.libertyInstalled = libertyInstalled;
+        this.libertyVersion = libertyVersion;
+        this.featureCatalog = featureCatalog;
+    }
+
+    public String getDocumentURI() {
+        return documentURI;
+    }
+
+    public int getDocumentVersion() {
+        return documentVersion;
+    }
+
+    /**
+     * @return workspace of the document, or null if it is not in a workspace
+     *         folder
+     */
+    public LibertyWorkspace getLibertyWorkspace() {
+        return libertyWorkspace;
+    }
+
+    /**
+     * @return Liberty version of the document, or null if unknown
+     */
+    public String getLibertyVersion() {
+        return libertyVersion;
+    }
+
+    /**
+     * @return catalog of the features supported by the document's Liberty
+     *         version when the context was resolved
+     */
+    public FeatureCatalog getFeatureCatalog() {
+        return featureCatalog;
+    }
+
+    /**
+     * Checks if the context still applies to a version of the document
+     */
+    boolean isValid(int documentVersion, long generation) {
+        if (this.documentVersion != documentVersion || this.generation != generation) {
+            return false;
+        }
+        // a Liberty installation that was changed or removed must be detected again
+        return libertyWorkspace == null || libertyWorkspace.isLibertyInstalled() == libertyInstalled;
+    }
+
+}
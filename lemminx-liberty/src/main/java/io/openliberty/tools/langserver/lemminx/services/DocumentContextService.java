@@ -0,0 +1,132 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.commons.TextDocument;
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
+
+/**
+ * Caches the {@link DocumentContext} of each server.xml document, keyed by
+ * document URI and version, so that the workspace, Liberty version and feature
+ * catalog are resolved once per edit instead of once per participant call.
+ *
+ * Contexts are invalidated when the document changes, when the settings
+ * change, when a new feature catalog becomes available and when the Liberty
+ * installation of the workspace changes.
+ */
+public class DocumentContextService {
+
+    private static final Logger LOGGER = Logger.getLogger(DocumentContextService.class.getName());
+
+    private static final DocumentContextService INSTANCE = new DocumentContextService();
+
+    // closed documents are dropped when revalidation finds them closed, this
+    // bounds the cache if many documents are opened in between
+    private static final int MAX_DOCUMENTS = 256;
+
+    public static DocumentContextService getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<String, DocumentContext> contexts = new ConcurrentHashMap<>();
+    // incremented by each invalidation, contexts of older generations are stale
+    private final AtomicLong generation = new AtomicLong();
+
+    private DocumentContextService() {
+    }
+
+    /**
+     * Returns the context of a server.xml document, resolving it if the document
+     * or its environment changed since it was last resolved
+     *
+     * @param document server.xml document
+     * @return document context
+     */
+    public DocumentContext getContext(DOMDocument document) {
+        return getContext(document, null);
+    }
+
+    /**
+     * Returns the context of a server.xml document for a validation that can be
+     * cancelled, see {@link #getContext(DOMDocument)}
+     *
+     * @param document      server.xml document
+     * @param cancelChecker cancel checker of the validation, or null
+     * @return document context
+     * @throws CancellationException if the validation is cancelled before the
+     *                               context is resolved
+     */
+    public DocumentContext getContext(DOMDocument document, CancelChecker cancelChecker) {
+        String documentURI = document.getDocumentURI();
+        TextDocument textDocument = document.getTextDocument();
+        long currentGeneration = generation.get();
+        if (textDocument == null) {
+            // no version to key the context on
+            return resolve(document, -1, currentGeneration, cancelChecker);
+        }
+        int documentVersion = textDocument.getVersion();
+        DocumentContext context = contexts.get(documentURI);
+        if (context != null && context.isValid(documentVersion, currentGeneration)) {
+            return context;
+        }
+        context = resolve(document, documentVersion, currentGeneration, cancelChecker);
+        if (contexts.size() >= MAX_DOCUMENTS) {
+            contexts.clear();
+        }
+        contexts.put(documentURI, context);
+        return context;
+    }
+
+    private DocumentContext resolve(DOMDocument document, int documentVersion, long currentGeneration,
+            CancelChecker cancelChecker) {
+        String documentURI = document.getDocumentURI();
+        LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(documentURI);
+        String libertyVersion = LibertyUtils.getVersion(document);
+        boolean libertyInstalled = libertyWorkspace != null && libertyWorkspace.isLibertyInstalled();
+        int requestDelay = SettingsService.getInstance().getRequestDelay();
+        FeatureCatalog featureCatalog = FeatureService.getInstance().getFeatureCatalog(libertyVersion, requestDelay,
+                documentURI, cancelChecker);
+        LOGGER.fine("Resolved context of " + documentURI + " version " + documentVersion + ": Liberty "
+                + libertyVersion + ", " + featureCatalog.size() + " features");
+        return new DocumentContext(documentURI, documentVersion, currentGeneration, libertyWorkspace,
+                libertyInstalled, libertyVersion, featureCatalog);
+    }
+
+    /**
+     * Invalidates the context of every document, for example when the settings
+     * change or a new feature catalog is available
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        contexts.clear();
+    }
+
+    /**
+     * Drops the context of a document
+     *
+     * @param documentURI URI of the document
+     */
+    public void remove(String documentURI) {
+        contexts.remove(documentURI);
+    }
+
+}
@@ -0,0 +1,330 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.RequireFeatureWithTolerates;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+
+/**
+ * Immutable catalog of the features supported by a Liberty version. The short
+ * name index and the sorted prefix index are built once when the catalog is
+ * created so that feature lookups and completion do not need to scan the full
+ * feature list. The suffix index used to match text inside the short names is
+ * built the first time it is needed.
+ */
+public class FeatureCatalog {
+
+    private final String libertyVersion;
+    private final List<Feature> features;
+    private final Map<String, Feature> featuresByShortName;
+
+    // normalized short names in sorted order, and the features in the same order
+    private final String[] sortedShortNames;
+    private final Feature[] sortedFeatures;
+    // rough retained size, used to bound the feature catalog cache
+    private final long estimatedSize;
+    // built on first use, the catalog is immutable
+    private volatile FeatureDependencyGraph dependencyGraph;
+    // every suffix of the sorted short names in sorted order, each packed as the
+    // index of the short name and the offset of the suffix, built on first use
+    private volatile long[] sortedSuffixes;
+
+    /**
+     * Creates a catalog from the given list of features
+     *
+     * @param libertyVersion version of Liberty the features belong to, may be null
+     * @param features       list of features
+     */
+    public FeatureCatalog(String libertyVersion, List<Feature> features) {
+        this.libertyVersion = libertyVersion;
+        this.features = Collections.unmodifiableList(new ArrayList<Feature>(features));
+        this.featuresByShortName = new HashMap<String, Feature>(features.size() * 2);
+        for (Feature feature : this.features) {
+            String shortName = feature.getWlpInformation().getShortName();
+            if (shortName != null) {
+                // keep the first occurrence to match the previous linear search
+                featuresByShortName.putIfAbsent(FeatureNames.share(normalize(shortName)), feature);
+            }
+        }
+
+        this.sortedShortNames = featuresByShortName.keySet().toArray(new String[0]);
+        Arrays.sort(this.sortedShortNames);
+        this.sortedFeatures = new Feature[sortedShortNames.length];
+        for (int i = 0; i < sortedShortNames.length; i++) {
+            sortedFeatures[i] = featuresByShortName.get(sortedShortNames[i]);
+        }
+        this.estimatedSize = estimateCatalogSize(this.features);
+    }
+
+    // approximate object header and reference sizes of a 64 bit JVM
+    private static final int OBJECT_SIZE = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int FEATURE_SIZE = OBJECT_SIZE + 5 * REFERENCE_SIZE;
+    private static final int WLP_INFORMATION_SIZE = OBJECT_SIZE + 6 * REFERENCE_SIZE;
+    // list slot, index map entry and sorted index slots of a feature
+    private static final int INDEX_SIZE = REFERENCE_SIZE + (OBJECT_SIZE + 4 * REFERENCE_SIZE) + 2 * REFERENCE_SIZE;
+
+    /**
+     * Estimates the heap retained by the features and indexes of a catalog.
+     * Strings shared with other catalogs are counted in each of them, so the
+     * estimate errs on the high side.
+     */
+    private static long estimateCatalogSize(List<Feature> features) {
+        long size = OBJECT_SIZE;
+        for (Feature feature : features) {
+            size += FEATURE_SIZE + INDEX_SIZE;
+            size += estimateSize(feature.getName()) + estimateSize(feature.getVersion());
+            size += estimateSize(feature.getDescription());
+            if (feature.getShortDescription() != feature.getDescription()) {
+                size += estimateSize(feature.getShortDescription());
+            }
+            WlpInformation wlpInformation = feature.getWlpInformation();
+            if (wlpInformation != null) {
+                size += WLP_INFORMATION_SIZE + estimateSize(wlpInformation.getShortName());
+                size += estimateSize(wlpInformation.getProvideFeature());
+                size += estimateSize(wlpInformation.getRequireFeature());
+                List<RequireFeatureWithTolerates> toleratedRequirements = wlpInformation.getRequireFeatureWithTolerates();
+                if (toleratedRequirements != null) {
+                    for (RequireFeatureWithTolerates requirement : toleratedRequirements) {
+                        size += OBJECT_SIZE + 2 * REFERENCE_SIZE + estimateSize(requirement.getFeature())
+                                + estimateSize(requirement.getTolerates());
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(String value) {
+        return value == null ? 0 : OBJECT_SIZE + REFERENCE_SIZE + OBJECT_SIZE + 2L * value.length();
+    }
+
+    private static long estimateSize(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        long size = OBJECT_SIZE + (long) values.size() * REFERENCE_SIZE;
+        for (String value : values) {
+            size += estimateSize(value);
+        }
+        return size;
+    }
+
+    /**
+     * Normalizes a feature short name for case insensitive lookups
+     *
+     * @param featureName feature short name
+     * @return lower cased feature name
+     */
+    public static String normalize(String featureName) {
+        return featureName.toLowerCase(Locale.ROOT);
+    }
+
+    public String getLibertyVersion() {
+        return this.libertyVersion;
+    }
+
+    public List<Feature> getFeatures() {
+        return this.features;
+    }
+
+    public int size() {
+        return this.features.size();
+    }
+
+    /**
+     * @return approximate number of bytes retained by the catalog
+     */
+    public long getEstimatedSize() {
+        return this.estimatedSize;
+    }
+
+    public boolean isEmpty() {
+        return this.features.isEmpty();
+    }
+
+    /**
+     * Returns the feature with the given short name, ignoring case
+     *
+     * @param featureName feature short name
+     * @return feature or empty if the catalog does not contain the feature
+     */
+    public Optional<Feature> getFeature(String featureName) {
+        if (featureName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(featuresByShortName.get(normalize(featureName)));
+    }
+
+    /**
+     * Returns the dependencies between the features of the catalog. The graph is
+     * built the first time it is requested.
+     *
+     * @return dependency graph
+     */
+    public FeatureDependencyGraph getDependencyGraph() {
+        FeatureDependencyGraph graph = this.dependencyGraph;
+        if (graph == null) {
+            // building it twice concurrently is harmless
+            graph = new FeatureDependencyGraph(this.features);
+            this.dependencyGraph = graph;
+        }
+        return graph;
+    }
+
+    public boolean featureExists(String featureName) {
+        return featureName != null && featuresByShortName.containsKey(normalize(featureName));
+    }
+
+    /**
+     * Returns the features whose short name starts with the given prefix, ignoring
+     * case, in short name order. The returned list is a view over the catalog's
+     * index, so only the matching range is visited by the caller.
+     *
+     * @param prefix feature short name prefix, an empty prefix matches every
+     *               feature
+     * @return list of matching features
+     */
+    public List<Feature> getFeaturesWithPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(sortedFeatures));
+        }
+        String normalizedPrefix = normalize(prefix);
+        int from = lowerBound(normalizedPrefix);
+        // the first short name after every name starting with the prefix
+        int to = lowerBound(normalizedPrefix + Character.MAX_VALUE);
+        return Collections.unmodifiableList(Arrays.asList(sortedFeatures).subList(from, to));
+    }
+
+    /**
+     * Returns the features whose short name contains the given text, ignoring
+     * case. Matches are found through an index of the suffixes of the short
+     * names, so only the matching suffixes are visited.
+     *
+     * @param text  text contained in the feature short names
+     * @param limit maximum number of features returned
+     * @return list of matching features, in no particular order
+     */
+    public List<Feature> getFeaturesContaining(String text, int limit) {
+        if (text == null || text.isEmpty()) {
+            List<Feature> features = getFeaturesWithPrefix(text);
+            return features.subList(0, Math.min(limit, features.size()));
+        }
+        String normalizedText = normalize(text);
+        long[] suffixes = getSortedSuffixes();
+        Set<Feature> matches = new LinkedHashSet<Feature>();
+        for (int i = lowerBoundSuffix(suffixes, normalizedText); i < suffixes.length && matches.size() < limit; i++) {
+            String shortName = sortedShortNames[(int) (suffixes[i] >>> 32)];
+            if (!shortName.startsWith(normalizedText, (int) suffixes[i])) {
+                break;
+            }
+            matches.add(sortedFeatures[(int) (suffixes[i] >>> 32)]);
+        }
+        return new ArrayList<Feature>(matches);
+    }
+
+    private long[] getSortedSuffixes() {
+        long[] suffixes = this.sortedSuffixes;
+        if (suffixes == null) {
+            // building it twice concurrently is harmless
+            suffixes = buildSortedSuffixes(sortedShortNames);
+            this.sortedSuffixes = suffixes;
+        }
+        return suffixes;
+    }
+
+    private static long[] buildSortedSuffixes(String[] shortNames) {
+        int count = 0;
+        for (String shortName : shortNames) {
+            count += shortName.length();
+        }
+        Long[] suffixes = new Long[count];
+        int next = 0;
+        for (int i = 0; i < shortNames.length; i++) {
+            for (int offset = 0; offset < shortNames[i].length(); offset++) {
+                suffixes[next++] = ((long) i << 32) | offset;
+            }
+        }
+        Arrays.sort(suffixes, (a, b) -> compareSuffix(shortNames, a, b));
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = suffixes[i];
+        }
+        return sorted;
+    }
+
+    private static int compareSuffix(String[] shortNames, long a, long b) {
+        String first = shortNames[(int) (a >>> 32)];
+        String second = shortNames[(int) (b >>> 32)];
+        int i = (int) a;
+        int j = (int) b;
+        while (i < first.length() && j < second.length()) {
+            int difference = first.charAt(i++) - second.charAt(j++);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return (first.length() - i) - (second.length() - j);
+    }
+
+    /**
+     * Returns the index of the first sorted suffix that is greater than or equal
+     * to the given key
+     */
+    private int lowerBoundSuffix(long[] suffixes, String key) {
+        int low = 0;
+        int high = suffixes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String shortName = sortedShortNames[(int) (suffixes[mid] >>> 32)];
+            int offset = (int) suffixes[mid];
+            if (shortName.substring(offset).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first sorted short name that is greater than or
+     * equal to the given key
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = sortedShortNames.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedShortNames[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Bounded cache of Liberty version -> feature catalog. When the number of
+ * catalogs or their estimated size exceeds the budget, the least recently used
+ * catalogs are evicted. Evicted catalogs are loaded again from the
+ * {@link FeatureCatalogStore} when they are requested again.
+ *
+ * Lookups do not take a lock, only adding and removing catalogs is
+ * synchronized. Readers may keep using a catalog after it has been evicted.
+ */
+public class FeatureCatalogCache {
+
+    private static final Logger LOGGER = Logger.getLogger(FeatureCatalogCache.class.getName());
+
+    // recency is tracked with a resolution of one millisecond
+    private static final long ACCESS_RESOLUTION = 1000000;
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final IntSupplier maxEntries;
+    private final LongSupplier maxBytes;
+    // estimated size of the cached catalogs, guarded by this
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries maximum number of cached catalogs, read each time a
+     *                   catalog is added so that settings changes apply
+     * @param maxBytes   maximum estimated size in bytes of the cached catalogs
+     */
+    public FeatureCatalogCache(IntSupplier maxEntries, LongSupplier maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached catalog for the Liberty version and marks it as recently
+     * used
+     *
+     * @param libertyVersion Liberty version
+     * @return catalog, or null if the catalog is not cached
+     */
+    public FeatureCatalog get(String libertyVersion) {
+        CacheEntry entry = entries.get(libertyVersion);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        // only write the access time when it changes noticeably, so that readers
+        // of a popular catalog do not contend on the entry
+        long now = System.nanoTime();
+        if (now - entry.lastAccess > ACCESS_RESOLUTION) {
+            entry.lastAccess = now;
+        }
+        return entry.catalog;
+    }
+
+    /**
+     * Returns the cached catalog without updating its recency or the statistics
+     */
+    public FeatureCatalog peek(String libertyVersion) {
+        CacheEntry entry = entries.get(libertyVersion);
+        return entry == null ? null : entry.catalog;
+    }
+
+    /**
+     * Caches the catalog of a Liberty version, evicting the least recently used
+     * catalogs if the cache is over budget. The catalog just added is never
+     * evicted, even if it exceeds the budget on its own.
+     *
+     * @param libertyVersion Liberty version
+     * @param catalog        catalog of the version
+     */
+    public synchronized void put(String libertyVersion, FeatureCatalog catalog) {
+        CacheEntry entry = new CacheEntry(catalog);
+        CacheEntry previous = entries.put(libertyVersion, entry);
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        bytes += entry.size;
+        evict(libertyVersion);
+    }
+
+    /**
+     * Removes the catalog of a Liberty version
+     *
+     * @param libertyVersion Liberty version
+     */
+    public synchronized void remove(String libertyVersion) {
+        CacheEntry previous = entries.remove(libertyVersion);
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+    }
+
+    private void evict(String keep) {
+        int entryBudget = Math.max(1, maxEntries.getAsInt());
+        long byteBudget = maxBytes.getAsLong();
+        while (entries.size() > 1 && (entries.size() > entryBudget || bytes > byteBudget)) {
+            String eldest = null;
+            long eldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, CacheEntry> candidate : entries.entrySet()) {
+                if (!candidate.getKey().equals(keep) && candidate.getValue().lastAccess - eldestAccess < 0) {
+                    eldest = candidate.getKey();
+                    eldestAccess = candidate.getValue().lastAccess;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            CacheEntry evicted = entries.remove(eldest);
+            bytes -= evicted.size;
+            evictions.increment();
+            LOGGER.fine("Evicted feature catalog for version " + eldest);
+        }
+    }
+
+    /**
+     * @return number of cached catalogs
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return estimated size in bytes of the cached catalogs
+     */
+    public synchronized long getEstimatedSize() {
+        return bytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "FeatureCatalogCache[entries=" + size() + ", bytes=" + getEstimatedSize() + ", hits="
+                + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private static class CacheEntry {
+        final FeatureCatalog catalog;
+        final long size;
+        volatile long lastAccess;
+
+        CacheEntry(FeatureCatalog catalog) {
+            this.catalog = catalog;
+            this.size = catalog.getEstimatedSize();
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+}
@@ -0,0 +1,433 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.eclipse.lemminx.utils.FilesUtils;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.JavaSEVersionRequirements;
+import io.openliberty.tools.langserver.lemminx.models.feature.RequireFeatureWithTolerates;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+
+/**
+ * Persists feature catalogs in the LemMinX cache in a compact binary format so
+ * that a restarted language server does not need to download and parse the
+ * feature JSON again.
+ *
+ * File layout: magic, format version, payload length, CRC32 of the payload,
+ * followed by the payload (Liberty version, the HTTP validators of the download,
+ * feature count and the fields of each feature used by the language features).
+ */
+public class FeatureCatalogStore {
+
+    private static final Logger LOGGER = Logger.getLogger(FeatureCatalogStore.class.getName());
+
+    // "LFCS" - Liberty Feature Catalog Store
+    private static final int MAGIC = 0x4C464353;
+    // increment whenever the payload layout changes
+    static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    private final Path directory;
+
+    /**
+     * Returns a store located in the LemMinX cache, next to the deployed
+     * server.xsd
+     *
+     * @return feature catalog store
+     * @throws IOException if the LemMinX cache location cannot be determined
+     */
+    public static FeatureCatalogStore createDefault() throws IOException {
+        return new FeatureCatalogStore(FilesUtils.getDeployedPath(Paths.get("cache", "liberty", "features")));
+    }
+
+    public FeatureCatalogStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Returns the file the catalog of the given Liberty version is stored in
+     *
+     * @param libertyVersion Liberty version
+     * @return path of the stored catalog
+     */
+    public Path getCatalogFile(String libertyVersion) {
+        return directory.resolve("features-" + libertyVersion.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+    }
+
+    /**
+     * Loads the stored catalog for the given Liberty version
+     *
+     * @param libertyVersion Liberty version
+     * @return stored catalog, or null if there is no valid stored catalog
+     */
+    public FeatureCatalog load(String libertyVersion) {
+        Entry entry = loadEntry(libertyVersion);
+        return entry == null ? null : entry.getCatalog();
+    }
+
+    /**
+     * Loads the stored catalog for the given Liberty version along with the HTTP
+     * validators of the download it was created from
+     *
+     * @param libertyVersion Liberty version
+     * @return stored entry, or null if there is no valid stored catalog
+     */
+    public Entry loadEntry(String libertyVersion) {
+        return loadEntry(getCatalogFile(libertyVersion), libertyVersion);
+    }
+
+    /**
+     * Returns the file the installed features of a Liberty installation are
+     * stored in
+     *
+     * @param fingerprint fingerprint of the installation
+     * @return path of the stored catalog
+     */
+    public Path getInstalledCatalogFile(String fingerprint) {
+        return directory.resolve("installed-" + fingerprint.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+    }
+
+    /**
+     * Loads the stored installed features of a Liberty installation
+     *
+     * @param fingerprint    fingerprint of the installation, see
+     *                       {@link InstalledFeatureScanner#getFingerprint(Path, String)}
+     * @param libertyVersion version of the installation
+     * @return stored catalog, or null if the installation has not been stored
+     */
+    public FeatureCatalog loadInstalled(String fingerprint, String libertyVersion) {
+        Entry entry = loadEntry(getInstalledCatalogFile(fingerprint), libertyVersion);
+        return entry == null ? null : entry.getCatalog();
+    }
+
+    /**
+     * Stores the installed features of a Liberty installation
+     *
+     * @param fingerprint fingerprint of the installation
+     * @param catalog     installed features, with the version of the
+     *                    installation
+     */
+    public void saveInstalled(String fingerprint, FeatureCatalog catalog) {
+        save(getInstalledCatalogFile(fingerprint), new Entry(catalog, null, null));
+    }
+
+    private Entry loadEntry(Path file, String libertyVersion) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Entry entry;
+        try {
+            // read into the heap rather than mapping the file, a mapped file cannot
+            // be deleted or replaced on Windows until the mapping is collected
+            entry = readCatalog(ByteBuffer.wrap(Files.readAllBytes(file)), libertyVersion);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Unable to read stored feature catalog " + file + ": " + e);
+            entry = null;
+        }
+        if (entry == null) {
+            LOGGER.warning("Discarding invalid stored feature catalog: " + file);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warning("Unable to delete stored feature catalog " + file + ": " + e);
+            }
+            return null;
+        }
+        LOGGER.fine("Returning stored features from " + file + ": " + entry.getCatalog().size());
+        return entry;
+    }
+
+    /**
+     * Stores the catalog, replacing any catalog previously stored for the same
+     * Liberty version
+     *
+     * @param catalog catalog to store, must have a Liberty version
+     */
+    public void save(FeatureCatalog catalog) {
+        save(new Entry(catalog, null, null));
+    }
+
+    /**
+     * Stores the catalog and the HTTP validators of the download it was created
+     * from, replacing any catalog previously stored for the same Liberty version
+     *
+     * @param entry entry to store, the catalog must have a Liberty version
+     */
+    public void save(Entry entry) {
+        save(getCatalogFile(entry.getCatalog().getLibertyVersion()), entry);
+    }
+
+    private void save(Path file, Entry entry) {
+        try {
+            Files.createDirectories(directory);
+            // write to a temporary file first so readers never see a partial file
+            Path tempFile = Files.createTempFile(directory, "features", ".tmp");
+            try {
+                Files.write(tempFile, writeCatalog(entry));
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Unable to store feature catalog " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Reads a catalog in the store format from a stream, such as the default
+     * catalog generated into the classpath at build time
+     *
+     * @param in             stream to read, not closed
+     * @param libertyVersion expected Liberty version
+     * @return catalog read from the stream
+     * @throws IOException if the stream cannot be read or does not contain a
+     *                     valid catalog for the version
+     */
+    static FeatureCatalog readCatalog(InputStream in, String libertyVersion) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        Entry entry;
+        try {
+            entry = readCatalog(ByteBuffer.wrap(bytes.toByteArray()), libertyVersion);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid feature catalog", e);
+        }
+        if (entry == null) {
+            throw new IOException("Invalid feature catalog for version " + libertyVersion);
+        }
+        return entry.getCatalog();
+    }
+
+    static byte[] writeCatalog(Entry entry) throws IOException {
+        FeatureCatalog catalog = entry.getCatalog();
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        writeString(payload, catalog.getLibertyVersion());
+        writeString(payload, entry.getETag());
+        writeString(payload, entry.getLastModified());
+        payload.writeInt(catalog.size());
+        for (Feature feature : catalog.getFeatures()) {
+            writeFeature(payload, feature);
+        }
+        payload.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(payloadBytes.toByteArray());
+
+        ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(HEADER_SIZE + payloadBytes.size());
+        DataOutputStream out = new DataOutputStream(fileBytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(payloadBytes.size());
+        out.writeLong(crc.getValue());
+        payloadBytes.writeTo(out);
+        out.flush();
+        return fileBytes.toByteArray();
+    }
+
+    /**
+     * Reads a stored catalog
+     *
+     * @return stored entry, or null if the header, checksum or Liberty version do
+     *         not match
+     */
+    static Entry readCatalog(ByteBuffer buffer, String libertyVersion) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return null;
+        }
+        int payloadLength = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (payloadLength != buffer.remaining()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum) {
+            return null;
+        }
+
+        String storedVersion = readString(buffer);
+        if (libertyVersion != null && !libertyVersion.equals(storedVersion)) {
+            return null;
+        }
+        String etag = readString(buffer);
+        String lastModified = readString(buffer);
+        int count = buffer.getInt();
+        List<Feature> features = new ArrayList<Feature>(count);
+        for (int i = 0; i < count; i++) {
+            features.add(readFeature(buffer));
+        }
+        return new Entry(new FeatureCatalog(storedVersion, features), etag, lastModified);
+    }
+
+    private static void writeFeature(DataOutputStream out, Feature feature) throws IOException {
+        WlpInformation wlpInformation = feature.getWlpInformation();
+        writeString(out, feature.getName());
+        writeString(out, feature.getShortDescription());
+        writeString(out, feature.getVersion());
+        writeString(out, wlpInformation.getShortName());
+        writeString(out, wlpInformation.getVisibility());
+        writeString(out, wlpInformation.getSingleton());
+        JavaSEVersionRequirements javaSEVersionRequirements = wlpInformation.getJavaSEVersionRequirements();
+        writeString(out, javaSEVersionRequirements == null ? null : javaSEVersionRequirements.getMinVersion());
+        writeStringList(out, wlpInformation.getProvideFeature());
+        writeStringList(out, wlpInformation.getRequireFeature());
+        List<RequireFeatureWithTolerates> toleratedRequirements = wlpInformation.getRequireFeatureWithTolerates();
+        if (toleratedRequirements == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(toleratedRequirements.size());
+        for (RequireFeatureWithTolerates requirement : toleratedRequirements) {
+            writeString(out, requirement.getFeature());
+            writeStringList(out, requirement.getTolerates());
+        }
+    }
+
+    private static Feature readFeature(ByteBuffer in) {
+        Feature feature = new Feature();
+        feature.setName(readName(in));
+        feature.setShortDescription(readString(in));
+        feature.setVersion(readName(in));
+        WlpInformation wlpInformation = new WlpInformation(readName(in));
+        wlpInformation.setVisibility(readName(in));
+        wlpInformation.setSingleton(readName(in));
+        String javaSEMinVersion = readName(in);
+        if (javaSEMinVersion != null) {
+            JavaSEVersionRequirements javaSEVersionRequirements = new JavaSEVersionRequirements();
+            javaSEVersionRequirements.setMinVersion(javaSEMinVersion);
+            wlpInformation.setJavaSEVersionRequirements(javaSEVersionRequirements);
+        }
+        wlpInformation.setProvideFeature(readNameList(in));
+        wlpInformation.setRequireFeature(readNameList(in));
+        int toleratedCount = in.getInt();
+        if (toleratedCount >= 0) {
+            List<RequireFeatureWithTolerates> toleratedRequirements = new ArrayList<RequireFeatureWithTolerates>(
+                    toleratedCount);
+            for (int i = 0; i < toleratedCount; i++) {
+                RequireFeatureWithTolerates requirement = new RequireFeatureWithTolerates();
+                requirement.setFeature(readName(in));
+                requirement.setTolerates(readNameList(in));
+                toleratedRequirements.add(requirement);
+            }
+            wlpInformation.setRequireFeatureWithTolerates(toleratedRequirements);
+        }
+        feature.setWlpInformation(wlpInformation);
+        return feature;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStringList(DataOutputStream out, List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    /**
+     * Reads a short repeated value, such as a feature name or a version, sharing
+     * the instance used by every feature list
+     */
+    private static String readName(ByteBuffer in) {
+        return FeatureNames.share(readString(in));
+    }
+
+    private static ArrayList<String> readNameList(ByteBuffer in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        ArrayList<String> values = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readName(in));
+        }
+        return values;
+    }
+
+    /**
+     * Stored catalog and the HTTP validators (ETag and Last-Modified) of the
+     * download it was created from, used to make conditional requests
+     */
+    public static class Entry {
+
+        private final FeatureCatalog catalog;
+        private final String etag;
+        private final String lastModified;
+
+        public Entry(FeatureCatalog catalog, String etag, String lastModified) {
+            this.catalog = catalog;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public FeatureCatalog getCatalog() {
+            return catalog;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+}
@@ -0,0 +1,321 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.RequireFeatureWithTolerates;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+
+/**
+ * Dependencies between the features of a catalog. The features enabled by
+ * each feature, including itself and its transitive requirements, are
+ * precomputed as bitsets, so resolving a featureManager block is an OR of the
+ * bitsets of its features, and detecting singleton conflicts is an AND with
+ * the bitset of each singleton family.
+ *
+ * Only requirements on a single version are followed. A requirement that
+ * tolerates other versions is resolved by Liberty against the rest of the
+ * configuration, so it cannot cause a conflict on its own and is left out
+ * rather than reporting conflicts Liberty would not. Requirements on features
+ * that are not in the catalog, for example private features, are not followed
+ * either.
+ */
+public class FeatureDependencyGraph {
+
+    private final Feature[] features;
+    // normalized short name -> index in features
+    private final Map<String, Integer> indexes;
+    private final int words;
+    // closures[i] has the bits of the features enabled by feature i
+    private final long[][] closures;
+    // bits of the singleton features of each family with more than one version
+    private final long[][] singletonFamilies;
+
+    /**
+     * Builds the graph of the features of a catalog
+     *
+     * @param catalogFeatures features of the catalog
+     */
+    public FeatureDependencyGraph(List<Feature> catalogFeatures) {
+        List<Feature> nodes = new ArrayList<Feature>(catalogFeatures.size());
+        indexes = new HashMap<String, Integer>(catalogFeatures.size() * 2);
+        Map<String, Integer> symbolicNames = new HashMap<String, Integer>(catalogFeatures.size() * 2);
+        for (Feature feature : catalogFeatures) {
+            WlpInformation wlpInformation = feature.getWlpInformation();
+            String shortName = wlpInformation == null ? null : wlpInformation.getShortName();
+            if (shortName == null || indexes.containsKey(FeatureCatalog.normalize(shortName))) {
+                continue;
+            }
+            int index = nodes.size();
+            nodes.add(feature);
+            indexes.put(FeatureCatalog.normalize(shortName), index);
+            if (feature.getName() != null) {
+                symbolicNames.put(feature.getName(), index);
+            }
+            if (wlpInformation.getProvideFeature() != null) {
+                for (String symbolicName : wlpInformation.getProvideFeature()) {
+                    symbolicNames.put(symbolicName, index);
+                }
+            }
+        }
+        features = nodes.toArray(new Feature[0]);
+        words = (features.length + 63) >>> 6;
+
+        // direct requirements, then the closure by propagating the bitsets of the
+        // required features until nothing changes, which also handles cycles
+        int[][] requirements = new int[features.length][];
+        closures = new long[features.length][];
+        for (int i = 0; i < features.length; i++) {
+            WlpInformation wlpInformation = features[i].getWlpInformation();
+            Set<String> tolerating = new HashSet<String>();
+            if (wlpInformation.getRequireFeatureWithTolerates() != null) {
+                for (RequireFeatureWithTolerates requirement : wlpInformation.getRequireFeatureWithTolerates()) {
+                    if (!requirement.getTolerates().isEmpty()) {
+                        tolerating.add(requirement.getFeature());
+                    }
+                }
+            }
+            List<Integer> required = new ArrayList<Integer>();
+            if (wlpInformation.getRequireFeature() != null) {
+                for (String symbolicName : wlpInformation.getRequireFeature()) {
+                    Integer index = tolerating.contains(symbolicName) ? null : symbolicNames.get(symbolicName);
+                    if (index != null && index != i) {
+                        required.add(index);
+                    }
+                }
+            }
+            requirements[i] = new int[required.size()];
+            for (int r = 0; r < required.size(); r++) {
+                requirements[i][r] = required.get(r);
+            }
+            closures[i] = new long[words];
+            set(closures[i], i);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < features.length; i++) {
+                for (int required : requirements[i]) {
+                    changed |= or(closures[i], closures[required]);
+                }
+            }
+        }
+
+        // singleton features with the same name but different versions
+        Map<String, long[]> families = new HashMap<String, long[]>();
+        Map<String, Integer> familySizes = new HashMap<String, Integer>();
+        for (int i = 0; i < features.length; i++) {
+            if (!"true".equals(features[i].getWlpInformation().getSingleton())) {
+                continue;
+            }
+            String family = getFamily(features[i].getWlpInformation().getShortName());
+            set(families.computeIfAbsent(family, f -> new long[words]), i);
+            familySizes.merge(family, 1, Integer::sum);
+        }
+        List<long[]> conflictingFamilies = new ArrayList<long[]>();
+        for (Map.Entry<String, long[]> family : families.entrySet()) {
+            if (familySizes.get(family.getKey()) > 1) {
+                conflictingFamilies.add(family.getValue());
+            }
+        }
+        singletonFamilies = conflictingFamilies.toArray(new long[0][]);
+    }
+
+    /**
+     * @return short name without its version, servlet for servlet-4.0
+     */
+    private static String getFamily(String shortName) {
+        int separator = shortName.lastIndexOf('-');
+        return FeatureCatalog.normalize(separator < 0 ? shortName : shortName.substring(0, separator));
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return true if target changed
+     */
+    private static boolean or(long[] target, long[] bits) {
+        boolean changed = false;
+        for (int w = 0; w < target.length; w++) {
+            long value = target[w] | bits[w];
+            if (value != target[w]) {
+                target[w] = value;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public int size() {
+        return features.length;
+    }
+
+    /**
+     * Resolves the features enabled by a featureManager block
+     *
+     * @param featureNames short names of the features of the block, names that
+     *                     are not in the catalog are ignored
+     * @return resolution
+     */
+    public Resolution resolve(List<String> featureNames) {
+        int[] topLevel = new int[featureNames.size()];
+        int count = 0;
+        long[] enabled = new long[words];
+        for (String featureName : featureNames) {
+            Integer index = featureName == null ? null : indexes.get(FeatureCatalog.normalize(featureName));
+            if (index != null) {
+                topLevel[count++] = index;
+                or(enabled, closures[index]);
+            }
+        }
+        List<long[]> conflicts = null;
+        for (long[] family : singletonFamilies) {
+            int enabledVersions = 0;
+            long[] conflict = null;
+            for (int w = 0; w < words; w++) {
+                long bits = enabled[w] & family[w];
+                if (bits != 0) {
+                    enabledVersions += Long.bitCount(bits);
+                    if (conflict == null) {
+                        conflict = new long[words];
+                    }
+                    conflict[w] = bits;
+                }
+            }
+            if (enabledVersions > 1) {
+                if (conflicts == null) {
+                    conflicts = new ArrayList<long[]>();
+                }
+                conflicts.add(conflict);
+            }
+        }
+        return new Resolution(topLevel, count, enabled,
+                conflicts == null ? Collections.<long[]>emptyList() : conflicts);
+    }
+
+    /**
+     * The features enabled by a featureManager block
+     */
+    public class Resolution {
+
+        private final int[] topLevel;
+        private final int topLevelCount;
+        private final long[] enabled;
+        private final List<long[]> conflicts;
+
+        private Resolution(int[] topLevel, int topLevelCount, long[] enabled, List<long[]> conflicts) {
+            this.topLevel = topLevel;
+            this.topLevelCount = topLevelCount;
+            this.enabled = enabled;
+            this.conflicts = conflicts;
+        }
+
+        /**
+         * @return features enabled by the block, including required features
+         */
+        public List<Feature> getEnabledFeatures() {
+            return toFeatures(enabled);
+        }
+
+        public boolean isEnabled(String featureName) {
+            Integer index = indexes.get(FeatureCatalog.normalize(featureName));
+            return index != null && get(enabled, index);
+        }
+
+        public boolean hasConflicts() {
+            return !conflicts.isEmpty();
+        }
+
+        /**
+         * @return for each singleton family with more than one enabled version,
+         *         the enabled versions
+         */
+        public List<List<Feature>> getConflicts() {
+            List<List<Feature>> result = new ArrayList<List<Feature>>(conflicts.size());
+            for (long[] conflict : conflicts) {
+                result.add(toFeatures(conflict));
+            }
+            return result;
+        }
+
+        /**
+         * Returns the features of the block that enable a feature, directly or
+         * through their requirements
+         *
+         * @param featureName short name of the enabled feature
+         * @return features of the block, in the order of the block
+         */
+        public List<Feature> getEnabledBy(String featureName) {
+            Integer index = indexes.get(FeatureCatalog.normalize(featureName));
+            List<Feature> result = new ArrayList<Feature>();
+            if (index == null) {
+                return result;
+            }
+            for (int i = 0; i < topLevelCount; i++) {
+                if (get(closures[topLevel[i]], index) && !result.contains(features[topLevel[i]])) {
+                    result.add(features[topLevel[i]]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the versions in a conflict that a feature of the block enables
+         *
+         * @param featureName short name of a feature of the block
+         * @param conflict    one of {@link #getConflicts()}
+         * @return versions enabled by the feature
+         */
+        public List<Feature> getConflictingVersions(String featureName, List<Feature> conflict) {
+            Integer index = indexes.get(FeatureCatalog.normalize(featureName));
+            List<Feature> result = new ArrayList<Feature>();
+            if (index == null) {
+                return result;
+            }
+            for (Feature version : conflict) {
+                Integer versionIndex = indexes.get(FeatureCatalog.normalize(version.getWlpInformation().getShortName()));
+                if (get(closures[index], versionIndex)) {
+                    result.add(version);
+                }
+            }
+            return result;
+        }
+
+        private List<Feature> toFeatures(long[] bits) {
+            List<Feature> result = new ArrayList<Feature>();
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    result.add(features[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                    word &= word - 1;
+                }
+            }
+            return result;
+        }
+    }
+
+}
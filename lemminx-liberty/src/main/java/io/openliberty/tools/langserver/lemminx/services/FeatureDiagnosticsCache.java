@@ -0,0 +1,263 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Problems found in the featureManager block of each server.xml document. An
+ * edit outside of the block leaves its features and their offsets relative to
+ * the block unchanged, so the problems found for the same block, the same
+ * included features and the same feature catalog are reused and only their
+ * ranges are recomputed.
+ */
+public class FeatureDiagnosticsCache {
+
+    private static final FeatureDiagnosticsCache INSTANCE = new FeatureDiagnosticsCache();
+
+    // closed documents are dropped when revalidation finds them closed, this
+    // bounds the cache if many documents are opened in between
+    private static final int MAX_DOCUMENTS = 256;
+
+    public static FeatureDiagnosticsCache getInstance() {
+        return INSTANCE;
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Returns the problems found for a featureManager block of a document
+     *
+     * @param documentURI URI of the document
+     * @param block       features of the block
+     * @param catalog     catalog the features were validated against
+     * @return problems, or null if the block or the catalog changed
+     */
+    public List<Problem> get(String documentURI, Block block, FeatureCatalog catalog) {
+        Entry entry = entries.get(documentURI);
+        if (entry != null && entry.catalog == catalog && entry.block.equals(block)) {
+            hits.increment();
+            return entry.problems;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Remembers the problems found for a featureManager block of a document
+     *
+     * @param documentURI URI of the document
+     * @param block       features of the block
+     * @param catalog     catalog the features were validated against
+     * @param problems    problems found
+     */
+    public void put(String documentURI, Block block, FeatureCatalog catalog, List<Problem> problems) {
+        if (entries.size() >= MAX_DOCUMENTS && !entries.containsKey(documentURI)) {
+            entries.clear();
+        }
+        entries.put(documentURI, new Entry(block, catalog, Collections.unmodifiableList(problems)));
+    }
+
+    /**
+     * Drops the problems of a document
+     *
+     * @param documentURI URI of the document
+     */
+    public void remove(String documentURI) {
+        entries.remove(documentURI);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static class Entry {
+        final Block block;
+        final FeatureCatalog catalog;
+        final List<Problem> problems;
+
+        Entry(Block block, FeatureCatalog catalog, List<Problem> problems) {
+            this.block = block;
+            this.catalog = catalog;
+            this.problems = problems;
+        }
+    }
+
+    /**
+     * The features of a featureManager block: their names and their offsets
+     * relative to the start of the block, and the features enabled by the
+     * configuration files the document includes, with the offsets of the
+     * element that includes them
+     */
+    public static class Block {
+
+        private final List<String> names = new ArrayList<String>();
+        private int[] offsets = new int[16];
+        private final List<String> includedNames = new ArrayList<String>();
+        private final List<String> includedSources = new ArrayList<String>();
+        private int[] includedOffsets = new int[16];
+        private int hash = 1;
+
+        /**
+         * Adds a feature of the block
+         *
+         * @param name  feature name
+         * @param start start offset of the feature relative to the block
+         * @param end   end offset of the feature relative to the block
+         */
+        public void add(String name, int start, int end) {
+            int index = names.size() * 2;
+            if (index + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[index] = start;
+            offsets[index + 1] = end;
+            names.add(name);
+            hash = ((hash * 31 + name.hashCode()) * 31 + start) * 31 + end;
+        }
+
+        /**
+         * Adds a feature enabled by an included configuration file
+         *
+         * @param name   feature name
+         * @param source name of the configuration file
+         * @param start  start offset of the include element relative to the block
+         * @param end    end offset of the include element relative to the block
+         */
+        public void addIncluded(String name, String source, int start, int end) {
+            int index = includedNames.size() * 2;
+            if (index + 2 > includedOffsets.length) {
+                includedOffsets = Arrays.copyOf(includedOffsets, includedOffsets.length * 2);
+            }
+            includedOffsets[index] = start;
+            includedOffsets[index + 1] = end;
+            includedNames.add(name);
+            includedSources.add(source);
+            hash = (((hash * 31 + name.hashCode()) * 31 + source.hashCode()) * 31 + start) * 31 + end;
+        }
+
+        public int size() {
+            return names.size();
+        }
+
+        public int includedSize() {
+            return includedNames.size();
+        }
+
+        public String getIncludedName(int index) {
+            return includedNames.get(index);
+        }
+
+        public String getIncludedSource(int index) {
+            return includedSources.get(index);
+        }
+
+        public int getIncludedStart(int index) {
+            return includedOffsets[index * 2];
+        }
+
+        public int getIncludedEnd(int index) {
+            return includedOffsets[index * 2 + 1];
+        }
+
+        public String getName(int index) {
+            return names.get(index);
+        }
+
+        public int getStart(int index) {
+            return offsets[index * 2];
+        }
+
+        public int getEnd(int index) {
+            return offsets[index * 2 + 1];
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Block)) {
+                return false;
+            }
+            Block other = (Block) obj;
+            if (hash != other.hash || names.size() != other.names.size()
+                    || includedNames.size() != other.includedNames.size()) {
+                return false;
+            }
+            for (int i = 0; i < names.size() * 2; i++) {
+                if (offsets[i] != other.offsets[i]) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < includedNames.size() * 2; i++) {
+                if (includedOffsets[i] != other.includedOffsets[i]) {
+                    return false;
+                }
+            }
+            return names.equals(other.names) && includedNames.equals(other.includedNames)
+                    && includedSources.equals(other.includedSources);
+        }
+    }
+
+    /**
+     * A problem found for a feature, at offsets relative to the start of the
+     * featureManager block
+     */
+    public static class Problem {
+
+        private final int start;
+        private final int end;
+        private final String message;
+
+        public Problem(int start, int end, String message) {
+            this.start = start;
+            this.end = end;
+            this.message = message;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+}
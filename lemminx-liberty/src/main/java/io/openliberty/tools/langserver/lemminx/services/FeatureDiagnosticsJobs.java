@@ -0,0 +1,285 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Runs the feature diagnostics of server.xml documents in the background
+ * within a time budget. The validation waits for its job until the budget runs
+ * out, checking the cancel checker of the validation in the meantime. If the
+ * budget runs out, the validation publishes the problems found so far and the
+ * job keeps running, the document is validated again once it completes so
+ * that the remaining problems are published from the warm caches. Documents
+ * are validated again until a validation completes within the budget, at most
+ * a few times in a row.
+ *
+ * A new validation of a document cancels the job of the previous one, so that
+ * superseded validations stop at their next cancellation check instead of
+ * delaying the latest one.
+ */
+public class FeatureDiagnosticsJobs {
+
+    private static final Logger LOGGER = Logger.getLogger(FeatureDiagnosticsJobs.class.getName());
+
+    private static final FeatureDiagnosticsJobs INSTANCE = new FeatureDiagnosticsJobs();
+
+    // interval at which a waiting validation checks if it has been cancelled
+    private static final long CANCEL_CHECK_MILLIS = 20;
+    // validations in a row that run out of time before the partial results are
+    // left as they are
+    private static final int MAX_FOLLOW_UPS = 5;
+
+    public static FeatureDiagnosticsJobs getInstance() {
+        return INSTANCE;
+    }
+
+    // set on the executor threads, which must never wait for a job of their own
+    // pool
+    private static final ThreadLocal<Boolean> WORKER = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+    // document URI -> job of its latest validation
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // document URI -> number of validations in a row that ran out of time
+    private final Map<String, Integer> followUps = new ConcurrentHashMap<>();
+
+    private FeatureDiagnosticsJobs() {
+        executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                runnable -> {
+                    Thread thread = new Thread(() -> {
+                        WORKER.set(Boolean.TRUE);
+                        runnable.run();
+                    }, "liberty-diagnostics");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the feature diagnostics of a document within the time budget of the
+     * Liberty settings
+     *
+     * @param documentURI   URI of the server.xml document
+     * @param task          finds the problems of the document
+     * @param cancelChecker cancel checker of the validation, or null
+     * @return every problem if the task completed within the budget, otherwise
+     *         the problems found so far
+     * @throws CancellationException if the validation is cancelled or
+     *                               superseded by a newer validation
+     */
+    public List<FeatureDiagnosticsCache.Problem> run(String documentURI, Task task, CancelChecker cancelChecker) {
+        return run(documentURI, task, cancelChecker, SettingsService.getInstance().getDiagnosticsTimeBudget());
+    }
+
+    /**
+     * Runs the feature diagnostics of a document within a time budget
+     *
+     * @param documentURI   URI of the server.xml document
+     * @param task          finds the problems of the document
+     * @param cancelChecker cancel checker of the validation, or null
+     * @param budgetMillis  time to wait for the task
+     * @return every problem if the task completed within the budget, otherwise
+     *         the problems found so far
+     * @throws CancellationException if the validation is cancelled or
+     *                               superseded by a newer validation
+     */
+    public List<FeatureDiagnosticsCache.Problem> run(String documentURI, Task task, CancelChecker cancelChecker,
+            long budgetMillis) {
+        if (WORKER.get()) {
+            // a validation started from a job, waiting for another job could take
+            // the last free thread of the pool
+            Job job = new Job();
+            execute(job, task);
+            return job.getProblems();
+        }
+        Job job = new Job();
+        Job previous = jobs.put(documentURI, job);
+        if (previous != null) {
+            previous.cancel();
+        }
+        executor.execute(() -> execute(job, task));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        try {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    job.result.get(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(CANCEL_CHECK_MILLIS)),
+                            TimeUnit.NANOSECONDS);
+                    jobs.remove(documentURI, job);
+                    followUps.remove(documentURI);
+                    return job.getProblems();
+                } catch (TimeoutException e) {
+                    if (cancelChecker != null) {
+                        cancelChecker.checkCanceled();
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.warning("Unable to validate features of " + documentURI + ": " + e.getCause());
+                    jobs.remove(documentURI, job);
+                    followUps.remove(documentURI);
+                    return job.getProblems();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException();
+                }
+            }
+        } catch (CancellationException e) {
+            jobs.remove(documentURI, job);
+            job.cancel();
+            throw e;
+        }
+
+        // out of time, validate the document again once the job completes. The job
+        // warms the caches, so the next validation normally completes in time. The
+        // revalidation runs on a thread of the RevalidationService, not on the
+        // thread of the job.
+        int followUp = followUps.getOrDefault(documentURI, 0);
+        LOGGER.fine("Feature diagnostics of " + documentURI + " exceeded " + budgetMillis
+                + " ms, publishing partial results");
+        job.result.whenComplete((result, error) -> {
+            if (!jobs.remove(documentURI, job) || error != null) {
+                return;
+            }
+            if (followUp < MAX_FOLLOW_UPS) {
+                followUps.put(documentURI, followUp + 1);
+                RevalidationService.getInstance().revalidate(Collections.singleton(documentURI));
+            } else {
+                followUps.remove(documentURI);
+                LOGGER.warning("Feature diagnostics of " + documentURI + " exceeded " + budgetMillis + " ms "
+                        + MAX_FOLLOW_UPS + " times in a row, only partial results are published");
+            }
+        });
+        return job.getProblems();
+    }
+
+    private void execute(Job job, Task task) {
+        try {
+            job.checkCanceled();
+            task.run(job);
+            job.result.complete(null);
+        } catch (CancellationException e) {
+            job.result.cancel(false);
+        } catch (RuntimeException e) {
+            job.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return true if a job of the document is running
+     */
+    public boolean isRunning(String documentURI) {
+        return jobs.containsKey(documentURI);
+    }
+
+    /**
+     * @return number of validations of the document in a row that ran out of
+     *         time and were followed by another validation
+     */
+    public int getFollowUpCount(String documentURI) {
+        return followUps.getOrDefault(documentURI, 0);
+    }
+
+    /**
+     * Cancels the job of a document
+     *
+     * @param documentURI URI of the server.xml document
+     */
+    public void cancel(String documentURI) {
+        followUps.remove(documentURI);
+        Job job = jobs.remove(documentURI);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Cancels every job
+     */
+    public void cancelAll() {
+        for (String documentURI : new ArrayList<String>(jobs.keySet())) {
+            cancel(documentURI);
+        }
+    }
+
+    /**
+     * Finds the problems of a document, reporting them to the job as they are
+     * found
+     */
+    public interface Task {
+        void run(Job job);
+    }
+
+    /**
+     * Feature diagnostics of a validation. A job is the cancel checker of its
+     * task and collects the problems the task reports.
+     */
+    public static class Job implements CancelChecker {
+
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final List<FeatureDiagnosticsCache.Problem> problems = new ArrayList<>();
+        private volatile boolean cancelled;
+
+        /**
+         * Reports a problem, which is published even if the job does not
+         * complete within the time budget
+         */
+        public void report(FeatureDiagnosticsCache.Problem problem) {
+            synchronized (problems) {
+                problems.add(problem);
+            }
+        }
+
+        /**
+         * @return problems reported so far
+         */
+        public List<FeatureDiagnosticsCache.Problem> getProblems() {
+            synchronized (problems) {
+                return new ArrayList<>(problems);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            result.cancel(false);
+        }
+
+        @Override
+        public void checkCanceled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return cancelled;
+        }
+    }
+
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.JavaSEVersionRequirements;
+import io.openliberty.tools.langserver.lemminx.models.feature.RequireFeatureWithTolerates;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+
+/**
+ * Streaming reader for the features-<version>.json files published to Maven.
+ * Only the fields used by the language features are read, every other value is
+ * skipped without being materialized, and no Feature objects are created for
+ * features that are not public.
+ */
+public class FeatureJsonReader {
+
+    private FeatureJsonReader() {
+    }
+
+    /**
+     * Reads the public features from a features JSON array
+     *
+     * @param reader reader for the json feature list
+     * @return list of public features
+     * @throws IOException           if the json cannot be read
+     * @throws IllegalStateException if the json does not have the expected
+     *                               structure
+     */
+    public static List<Feature> readPublicFeatures(Reader reader) throws IOException {
+        List<Feature> publicFeatures = new ArrayList<Feature>();
+        JsonReader json = new JsonReader(reader);
+        json.beginArray();
+        while (json.hasNext()) {
+            Feature feature = readFeature(json);
+            if (feature != null) {
+                publicFeatures.add(feature);
+            }
+        }
+        json.endArray();
+        return publicFeatures;
+    }
+
+    /**
+     * Reads a single feature object
+     *
+     * @return feature, or null if the feature is not public
+     */
+    private static Feature readFeature(JsonReader json) throws IOException {
+        FeatureFields fields = new FeatureFields();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (fields.skip) {
+                json.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "name":
+                    fields.name = nextName(json);
+                    break;
+                case "shortDescription":
+                    fields.shortDescription = nextString(json);
+                    break;
+                case "version":
+                    fields.version = nextName(json);
+                    break;
+                case "wlpInformation":
+                    readWlpInformation(json, fields);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (fields.skip || !LibertyConstants.PUBLIC_VISIBILITY.equals(fields.visibility)) {
+            return null;
+        }
+        return fields.toFeature();
+    }
+
+    private static void readWlpInformation(JsonReader json, FeatureFields fields) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return;
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (fields.skip) {
+                json.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "shortName":
+                    fields.shortName = nextName(json);
+                    break;
+                case "visibility":
+                    fields.visibility = nextName(json);
+                    // stop reading the rest of a feature as soon as it is known to be non-public
+                    fields.skip = !LibertyConstants.PUBLIC_VISIBILITY.equals(fields.visibility);
+                    break;
+                case "singleton":
+                    fields.singleton = nextName(json);
+                    break;
+                case "provideFeature":
+                    fields.provideFeature = nextNameList(json);
+                    break;
+                case "requireFeature":
+                    fields.requireFeature = nextNameList(json);
+                    break;
+                case "requireFeatureWithTolerates":
+                    fields.requireFeatureWithTolerates = readToleratedRequirements(json);
+                    break;
+                case "javaSEVersionRequirements":
+                    fields.javaSEMinVersion = readJavaSEMinVersion(json);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    /**
+     * Reads the required features that tolerate other versions, the others are
+     * already listed in requireFeature
+     */
+    private static ArrayList<RequireFeatureWithTolerates> readToleratedRequirements(JsonReader json)
+            throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        ArrayList<RequireFeatureWithTolerates> requirements = new ArrayList<RequireFeatureWithTolerates>();
+        json.beginArray();
+        while (json.hasNext()) {
+            String feature = null;
+            ArrayList<String> tolerates = null;
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if ("feature".equals(name)) {
+                    feature = nextName(json);
+                } else if ("tolerates".equals(name)) {
+                    tolerates = nextNameList(json);
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            if (feature != null && tolerates != null && !tolerates.isEmpty()) {
+                RequireFeatureWithTolerates requirement = new RequireFeatureWithTolerates();
+                requirement.setFeature(feature);
+                requirement.setTolerates(tolerates);
+                requirements.add(requirement);
+            }
+        }
+        json.endArray();
+        return requirements;
+    }
+
+    private static String readJavaSEMinVersion(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        String minVersion = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("minVersion".equals(json.nextName())) {
+                minVersion = nextName(json);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return minVersion;
+    }
+
+    private static String nextString(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        return json.nextString();
+    }
+
+    /**
+     * Reads a short repeated value, such as a feature name or a version, sharing
+     * the instance used by every feature list
+     */
+    private static String nextName(JsonReader json) throws IOException {
+        return FeatureNames.share(nextString(json));
+    }
+
+    private static ArrayList<String> nextNameList(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        ArrayList<String> values = new ArrayList<String>();
+        json.beginArray();
+        while (json.hasNext()) {
+            values.add(nextName(json));
+        }
+        json.endArray();
+        return values;
+    }
+
+    /**
+     * Fields of a feature collected while its object is being read
+     */
+    private static class FeatureFields {
+        boolean skip;
+        String name;
+        String shortDescription;
+        String version;
+        String shortName;
+        String visibility;
+        String singleton;
+        String javaSEMinVersion;
+        ArrayList<String> provideFeature;
+        ArrayList<String> requireFeature;
+        ArrayList<RequireFeatureWithTolerates> requireFeatureWithTolerates;
+
+        Feature toFeature() {
+            WlpInformation wlpInformation = new WlpInformation(shortName);
+            wlpInformation.setVisibility(visibility);
+            wlpInformation.setSingleton(singleton);
+            wlpInformation.setProvideFeature(provideFeature);
+            wlpInformation.setRequireFeature(requireFeature);
+            wlpInformation.setRequireFeatureWithTolerates(requireFeatureWithTolerates);
+            if (javaSEMinVersion != null) {
+                JavaSEVersionRequirements javaSEVersionRequirements = new JavaSEVersionRequirements();
+                javaSEVersionRequirements.setMinVersion(javaSEMinVersion);
+                wlpInformation.setJavaSEVersionRequirements(javaSEVersionRequirements);
+            }
+
+            Feature feature = new Feature();
+            feature.setName(name);
+            feature.setShortDescription(shortDescription);
+            feature.setVersion(version);
+            feature.setWlpInformation(wlpInformation);
+            return feature;
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.FeatureInfo;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+
+/**
+ * Reads the featurelist.xml generated by ws-featurelist.jar. The document is
+ * streamed with StAX and the features are created in a single pass. JAXB is
+ * only used as a fallback, with a context created once.
+ */
+public class FeatureListReader {
+
+    private static final Logger LOGGER = Logger.getLogger(FeatureListReader.class.getName());
+
+    private static final String FEATURE_ELEMENT = "feature";
+    private static final String DESCRIPTION_ELEMENT = "description";
+    private static final String NAME_ATTRIBUTE = "name";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    // creating a JAXB context is expensive, only create it once
+    private static volatile JAXBContext jaxbContext;
+
+    private FeatureListReader() {
+    }
+
+    /**
+     * Reads the features of a featurelist.xml
+     *
+     * @param featureList featurelist.xml file
+     * @return features, with the description used as short description
+     * @throws IOException if the file cannot be read by either reader
+     */
+    public static List<Feature> readFeatures(Path featureList) throws IOException {
+        try (InputStream in = Files.newInputStream(featureList)) {
+            return readFeatures(in);
+        } catch (XMLStreamException e) {
+            LOGGER.warning("Unable to stream " + featureList + ", falling back to JAXB: " + e);
+        }
+        try {
+            return readFeaturesWithJAXB(featureList);
+        } catch (JAXBException e) {
+            throw new IOException("Unable to read " + featureList, e);
+        }
+    }
+
+    /**
+     * Streams the features of a featurelist.xml. Only the feature elements that
+     * are direct children of the featureInfo root element and their description
+     * are read, everything else is skipped.
+     *
+     * @param in featurelist.xml content
+     * @return features
+     * @throws XMLStreamException if the content is not well formed
+     */
+    public static List<Feature> readFeatures(InputStream in) throws XMLStreamException {
+        List<Feature> features = new ArrayList<Feature>();
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            reader.nextTag();
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                if (FEATURE_ELEMENT.equals(reader.getLocalName())) {
+                    features.add(readFeature(reader));
+                } else {
+                    skipElement(reader);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return features;
+    }
+
+    private static Feature readFeature(XMLStreamReader reader) throws XMLStreamException {
+        String name = reader.getAttributeValue(null, NAME_ATTRIBUTE);
+        String description = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (DESCRIPTION_ELEMENT.equals(reader.getLocalName())) {
+                description = reader.getElementText();
+            } else {
+                skipElement(reader);
+            }
+        }
+        return createFeature(name, description);
+    }
+
+    /**
+     * Skips the current element, including its children. Leaves the reader on
+     * the matching end element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the features of a featurelist.xml with JAXB
+     *
+     * @param featureList featurelist.xml file
+     * @return features
+     * @throws JAXBException if the file cannot be unmarshalled
+     */
+    public static List<Feature> readFeaturesWithJAXB(Path featureList) throws JAXBException {
+        FeatureInfo featureInfo = (FeatureInfo) getJAXBContext().createUnmarshaller()
+                .unmarshal(featureList.toFile());
+        List<Feature> features = new ArrayList<Feature>();
+        if (featureInfo.getFeatures() != null) {
+            for (Feature f : featureInfo.getFeatures()) {
+                features.add(createFeature(f.getName(), f.getDescription()));
+            }
+        }
+        return features;
+    }
+
+    private static Feature createFeature(String name, String description) {
+        Feature feature = new Feature();
+        feature.setName(FeatureNames.share(name));
+        feature.setDescription(description);
+        feature.setShortDescription(description);
+        feature.setWlpInformation(new WlpInformation(feature.getName()));
+        return feature;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // the featurelist does not use DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Returns the JAXB context, created the first time the fallback is used
+     */
+    private static JAXBContext getJAXBContext() throws JAXBException {
+        JAXBContext context = jaxbContext;
+        if (context == null) {
+            synchronized (FeatureListReader.class) {
+                context = jaxbContext;
+                if (context == null) {
+                    context = JAXBContext.newInstance(FeatureInfo.class);
+                    jaxbContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process wide pool of the short values that repeat across the feature lists
+ * of every cached Liberty version: feature names, versions, visibility and
+ * singleton values, and Java SE levels. Descriptions are not pooled. Values are
+ * weakly referenced, so a value is dropped once no catalog uses it anymore.
+ */
+public class FeatureNames {
+
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<String, WeakReference<String>>();
+
+    private FeatureNames() {
+    }
+
+    /**
+     * Returns the pooled instance of a value
+     *
+     * @param value short repeated value, may be null
+     * @return instance equal to the value that is shared by every feature list
+     */
+    public static String share(String value) {
+        if (value == null) {
+            return null;
+        }
+        synchronized (POOL) {
+            WeakReference<String> reference = POOL.get(value);
+            String shared = reference == null ? null : reference.get();
+            if (shared == null) {
+                POOL.put(value, new WeakReference<String>(value));
+                shared = value;
+            }
+            return shared;
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+
+/**
+ * Downloads features-<version>.json files from a Maven repository. Requests are
+ * compressed, time bounded and conditional on the validators of the copy
+ * persisted by a previous download, and the downloaded content is verified
+ * against the .sha1 file published next to it.
+ */
+public class FeatureRepositoryClient {
+
+    private static final Logger LOGGER = Logger.getLogger(FeatureRepositoryClient.class.getName());
+
+    private final String repositoryUrl;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * @param repositoryUrl  base URL of the Maven repository
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout    read timeout in milliseconds
+     */
+    public FeatureRepositoryClient(String repositoryUrl, int connectTimeout, int readTimeout) {
+        this.repositoryUrl = repositoryUrl.endsWith("/") ? repositoryUrl.substring(0, repositoryUrl.length() - 1)
+                : repositoryUrl;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    public String getFeaturesURL(String libertyVersion) {
+        return String.format("%s/io/openliberty/features/features/%s/features-%s.json", repositoryUrl,
+                libertyVersion, libertyVersion);
+    }
+
+    /**
+     * Downloads the public features for the Liberty version
+     *
+     * @param libertyVersion Liberty version
+     * @param etag           ETag of the persisted copy, or null
+     * @param lastModified   Last-Modified of the persisted copy, or null
+     * @return result of the download, indicating if the persisted copy is still
+     *         current
+     * @throws IOException if the features could not be downloaded or do not
+     *                     match the published checksum
+     */
+    public FetchResult fetchFeatures(String libertyVersion, String etag, String lastModified) throws IOException {
+        String featuresURL = getFeaturesURL(libertyVersion);
+        HttpURLConnection connection = openConnection(featuresURL);
+        try {
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (etag != null) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                LOGGER.fine("Features for version " + libertyVersion + " have not been modified");
+                return new FetchResult(null, etag, lastModified);
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode + " from " + featuresURL);
+            }
+
+            MessageDigest sha1 = newSHA1Digest();
+            List<Feature> features;
+            try (InputStream in = new DigestInputStream(decode(connection), sha1)) {
+                features = FeatureJsonReader
+                        .readPublicFeatures(new InputStreamReader(in, StandardCharsets.UTF_8));
+                // the reader may stop before the end of the content, read the rest so
+                // the digest covers the whole file
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // drain remaining content
+                }
+            } catch (IllegalStateException e) {
+                throw new IOException("Unable to parse " + featuresURL, e);
+            }
+            verifyChecksum(featuresURL, toHex(sha1.digest()));
+
+            return new FetchResult(features, connection.getHeaderField("ETag"),
+                    connection.getHeaderField("Last-Modified"));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Compares the digest of the downloaded content with the .sha1 published
+     * next to it. Mirrors that do not publish checksums are tolerated.
+     */
+    private void verifyChecksum(String featuresURL, String actualSHA1) throws IOException {
+        String sha1URL = featuresURL + ".sha1";
+        HttpURLConnection connection = openConnection(sha1URL);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(decode(connection), StandardCharsets.US_ASCII))) {
+            String line = reader.readLine();
+            // the .sha1 file may contain the file name after the checksum
+            String expectedSHA1 = line == null ? "" : line.trim().split("\\s+")[0].toLowerCase(Locale.ROOT);
+            if (!expectedSHA1.equals(actualSHA1)) {
+                throw new IOException("Checksum mismatch for " + featuresURL + ": expected " + expectedSHA1
+                        + " but was " + actualSHA1);
+            }
+        } catch (FileNotFoundException e) {
+            LOGGER.warning("No checksum published for " + featuresURL + ", unable to verify download");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection openConnection(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private static InputStream decode(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getInputStream();
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            return new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    private static MessageDigest newSHA1Digest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Result of a feature list download
+     */
+    public static class FetchResult {
+
+        private final List<Feature> features;
+        private final String etag;
+        private final String lastModified;
+
+        FetchResult(List<Feature> features, String etag, String lastModified) {
+            this.features = features;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return true if the persisted copy is still current
+         */
+        public boolean isNotModified() {
+            return features == null;
+        }
+
+        /**
+         * @return downloaded public features, or null if not modified
+         */
+        public List<Feature> getFeatures() {
+            return features;
+        }
+
+        public String getETag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+}
@@ -12,34 +12,31 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.services;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-
-import com.google.gson.Gson;
-import com.google.gson.JsonParseException;
-
-import org.eclipse.lemminx.uriresolver.CacheResourcesManager;
-import org.eclipse.lemminx.uriresolver.CacheResourcesManager.ResourceToDeploy;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 
 import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
-import io.openliberty.tools.langserver.lemminx.models.feature.FeatureInfo;
-import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.services.FeatureRepositoryClient.FetchResult;
 import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
 import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
 
@@ -50,90 +47,238 @@ public class FeatureService {
   // Singleton so that only 1 Feature Service can be initialized and is
   // shared between all Lemminx Language Feature Participants
 
-  private static FeatureService instance;
+  private static final FeatureService INSTANCE = new FeatureService();
 
   public static FeatureService getInstance() {
-    if (instance == null) {
-      instance = new FeatureService();
-    }
-    return instance;
+    return INSTANCE;
   }
 
-  // Cache of Liberty version -> list of supported features
-  private Map<String, List<Feature>> featureCache;
-  private List<Feature> defaultFeatureList;
-  private long featureUpdateTime;
+  // Completion, hover and diagnostics call the Feature Service concurrently.
+  // Catalogs are immutable and published through a concurrent map and atomic
+  // references, so reading them never takes a lock.
+
+  // Bounded cache of Liberty version -> catalog of supported features, evicted
+  // catalogs are loaded again from the catalog store
+  private final FeatureCatalogCache featureCache;
+  private final AtomicReference<FeatureCatalog> defaultFeatureCatalog;
+  private final AtomicLong featureUpdateTime;
+  // Persisted catalogs in the LemMinX cache, null if the cache is not available
+  private volatile FeatureCatalogStore catalogStore;
+  // Fingerprint of a Liberty installation -> catalog of its installed features,
+  // shared by the workspaces using the same installation
+  private final Map<String, FeatureCatalog> installedCatalogs;
+  private final InstalledFeatureJobs installedFeatureJobs;
+
+  // Liberty versions whose persisted catalog has been checked against the Maven
+  // repo during this session
+  private final Set<String> revalidatedVersions;
+  // Liberty version -> download in progress, so that concurrent requests for the
+  // same version share a single download
+  private final Map<String, CompletableFuture<FeatureCatalog>> pendingFetches;
+  private final ExecutorService fetchExecutor;
+  private final List<Consumer<FeatureCatalog>> catalogListeners;
 
   private FeatureService() {
-    featureCache = new HashMap<>();
-    featureUpdateTime = -1;
+    featureCache = new FeatureCatalogCache(() -> SettingsService.getInstance().getFeatureCacheEntries(),
+        () -> SettingsService.getInstance().getFeatureCacheSize() * 1024L * 1024L);
+    defaultFeatureCatalog = new AtomicReference<>();
+    installedCatalogs = new ConcurrentHashMap<>();
+    installedFeatureJobs = new InstalledFeatureJobs();
+    featureUpdateTime = new AtomicLong(-1);
+    revalidatedVersions = ConcurrentHashMap.newKeySet();
+    pendingFetches = new ConcurrentHashMap<>();
+    catalogListeners = new CopyOnWriteArrayList<>();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), runnable -> {
+          Thread thread = new Thread(runnable, "liberty-feature-fetch");
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    fetchExecutor = executor;
+    FeatureCatalogStore store = null;
+    try {
+      store = FeatureCatalogStore.createDefault();
+    } catch (IOException e) {
+      LOGGER.warning("Unable to locate the feature catalog cache: " + e);
+    }
+    catalogStore = store;
+  }
+
+  /**
+   * Fetches the feature catalog for the Liberty version from the Maven repo in
+   * the background. Concurrent requests for the same version share the same
+   * download. Registered catalog listeners are notified once the catalog has
+   * been downloaded.
+   *
+   * @param libertyVersion version of Liberty to fetch features for
+   * @return future completed with the catalog, or completed exceptionally if the
+   *         catalog could not be downloaded
+   */
+  public CompletableFuture<FeatureCatalog> fetchFeatureCatalog(String libertyVersion) {
+    FeatureCatalog cachedCatalog = featureCache.get(libertyVersion);
+    if (cachedCatalog != null) {
+      return CompletableFuture.completedFuture(cachedCatalog);
+    }
+    return fetchFeatureCatalog(libertyVersion, null);
   }
 
   /**
-   * Fetches information about Liberty features from Maven repo
+   * Fetches the feature catalog for the Liberty version from the Maven repo in
+   * the background. If a stored entry is given, the request is conditional on
+   * the stored copy and the stored catalog is kept if it is still current.
    *
-   * @param libertyVersion - version of Liberty to fetch features for
-   * @return list of features supported by the provided version of Liberty
+   * @param libertyVersion version of Liberty to fetch features for
+   * @param storedEntry    catalog persisted by a previous download, or null
+   * @return future completed with the catalog
    */
-  private List<Feature> fetchFeaturesForVersion(String libertyVersion) throws IOException, JsonParseException {
-    String featureEndpoint = String.format(
-        "https://repo1.maven.org/maven2/io/openliberty/features/features/%s/features-%s.json", libertyVersion,
-        libertyVersion);
-    InputStreamReader reader = new InputStreamReader(new URL(featureEndpoint).openStream());
+  private CompletableFuture<FeatureCatalog> fetchFeatureCatalog(String libertyVersion,
+      FeatureCatalogStore.Entry storedEntry) {
 
-    // Only need the public features
-    ArrayList<Feature> publicFeatures = readPublicFeatures(reader);
+    CompletableFuture<FeatureCatalog> future = new CompletableFuture<>();
+    CompletableFuture<FeatureCatalog> pendingFetch = pendingFetches.putIfAbsent(libertyVersion, future);
+    if (pendingFetch != null) {
+      return pendingFetch;
+    }
 
-    LOGGER.fine("Returning public features from Maven: " + publicFeatures.size());
-    return publicFeatures;
+    fetchExecutor.execute(() -> {
+      try {
+        // another fetch may have completed since the cache was checked
+        FeatureCatalog catalog = storedEntry == null ? featureCache.peek(libertyVersion) : null;
+        boolean downloaded = false;
+        if (catalog == null) {
+          FetchResult result = newRepositoryClient().fetchFeatures(libertyVersion,
+              storedEntry == null ? null : storedEntry.getETag(),
+              storedEntry == null ? null : storedEntry.getLastModified());
+          if (result.isNotModified()) {
+            if (storedEntry == null) {
+              throw new IOException("Unexpected not modified response for version " + libertyVersion);
+            }
+            catalog = storedEntry.getCatalog();
+          } else {
+            LOGGER.fine("Returning public features from Maven: " + result.getFeatures().size());
+            catalog = new FeatureCatalog(libertyVersion, result.getFeatures());
+            featureCache.put(libertyVersion, catalog);
+            FeatureCatalogStore store = catalogStore;
+            if (store != null) {
+              store.save(new FeatureCatalogStore.Entry(catalog, result.getETag(), result.getLastModified()));
+            }
+            downloaded = true;
+          }
+        }
+        pendingFetches.remove(libertyVersion, future);
+        future.complete(catalog);
+        if (downloaded) {
+          notifyCatalogListeners(catalog);
+        }
+      } catch (Exception e) {
+        LOGGER.fine("Unable to fetch features for version " + libertyVersion + ": " + e);
+        pendingFetches.remove(libertyVersion, future);
+        future.completeExceptionally(e);
+      } finally {
+        featureUpdateTime.set(System.currentTimeMillis());
+      }
+    });
+    return future;
   }
 
   /**
-   * Returns the default feature list
+   * Registers a listener that is called with each feature catalog downloaded or
+   * generated in the background
    *
-   * @return list of features supported by the default version of Liberty
+   * @param listener catalog listener
    */
-  private List<Feature> getDefaultFeatureList() {
-    try {
-      if (defaultFeatureList == null) {
-        InputStream is = getClass().getClassLoader().getResourceAsStream("features-20.0.0.9.json");
-        InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
+  public void addFeatureCatalogListener(Consumer<FeatureCatalog> listener) {
+    catalogListeners.add(listener);
+  }
 
-        // Only need the public features
-        defaultFeatureList = readPublicFeatures(reader);
-      }
-      LOGGER.fine("Returning default feature list");
-      return defaultFeatureList;
+  public void removeFeatureCatalogListener(Consumer<FeatureCatalog> listener) {
+    catalogListeners.remove(listener);
+  }
 
-    } catch (JsonParseException e) {
-      // unable to read json in resources file, return empty list
-      LOGGER.severe("Error: Unable to get default features.");
-      return defaultFeatureList;
+  private void notifyCatalogListeners(FeatureCatalog catalog) {
+    for (Consumer<FeatureCatalog> listener : catalogListeners) {
+      listener.accept(catalog);
     }
   }
 
   /**
-   * Returns a list of public features
+   * Removes the cached catalog for the Liberty version. Readers still holding
+   * the catalog can keep using it, the next request loads the catalog again.
+   *
+   * @param libertyVersion Liberty version
+   */
+  public void evictFeatureCatalog(String libertyVersion) {
+    featureCache.remove(libertyVersion);
+  }
+
+  /**
+   * Returns the cache of feature catalogs, which exposes its size and hit, miss
+   * and eviction counts
+   *
+   * @return feature catalog cache
+   */
+  public FeatureCatalogCache getFeatureCatalogCache() {
+    return featureCache;
+  }
+
+  /**
+   * Replaces the store that catalogs are persisted to and loaded from
    *
-   * @param reader - InputStreamReader for json feature list
-   * @return list of public features
+   * @param store feature catalog store, or null to not persist catalogs
+   * @return the previous feature catalog store
+   */
+  public FeatureCatalogStore setFeatureCatalogStore(FeatureCatalogStore store) {
+    FeatureCatalogStore previous = catalogStore;
+    catalogStore = store;
+    return previous;
+  }
+
+  /**
+   * Returns a client for the Maven repository and timeouts configured in the
+   * Liberty settings
    */
-  private ArrayList<Feature> readPublicFeatures(InputStreamReader reader) throws JsonParseException {
-    Feature[] featureList = new Gson().fromJson(reader, Feature[].class);
+  private FeatureRepositoryClient newRepositoryClient() {
+    SettingsService settings = SettingsService.getInstance();
+    return new FeatureRepositoryClient(settings.getRepositoryUrl(), settings.getConnectTimeout() * 1000,
+        settings.getReadTimeout() * 1000);
+  }
 
-    ArrayList<Feature> publicFeatures = new ArrayList<>();
-    Arrays.asList(featureList).stream()
-        .filter(f -> f.getWlpInformation().getVisibility().equals(LibertyConstants.PUBLIC_VISIBILITY))
-        .forEach(publicFeatures::add);
-    defaultFeatureList = publicFeatures;
-    return publicFeatures;
+  /**
+   * Returns the catalog built from the default feature list. The default
+   * catalog is generated from the bundled feature json at build time and is read
+   * the first time it is needed.
+   *
+   * @return catalog of features supported by the default version of Liberty
+   */
+  private FeatureCatalog getDefaultFeatureCatalog() {
+    FeatureCatalog catalog = defaultFeatureCatalog.get();
+    if (catalog != null) {
+      return catalog;
+    }
+    try (InputStream in = getClass().getClassLoader().getResourceAsStream(LibertyConstants.DEFAULT_FEATURE_CATALOG)) {
+      if (in == null) {
+        throw new IOException("Resource not found: " + LibertyConstants.DEFAULT_FEATURE_CATALOG);
+      }
+      // generated from the bundled feature json at build time, only contains the public features
+      catalog = FeatureCatalogStore.readCatalog(in, LibertyConstants.DEFAULT_SERVER_VERSION);
+    } catch (IOException e) {
+      // unable to read catalog in resources file, return empty list
+      LOGGER.severe("Error: Unable to get default features.");
+      return new FeatureCatalog(LibertyConstants.DEFAULT_SERVER_VERSION, new ArrayList<Feature>());
+    }
+    // if another thread read the default list first, use its catalog
+    defaultFeatureCatalog.compareAndSet(null, catalog);
+    LOGGER.fine("Returning default feature list");
+    return defaultFeatureCatalog.get();
   }
 
   /**
    * Returns the Liberty features corresponding to the Liberty version. First
-   * attempts to fetch the feature list from Maven, otherwise falls back to the
-   * list of installed features. If the installed features list cannot be
-   * gathered, falls back to the default feature list.
+   * attempts to load the feature list persisted in the LemMinX cache. Otherwise
+   * starts fetching the feature list from Maven in the background and falls back
+   * to the list of installed features until it is available. If the installed
+   * features list cannot be gathered, falls back to the default feature list.
    * 
    * @param libertyVersion Liberty version (corrsponds to XML document)
    * @param requestDelay Time to wait in between feature list requests to Maven
@@ -141,112 +286,242 @@ public class FeatureService {
    * @return List of possible features
    */
   public List<Feature> getFeatures(String libertyVersion, int requestDelay, String documentURI) {
+    return getFeatureCatalog(libertyVersion, requestDelay, documentURI).getFeatures();
+  }
+
+  /**
+   * Returns the catalog of Liberty features corresponding to the Liberty
+   * version. The catalog is resolved in the same order as
+   * {@link #getFeatures(String, int, String)}.
+   * 
+   * @param libertyVersion Liberty version (corrsponds to XML document)
+   * @param requestDelay Time to wait in between feature list requests to Maven
+   * @param documentURI Liberty XML document
+   * @return catalog of possible features
+   */
+  public FeatureCatalog getFeatureCatalog(String libertyVersion, int requestDelay, String documentURI) {
+    return getFeatureCatalog(libertyVersion, requestDelay, documentURI, null);
+  }
+
+  /**
+   * Returns the catalog of Liberty features corresponding to the Liberty
+   * version for a request that can be cancelled. Cancellation is checked before
+   * reading the persisted catalog and before reading the installed features,
+   * which may access the disk.
+   * 
+   * @param libertyVersion Liberty version (corrsponds to XML document)
+   * @param requestDelay Time to wait in between feature list requests to Maven
+   * @param documentURI Liberty XML document
+   * @param cancelChecker cancel checker of the request, or null
+   * @return catalog of possible features
+   * @throws CancellationException if the request is cancelled
+   */
+  public FeatureCatalog getFeatureCatalog(String libertyVersion, int requestDelay, String documentURI,
+      CancelChecker cancelChecker) {
     LOGGER.fine("Getting features for version: " + libertyVersion);
     // if the features are already cached in the feature cache
-    if (featureCache.containsKey(libertyVersion)) {
-      return featureCache.get(libertyVersion);
+    FeatureCatalog cachedCatalog = libertyVersion == null ? null : featureCache.get(libertyVersion);
+    if (cachedCatalog != null) {
+      return cachedCatalog;
     }
 
-    // else need to fetch the features from maven central
-    try {
+    checkCanceled(cancelChecker);
+    // else check for a catalog persisted by a previous session
+    FeatureCatalogStore store = catalogStore;
+    if (libertyVersion != null && store != null) {
+      FeatureCatalogStore.Entry storedEntry = store.loadEntry(libertyVersion);
+      if (storedEntry != null) {
+        featureCache.put(libertyVersion, storedEntry.getCatalog());
+        // once per session, check in the background if the stored copy is still current
+        boolean hasValidators = storedEntry.getETag() != null || storedEntry.getLastModified() != null;
+        if (hasValidators && revalidatedVersions.add(libertyVersion)) {
+          fetchFeatureCatalog(libertyVersion, storedEntry);
+        }
+        return storedEntry.getCatalog();
+      }
+    }
+
+    // else need to fetch the features from maven central, which is done in the
+    // background while the best catalog already available is returned
+    if (libertyVersion != null) {
       // verify that request delay (seconds) has gone by since last fetch request
       long currentTime = System.currentTimeMillis();
-      if (this.featureUpdateTime == -1 || currentTime >= (this.featureUpdateTime + (requestDelay * 1000))) {
-        List<Feature> features = fetchFeaturesForVersion(libertyVersion);
-        featureCache.put(libertyVersion, features);
-        this.featureUpdateTime = System.currentTimeMillis();
-        return features;
+      long lastUpdateTime = featureUpdateTime.get();
+      if (lastUpdateTime == -1 || currentTime >= (lastUpdateTime + (requestDelay * 1000))) {
+        fetchFeatureCatalog(libertyVersion);
       }
-    } catch (Exception e) {
-      // do nothing, continue on to returning default feature list
     }
 
     // fetch installed features list
-    List<Feature> installedFeatures = getInstalledFeaturesList(documentURI);
-    if (installedFeatures.size() != 0) {
+    checkCanceled(cancelChecker);
+    FeatureCatalog installedFeatures = getInstalledFeatureCatalog(documentURI);
+    if (!installedFeatures.isEmpty()) {
       return installedFeatures;
     }
 
-
     // return default feature list
-    List<Feature> defaultFeatures = getDefaultFeatureList(); 
-    return defaultFeatures;
+    return getDefaultFeatureCatalog();
+  }
+
+  private static void checkCanceled(CancelChecker cancelChecker) {
+    if (cancelChecker != null) {
+      cancelChecker.checkCanceled();
+    }
   }
 
   public Optional<Feature> getFeature(String featureName, String libertyVersion, int requestDelay, String documentURI) {
-    List<Feature> features = getFeatures(libertyVersion, requestDelay, documentURI);
-    return features.stream().filter(f -> f.getWlpInformation().getShortName().equalsIgnoreCase(featureName))
-        .findFirst();
+    return getFeatureCatalog(libertyVersion, requestDelay, documentURI).getFeature(featureName);
   }
 
   public boolean featureExists(String featureName, String libertyVersion, int requestDelay, String documentURI) {
-    return this.getFeature(featureName, libertyVersion, requestDelay, documentURI).isPresent();
+    return getFeatureCatalog(libertyVersion, requestDelay, documentURI).featureExists(featureName);
   }
 
   /**
-   * Returns the list of installed features generated from ws-featurelist.jar.
-   * Generated feature list is stored in the LemMinx cache. Returns an empty list
-   * if cannot determine installed feature list.
+   * Returns the catalog of installed features for the workspace associated with
+   * the document. Returns an empty catalog if cannot determine installed feature
+   * list.
+   * 
+   * @param documentURI xml document
+   * @return catalog of installed features, may be empty
+   */
+  private FeatureCatalog getInstalledFeatureCatalog(String documentURI) {
+    List<Feature> installedFeatures = getInstalledFeaturesList(documentURI);
+    if (installedFeatures.size() != 0) {
+      // installed features are stored on the workspace along with their catalog
+      LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(documentURI);
+      return libertyWorkspace.getInstalledFeatureCatalog();
+    }
+    return new FeatureCatalog(null, installedFeatures);
+  }
+
+  /**
+   * Returns the list of installed features. The features are persisted in the
+   * LemMinX cache, keyed by a fingerprint of the installation, and are only
+   * generated again when the fingerprint changes. Finding the installation,
+   * computing its fingerprint and generating the features runs in the
+   * background, once per installation, see {@link InstalledFeatureJobs}.
+   * Returns an empty list if the installed features are not available yet or
+   * cannot be determined.
    * 
    * @param documentURI xml document
    * @return list of installed features, or empty list
    */
   private List<Feature> getInstalledFeaturesList(String documentURI) {
     List<Feature> installedFeatures = new ArrayList<Feature>();
-    try {
-      LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(documentURI);
-      if (libertyWorkspace == null || libertyWorkspace.getURI() == null) {
-        return installedFeatures;
-      }
-
-      // return installed features from cache
-      if (libertyWorkspace.getInstalledFeatureList().size() != 0) {
-        return libertyWorkspace.getInstalledFeatureList();
-      }
+    LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(documentURI);
+    if (libertyWorkspace == null || libertyWorkspace.getURI() == null) {
+      return installedFeatures;
+    }
 
-      Path featureListJAR = LibertyUtils.findFileInWorkspace(documentURI, "ws-featurelist.jar");
+    // return installed features from cache
+    if (libertyWorkspace.getInstalledFeatureList().size() != 0) {
+      return libertyWorkspace.getInstalledFeatureList();
+    }
+    // the installation has no installed features, or they could not be read
+    if (libertyWorkspace.isInstalledFeaturesLoaded()) {
+      return installedFeatures;
+    }
 
-      if (featureListJAR != null && featureListJAR.toFile().exists()) {
+    // requests are served from the best catalog available until the job
+    // completes, concurrent requests share the job of the workspace
+    installedFeatureJobs.submit(libertyWorkspace.getURI(), job -> {
+      try {
+        return loadInstalledFeatures(libertyWorkspace, documentURI, job);
+      } finally {
+        // looked up again once another installation is detected
+        if (!job.cancelled) {
+          libertyWorkspace.setInstalledFeaturesLoaded(true);
+        }
+      }
+    });
+    LOGGER.fine("Loading installed features in the background");
+    return installedFeatures;
+  }
 
-        // creating featurelist.xml file in cache
-        String XSD_RESOURCE_URL = "https://github.com/OpenLiberty/liberty-language-server/blob/master/lemminx-liberty/src/main/resources/schema/xsd/liberty/featurelist.xml";
-        String XSD_CLASSPATH_LOCATION = "/schema/xsd/liberty/featurelist.xml";
-        ResourceToDeploy FEATURE_LIST_RESOURCE = new ResourceToDeploy(XSD_RESOURCE_URL, XSD_CLASSPATH_LOCATION);
-        Path featureListCacheFile = CacheResourcesManager.getResourceCachePath(FEATURE_LIST_RESOURCE);
+  /**
+   * Finds the installed features of the Liberty installation of a workspace,
+   * from the catalogs of installations with the same fingerprint if possible,
+   * and notifies the catalog listeners. Runs in an installed features job.
+   */
+  private List<Feature> loadInstalledFeatures(LibertyWorkspace libertyWorkspace, String documentURI,
+      InstalledFeatureJobs.Job job) throws IOException {
+    String libertyVersion = libertyWorkspace.getLibertyVersion();
+    Path installRoot = getInstallRoot(documentURI);
+    String fingerprint = null;
+    if (installRoot != null) {
+      try {
+        fingerprint = InstalledFeatureScanner.getFingerprint(installRoot, libertyVersion);
+      } catch (IOException e) {
+        LOGGER.warning("Unable to fingerprint Liberty installation " + installRoot + ": " + e);
+      }
+    }
 
-        if (featureListCacheFile.toFile().exists()) {
-          String[] cmd = { "java", "-jar", featureListJAR.toAbsolutePath().toString(),
-          featureListCacheFile.toAbsolutePath().toString() };
-  
-          Process proc = Runtime.getRuntime().exec(cmd);
-          BufferedReader in = new BufferedReader(new InputStreamReader(proc.getInputStream()));
-          while (in.readLine() != null) {
-            // read input from file
-          }
-  
-          JAXBContext jaxbContext = JAXBContext.newInstance(FeatureInfo.class);
-          Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-          FeatureInfo featureInfo = (FeatureInfo) jaxbUnmarshaller.unmarshal(featureListCacheFile.toFile());
-          if (featureInfo.getFeatures().size() > 0) {
-            for (int i = 0; i < featureInfo.getFeatures().size(); i++) {
-              Feature f = featureInfo.getFeatures().get(i);
-              f.setShortDescription(f.getDescription());
-              WlpInformation wlpInfo = new WlpInformation(f.getName());
-              f.setWlpInformation(wlpInfo);
-            }
-            installedFeatures = featureInfo.getFeatures();
-            libertyWorkspace.setInstalledFeatureList(installedFeatures);
-          }
-        } else {
-          LOGGER.warning("Unable to load installed features into LemMinx cache, file does not exist:" + featureListCacheFile.toAbsolutePath());
+    // installed features of the same installation may have been read by another
+    // workspace or a previous session
+    FeatureCatalogStore store = catalogStore;
+    if (fingerprint != null) {
+      FeatureCatalog installedCatalog = installedCatalogs.get(fingerprint);
+      if (installedCatalog == null && store != null) {
+        installedCatalog = store.loadInstalled(fingerprint, libertyVersion);
+        if (installedCatalog != null) {
+          installedCatalogs.putIfAbsent(fingerprint, installedCatalog);
+          installedCatalog = installedCatalogs.get(fingerprint);
         }
       }
-    } catch (IOException | JAXBException e) {
-      LOGGER.warning("Unable to get installed features: " + e);
+      if (installedCatalog != null) {
+        libertyWorkspace.setInstalledFeatureCatalog(installedCatalog);
+        LOGGER.fine("Returning stored installed features: " + installedCatalog.size());
+        notifyCatalogListeners(installedCatalog);
+        return installedCatalog.getFeatures();
+      }
     }
 
-    LOGGER.fine("Returning installed features: " + installedFeatures.size());
+    List<Feature> installedFeatures = installedFeatureJobs.generate(job, documentURI, installRoot);
+    if (installedFeatures.isEmpty() || job.cancelled) {
+      return installedFeatures;
+    }
+    libertyWorkspace.setInstalledFeatureList(installedFeatures);
+    FeatureCatalog installedCatalog = libertyWorkspace.getInstalledFeatureCatalog();
+    if (fingerprint != null) {
+      installedCatalogs.put(fingerprint, installedCatalog);
+      if (store != null) {
+        store.saveInstalled(fingerprint, installedCatalog);
+      }
+    }
+    LOGGER.fine("Generated installed features: " + installedFeatures.size());
+    notifyCatalogListeners(installedCatalog);
     return installedFeatures;
   }
 
+  /**
+   * Cancels the generation of the installed features of a workspace
+   *
+   * @param workspaceURI URI of the workspace folder
+   */
+  public void cancelInstalledFeatures(String workspaceURI) {
+    installedFeatureJobs.cancel(workspaceURI);
+  }
+
+  /**
+   * Cancels the generation of installed features for every workspace
+   */
+  public void cancelAllInstalledFeatures() {
+    installedFeatureJobs.cancelAll();
+  }
+
+  /**
+   * Returns the root of the Liberty installation found in the workspace
+   * 
+   * @param documentURI xml document
+   * @return installation root, or null if there is no installation
+   */
+  private Path getInstallRoot(String documentURI) {
+    Path propertiesFile = LibertyUtils.findFileInWorkspace(documentURI, "openliberty.properties");
+    if (propertiesFile == null) {
+      return null;
+    }
+    return InstalledFeatureScanner.getInstallRoot(propertiesFile);
+  }
+
 }
@@ -0,0 +1,230 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+
+/**
+ * Watches directories for the whole language server with a single watch
+ * service and a single thread. Events are dispatched to the listeners of the
+ * directory on a separate thread, in the order they occurred, so that a slow
+ * listener does not hold up the watch service.
+ *
+ * The service is started by the first registration and stopped by
+ * {@link #shutdown()}, after which a new registration starts it again.
+ */
+public class FileWatchService {
+
+    private static final Logger LOGGER = Logger.getLogger(FileWatchService.class.getName());
+
+    private static final FileWatchService INSTANCE = new FileWatchService();
+
+    public static FileWatchService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Receives the events of a watched directory
+     */
+    public interface Listener {
+
+        /**
+         * @param kind ENTRY_CREATE, ENTRY_MODIFY or ENTRY_DELETE, or OVERFLOW if
+         *             events were lost. When the watched directory itself is
+         *             deleted, ENTRY_DELETE is reported for the directory.
+         * @param path the created, modified or deleted path, or null for OVERFLOW
+         */
+        void onEvent(WatchEvent.Kind<?> kind, Path path);
+    }
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private ExecutorService dispatcher;
+    // all kinds are registered, registering a directory again replaces the kinds
+    // of its key, and each listener filters the events it needs
+    private final Map<WatchKey, List<Registration>> registrations = new ConcurrentHashMap<>();
+
+    private FileWatchService() {
+    }
+
+    /**
+     * Watches a directory
+     *
+     * @param dir      directory to watch, not including its subdirectories
+     * @param listener receives the events of the directory
+     * @return registration, closed to stop watching
+     * @throws IOException if the directory cannot be watched, for example
+     *                     because the watch limit of the operating system is
+     *                     reached
+     */
+    public synchronized Registration register(Path dir, Listener listener) throws IOException {
+        WatchService service = start();
+        WatchKey key;
+        try {
+            key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (ClosedWatchServiceException e) {
+            throw new IOException("File watch service is shut down", e);
+        }
+        Registration registration = new Registration(key, dir, listener);
+        registrations.computeIfAbsent(key, k -> new CopyOnWriteArrayList<Registration>()).add(registration);
+        return registration;
+    }
+
+    private synchronized void unregister(Registration registration) {
+        List<Registration> keyRegistrations = registrations.get(registration.key);
+        if (keyRegistrations != null && keyRegistrations.remove(registration) && keyRegistrations.isEmpty()) {
+            registrations.remove(registration.key);
+            registration.key.cancel();
+        }
+    }
+
+    /**
+     * @return number of watched directories
+     */
+    public int getWatchedDirectoryCount() {
+        return registrations.size();
+    }
+
+    private WatchService start() throws IOException {
+        if (watchService == null) {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            watchService = service;
+            dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "liberty-file-events");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watchThread = new Thread(() -> watch(service), "liberty-file-watch");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+        return watchService;
+    }
+
+    /**
+     * Stops watching every directory and stops the watch and dispatch threads
+     */
+    public synchronized void shutdown() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.fine("Unable to close the watch service: " + e);
+        }
+        dispatcher.shutdownNow();
+        watchThread.interrupt();
+        registrations.clear();
+        watchService = null;
+        dispatcher = null;
+        watchThread = null;
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                List<WatchEvent<?>> events = key.pollEvents();
+                boolean valid = key.reset();
+                List<Registration> keyRegistrations = valid ? registrations.get(key) : registrations.remove(key);
+                if (keyRegistrations != null && !keyRegistrations.isEmpty()) {
+                    dispatch(keyRegistrations, events, valid);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shut down
+        }
+    }
+
+    private synchronized void dispatch(List<Registration> keyRegistrations, List<WatchEvent<?>> events,
+            boolean valid) {
+        if (dispatcher == null) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                for (Registration registration : keyRegistrations) {
+                    for (WatchEvent<?> event : events) {
+                        Path path = event.context() == null ? null : registration.dir.resolve((Path) event.context());
+                        registration.notify(event.kind(), path);
+                    }
+                    if (!valid) {
+                        registration.notify(StandardWatchEventKinds.ENTRY_DELETE, registration.dir);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shut down
+        }
+    }
+
+    /**
+     * A directory watched for a listener
+     */
+    public class Registration implements Closeable {
+
+        private final WatchKey key;
+        private final Path dir;
+        private final Listener listener;
+        private volatile boolean closed;
+
+        private Registration(WatchKey key, Path dir, Listener listener) {
+            this.key = key;
+            this.dir = dir;
+            this.listener = listener;
+        }
+
+        public Path getDirectory() {
+            return dir;
+        }
+
+        private void notify(WatchEvent.Kind<?> kind, Path path) {
+            if (closed) {
+                return;
+            }
+            try {
+                listener.onEvent(kind, path);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Unable to handle " + kind + " event for " + dir + ": " + e);
+            }
+        }
+
+        /**
+         * Stops watching the directory for the listener
+         */
+        @Override
+        public void close() {
+            closed = true;
+            unregister(this);
+        }
+    }
+
+}
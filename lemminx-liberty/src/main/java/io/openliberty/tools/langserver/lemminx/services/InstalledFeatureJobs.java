@@ -0,0 +1,330 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
+
+/**
+ * Generates the installed feature lists of Liberty workspaces in the
+ * background. The features are read from the feature manifests of the
+ * installation, falling back to running ws-featurelist.jar with a timeout.
+ * Jobs report their progress through the {@link ProgressService} and are
+ * cancelled when their workspace is closed.
+ */
+public class InstalledFeatureJobs {
+
+    private static final Logger LOGGER = Logger.getLogger(InstalledFeatureJobs.class.getName());
+
+    // at most this many workspaces waiting for their installed features
+    private static final int MAX_QUEUED_JOBS = 8;
+    // lines of the featurelist output included in failure messages
+    private static final int OUTPUT_LINES = 20;
+
+    private final ThreadPoolExecutor executor;
+    // workspace URI -> job in progress, so that concurrent requests share a job
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public InstalledFeatureJobs() {
+        executor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED_JOBS), runnable -> {
+                    Thread thread = new Thread(runnable, "liberty-installed-features");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts generating the installed features of a workspace, unless a job for
+     * the workspace is already running
+     *
+     * @param workspaceURI URI of the workspace folder
+     * @param documentURI  xml document used to locate ws-featurelist.jar
+     * @param installRoot  root of the Liberty installation, or null if unknown
+     * @return future completed with the installed features, possibly empty, or
+     *         cancelled if the workspace is closed
+     */
+    public CompletableFuture<List<Feature>> submit(String workspaceURI, String documentURI, Path installRoot) {
+        return submit(workspaceURI, job -> generate(job, documentURI, installRoot));
+    }
+
+    /**
+     * Starts finding the installed features of a workspace with the given task,
+     * unless a job for the workspace is already running
+     *
+     * @param workspaceURI URI of the workspace folder
+     * @param task         finds the installed features
+     * @return future completed with the installed features, possibly empty, or
+     *         cancelled if the workspace is closed
+     */
+    CompletableFuture<List<Feature>> submit(String workspaceURI, Task task) {
+        Job job = new Job(workspaceURI);
+        Job existing = jobs.putIfAbsent(workspaceURI, job);
+        if (existing != null) {
+            return existing.result;
+        }
+        job.result.whenComplete((features, error) -> jobs.remove(workspaceURI, job));
+        try {
+            job.task = executor.submit(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warning("Too many installed feature jobs, skipping " + workspaceURI);
+            job.result.complete(new ArrayList<Feature>());
+        }
+        return job.result;
+    }
+
+    /**
+     * @return true if the installed features of the workspace are being generated
+     */
+    public boolean isRunning(String workspaceURI) {
+        return jobs.containsKey(workspaceURI);
+    }
+
+    /**
+     * Cancels the job of a workspace, killing the featurelist process if it is
+     * running
+     *
+     * @param workspaceURI URI of the workspace folder
+     */
+    public void cancel(String workspaceURI) {
+        Job job = jobs.remove(workspaceURI);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Cancels every job
+     */
+    public void cancelAll() {
+        for (String workspaceURI : new ArrayList<String>(jobs.keySet())) {
+            cancel(workspaceURI);
+        }
+    }
+
+    private void run(Job job, Task task) {
+        String token = ProgressService.getInstance().begin("Liberty: reading installed features");
+        job.token = token;
+        try {
+            List<Feature> features = task.run(job);
+            if (job.cancelled) {
+                throw new CancellationException();
+            }
+            job.result.complete(features);
+            ProgressService.getInstance().end(token, "Read " + features.size() + " installed features");
+        } catch (CancellationException e) {
+            job.result.cancel(false);
+            ProgressService.getInstance().end(token, "Cancelled");
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warning("Unable to get installed features: " + e);
+            job.result.complete(new ArrayList<Feature>());
+            ProgressService.getInstance().end(token, "Unable to read installed features");
+        }
+    }
+
+    /**
+     * Reads the installed features from the feature manifests of the
+     * installation, falling back to ws-featurelist.jar
+     *
+     * @param job         job the features are generated for
+     * @param documentURI xml document used to locate ws-featurelist.jar
+     * @param installRoot root of the Liberty installation, or null if unknown
+     * @return installed features, possibly empty
+     * @throws IOException if ws-featurelist.jar fails
+     */
+    List<Feature> generate(Job job, String documentURI, Path installRoot) throws IOException {
+        List<Feature> features = new ArrayList<Feature>();
+        if (installRoot != null) {
+            ProgressService.getInstance().report(job.token, "Reading feature manifests", null);
+            features = new InstalledFeatureScanner(installRoot, Locale.getDefault()).scan();
+        }
+        if (features.isEmpty() && !job.cancelled) {
+            ProgressService.getInstance().report(job.token, "Running ws-featurelist.jar", null);
+            features = runFeatureList(job, documentURI);
+        }
+        return features;
+    }
+
+    /**
+     * Generates the featurelist with ws-featurelist.jar and reads it
+     */
+    private List<Feature> runFeatureList(Job job, String documentURI) throws IOException {
+        Path featureListJAR = LibertyUtils.findFileInWorkspace(documentURI, "ws-featurelist.jar");
+        if (featureListJAR == null || !featureListJAR.toFile().exists()) {
+            return new ArrayList<Feature>();
+        }
+
+        // each job has its own output file, jobs of other workspaces may run
+        // ws-featurelist.jar at the same time
+        Path featureListFile = Files.createTempFile("featurelist", ".xml");
+        try {
+            ProcessBuilder builder = new ProcessBuilder("java", "-jar", featureListJAR.toAbsolutePath().toString(),
+                    featureListFile.toAbsolutePath().toString());
+            runProcess(builder, SettingsService.getInstance().getInstalledFeaturesTimeout(), job);
+            return FeatureListReader.readFeatures(featureListFile);
+        } finally {
+            Files.deleteIfExists(featureListFile);
+        }
+    }
+
+    /**
+     * Runs a process to completion. The output and error streams are written to a
+     * temporary file so that the process can never block on a full pipe, and are
+     * included in the exception if the process fails.
+     *
+     * @param builder        process to run
+     * @param timeoutSeconds time after which the process and its descendants are
+     *                       killed
+     * @param job            job the process belongs to, or null
+     * @throws IOException if the process fails, times out or is cancelled
+     */
+    static void runProcess(ProcessBuilder builder, int timeoutSeconds, Job job) throws IOException {
+        Path output = Files.createTempFile("liberty-process", ".log");
+        try {
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(output.toFile());
+            Process process = builder.start();
+            if (job != null) {
+                job.process = process;
+                if (job.cancelled) {
+                    destroyProcessTree(process);
+                }
+            }
+            boolean finished;
+            try {
+                finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                destroyProcessTree(process);
+                throw new CancellationException();
+            }
+            if (job != null && job.cancelled) {
+                throw new CancellationException();
+            }
+            if (!finished) {
+                destroyProcessTree(process);
+                throw new IOException(builder.command() + " did not complete within " + timeoutSeconds
+                        + " seconds" + readOutput(output));
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(builder.command() + " failed with exit code " + process.exitValue()
+                        + readOutput(output));
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    /**
+     * Runs a process that does not belong to a job to completion, see
+     * {@link #runProcess(ProcessBuilder, int, Job)}
+     */
+    public static void runProcess(ProcessBuilder builder, int timeoutSeconds) throws IOException {
+        runProcess(builder, timeoutSeconds, null);
+    }
+
+    private static String readOutput(Path output) {
+        try {
+            List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                return "";
+            }
+            List<String> tail = lines.subList(Math.max(0, lines.size() - OUTPUT_LINES), lines.size());
+            return ":\n" + String.join("\n", tail);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Kills a process and, on Java 9 and later, its descendants
+     */
+    static void destroyProcessTree(Process process) {
+        try {
+            // Process.descendants() is not available on Java 8
+            Method descendants = Process.class.getMethod("descendants");
+            Method destroyForcibly = Class.forName("java.lang.ProcessHandle").getMethod("destroyForcibly");
+            try (Stream<?> handles = (Stream<?>) descendants.invoke(process)) {
+                handles.forEach(handle -> {
+                    try {
+                        destroyForcibly.invoke(handle);
+                    } catch (ReflectiveOperationException e) {
+                        LOGGER.fine("Unable to kill process " + handle + ": " + e);
+                    }
+                });
+            }
+        } catch (ReflectiveOperationException e) {
+            // only the process itself can be killed
+        }
+        process.destroyForcibly();
+    }
+
+    /**
+     * Finds the installed features of a workspace
+     */
+    interface Task {
+        List<Feature> run(Job job) throws IOException;
+    }
+
+    /**
+     * Installed feature generation for a workspace
+     */
+    static class Job {
+        final String workspaceURI;
+        final CompletableFuture<List<Feature>> result = new CompletableFuture<>();
+        // progress of the job, see ProgressService
+        volatile String token;
+        volatile Future<?> task;
+        volatile Process process;
+        volatile boolean cancelled;
+
+        Job(String workspaceURI) {
+            this.workspaceURI = workspaceURI;
+        }
+
+        void cancel() {
+            cancelled = true;
+            Process runningProcess = process;
+            if (runningProcess != null) {
+                destroyProcessTree(runningProcess);
+            }
+            Future<?> runningTask = task;
+            if (runningTask != null) {
+                runningTask.cancel(true);
+            }
+            result.cancel(false);
+        }
+    }
+
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+
+/**
+ * Reads the installed features of a Liberty installation directly from the
+ * feature manifests in its lib/features directory. Produces the same features
+ * as the featurelist generated by ws-featurelist.jar, without starting a JVM.
+ */
+public class InstalledFeatureScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(InstalledFeatureScanner.class.getName());
+
+    private static final Attributes.Name SYMBOLIC_NAME = new Attributes.Name("Subsystem-SymbolicName");
+    private static final Attributes.Name SHORT_NAME = new Attributes.Name("IBM-ShortName");
+    private static final Attributes.Name DESCRIPTION = new Attributes.Name("Subsystem-Description");
+    private static final Attributes.Name LOCALIZATION = new Attributes.Name("Subsystem-Localization");
+
+    private final Path installRoot;
+    private final Locale locale;
+    // localization files are shared by the manifests of a scan
+    private final Map<Path, Properties> localizations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the root of the Liberty installation an openliberty.properties file
+     * belongs to
+     *
+     * @param propertiesFile wlp/lib/versions/openliberty.properties
+     * @return installation root, or null if the file is not in an installation
+     */
+    public static Path getInstallRoot(Path propertiesFile) {
+        Path versions = propertiesFile.toAbsolutePath().getParent();
+        if (versions == null || versions.getParent() == null || versions.getParent().getParent() == null) {
+            return null;
+        }
+        Path root = versions.getParent().getParent();
+        return Files.isDirectory(root.resolve("lib").resolve("features")) ? root : null;
+    }
+
+    /**
+     * Computes a fingerprint of the installed features of a Liberty installation
+     * from its version and the names, sizes and modification times of the files
+     * in lib/features. The fingerprint changes whenever features are added,
+     * removed or updated.
+     *
+     * @param installRoot    root of the Liberty installation
+     * @param productVersion version of the installation, may be null
+     * @return hex encoded SHA-256 fingerprint
+     * @throws IOException if lib/features cannot be listed
+     */
+    public static String getFingerprint(Path installRoot, String productVersion) throws IOException {
+        Path featuresDir = installRoot.resolve("lib").resolve("features");
+        List<Path> entries = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(featuresDir)) {
+            for (Path entry : stream) {
+                entries.add(entry);
+            }
+        }
+        Collections.sort(entries);
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        digest.update(String.valueOf(productVersion).getBytes(StandardCharsets.UTF_8));
+        for (Path entry : entries) {
+            BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            String line = "\n" + entry.getFileName() + "|" + attributes.size() + "|"
+                    + attributes.lastModifiedTime().toMillis();
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest()) {
+            fingerprint.append(String.format("%02x", b));
+        }
+        return fingerprint.toString();
+    }
+
+    public InstalledFeatureScanner(Path installRoot, Locale locale) {
+        this.installRoot = installRoot;
+        this.locale = locale;
+    }
+
+    /**
+     * Reads the public features of the installation. Manifests are read in
+     * parallel.
+     *
+     * @return public features sorted by name
+     * @throws IOException if the feature manifests cannot be listed
+     */
+    public List<Feature> scan() throws IOException {
+        Path featuresDir = installRoot.resolve("lib").resolve("features");
+        List<Path> manifests = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(featuresDir, "*.mf")) {
+            for (Path manifest : stream) {
+                manifests.add(manifest);
+            }
+        }
+        try {
+            return manifests.parallelStream()
+                    .map(this::readFeature)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(Feature::getName))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads a feature manifest
+     *
+     * @return feature, or null if the feature is not public
+     */
+    private Feature readFeature(Path manifestFile) {
+        Attributes attributes;
+        try (InputStream in = Files.newInputStream(manifestFile)) {
+            attributes = new Manifest(in).getMainAttributes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read feature manifest " + manifestFile, e);
+        }
+
+        String shortName = attributes.getValue(SHORT_NAME);
+        String symbolicName = attributes.getValue(SYMBOLIC_NAME);
+        if (shortName == null || symbolicName == null || !isPublic(symbolicName)) {
+            return null;
+        }
+
+        String description = attributes.getValue(DESCRIPTION);
+        if (description != null && description.startsWith("%")) {
+            description = localize(attributes.getValue(LOCALIZATION), description.substring(1));
+        }
+
+        // same data as the features unmarshalled from the featurelist
+        Feature feature = new Feature();
+        feature.setName(FeatureNames.share(shortName.trim()));
+        feature.setDescription(description);
+        feature.setShortDescription(description);
+        feature.setWlpInformation(new WlpInformation(feature.getName()));
+        return feature;
+    }
+
+    /**
+     * Checks the visibility directive of a Subsystem-SymbolicName header, for
+     * example "com.ibm.websphere.appserver.jaxrs-2.1; visibility:=public"
+     */
+    public static boolean isPublic(String symbolicName) {
+        String[] clauses = symbolicName.split(";");
+        for (int i = 1; i < clauses.length; i++) {
+            String clause = clauses[i].trim();
+            if (clause.startsWith("visibility:=")) {
+                String visibility = clause.substring("visibility:=".length()).replace("\"", "").trim();
+                return "public".equalsIgnoreCase(visibility);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks up a key in the localization of a feature, for example
+     * OSGI-INF/l10n/com.ibm.websphere.appserver.jaxrs-2.1 is read from
+     * lib/features/l10n/com.ibm.websphere.appserver.jaxrs-2.1.properties
+     */
+    private String localize(String localization, String key) {
+        if (localization == null) {
+            return null;
+        }
+        String baseName = localization.substring(localization.lastIndexOf('/') + 1).trim();
+        Path l10nDir = installRoot.resolve("lib").resolve("features").resolve("l10n");
+        // most specific locale first, as with resource bundles
+        List<String> candidates = new ArrayList<String>();
+        if (!locale.getCountry().isEmpty()) {
+            candidates.add(baseName + "_" + locale.getLanguage() + "_" + locale.getCountry());
+        }
+        if (!locale.getLanguage().isEmpty()) {
+            candidates.add(baseName + "_" + locale.getLanguage());
+        }
+        candidates.add(baseName);
+        for (String candidate : candidates) {
+            String value = getLocalization(l10nDir.resolve(candidate + ".properties")).getProperty(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private Properties getLocalization(Path file) {
+        return localizations.computeIfAbsent(file, f -> {
+            Properties properties = new Properties();
+            if (Files.isRegularFile(f)) {
+                try (InputStream in = Files.newInputStream(f)) {
+                    properties.load(in);
+                } catch (IOException e) {
+                    LOGGER.warning("Unable to read feature localization " + f + ": " + e);
+                }
+            }
+            return properties;
+        });
+    }
+
+}
@@ -12,44 +12,143 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.services;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.eclipse.lsp4j.WorkspaceFolder;
 
+import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
+
 public class LibertyProjectsManager {
 
     private static final Logger LOGGER = Logger.getLogger(LibertyProjectsManager.class.getName());
 
     private static final LibertyProjectsManager INSTANCE = new LibertyProjectsManager();
 
-    private List<LibertyWorkspace> libertyWorkspaceFolders;
+    private static final LibertyWorkspace NO_WORKSPACE = new LibertyWorkspace(null);
+    private static final int MAX_RESOLVED_DOCUMENTS = 1024;
+
+    // copy on write, read by concurrent requests and rarely changed
+    private final List<LibertyWorkspace> libertyWorkspaceFolders;
+    // trie of the workspace folders, replaced when the folders change
+    private volatile WorkspaceFolderTrie workspaceFolderTrie;
+    // document URI -> workspace folder, NO_WORKSPACE if not in a workspace folder
+    private final Map<String, LibertyWorkspace> resolvedDocuments;
+    // detects the Liberty version of added workspace folders
+    private final ExecutorService warmUpExecutor;
 
     public static LibertyProjectsManager getInstance() {
         return INSTANCE;
     }
 
     private LibertyProjectsManager() {
-        libertyWorkspaceFolders = new ArrayList<LibertyWorkspace>();
+        libertyWorkspaceFolders = new CopyOnWriteArrayList<LibertyWorkspace>();
+        workspaceFolderTrie = new WorkspaceFolderTrie();
+        resolvedDocuments = new ConcurrentHashMap<String, LibertyWorkspace>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, "liberty-workspace-warm-up");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        warmUpExecutor = executor;
     }
 
-    public void setWorkspaceFolders(List<WorkspaceFolder> workspaceFolders) {
+    /**
+     * Registers the workspace folders of the client. The Liberty version of each
+     * folder is detected in the background.
+     * 
+     * LemMinX does not forward workspace/didChangeWorkspaceFolders to
+     * extensions, so the folders are only known from the initialize request.
+     * 
+     * @param workspaceFolders workspace folders of the client
+     */
+    public synchronized void setWorkspaceFolders(List<WorkspaceFolder> workspaceFolders) {
         for (WorkspaceFolder folder : workspaceFolders) {
-            LibertyWorkspace libertyWorkspace = new LibertyWorkspace(folder.getUri());
-            this.libertyWorkspaceFolders.add(libertyWorkspace);
+            addWorkspaceFolder(folder.getUri());
+        }
+        updateWorkspaceFolderTrie();
+    }
+
+    private void addWorkspaceFolder(String workspaceFolderURI) {
+        if (workspaceFolderURI == null || findWorkspaceFolder(workspaceFolderURI) != null) {
+            return;
+        }
+        LibertyWorkspace libertyWorkspace = new LibertyWorkspace(workspaceFolderURI);
+        this.libertyWorkspaceFolders.add(libertyWorkspace);
+        // start indexing the workspace files in the background
+        libertyWorkspace.getFileIndex();
+        try {
+            // then detect the Liberty version from the index
+            warmUpExecutor.execute(() -> {
+                WorkspaceFileIndex fileIndex = libertyWorkspace.getFileIndex();
+                if (fileIndex == null || libertyWorkspace.isDisposed()) {
+                    return;
+                }
+                fileIndex.awaitReady();
+                if (!libertyWorkspace.isDisposed() && LibertyUtils.detectVersion(libertyWorkspace) != null) {
+                    // documents validated while the index was built may have
+                    // missed the Liberty installation
+                    DocumentContextService.getInstance().invalidate();
+                    RevalidationService.getInstance().revalidateServerXMLDocuments();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // detected on first use instead
+            LOGGER.fine("Unable to detect the Liberty version of " + workspaceFolderURI + ": " + e);
+        }
+    }
+
+    /**
+     * Returns the registered workspace folder with the same normalized URI
+     */
+    private LibertyWorkspace findWorkspaceFolder(String workspaceFolderURI) {
+        if (workspaceFolderURI == null) {
+            return null;
+        }
+        List<String> segments = WorkspaceFolderTrie.normalize(workspaceFolderURI);
+        for (LibertyWorkspace folder : this.libertyWorkspaceFolders) {
+            if (folder.getURI() != null && WorkspaceFolderTrie.normalize(folder.getURI()).equals(segments)) {
+                return folder;
+            }
         }
+        return null;
+    }
+
+    /**
+     * Rebuilds the trie of workspace folders and forgets the resolved documents
+     */
+    private void updateWorkspaceFolderTrie() {
+        WorkspaceFolderTrie trie = new WorkspaceFolderTrie();
+        for (LibertyWorkspace folder : this.libertyWorkspaceFolders) {
+            if (folder.getURI() != null) {
+                trie.put(folder);
+            }
+        }
+        this.workspaceFolderTrie = trie;
+        this.resolvedDocuments.clear();
     }
 
+    /**
+     * @return unmodifiable view of the workspace folders, iterating it is safe
+     *         while workspace folders are added or removed
+     */
     public List<LibertyWorkspace> getLibertyWorkspaceFolders() {
-        return this.libertyWorkspaceFolders;
+        return Collections.unmodifiableList(this.libertyWorkspaceFolders);
     }
 
     public String getLibertyVersion(LibertyWorkspace libertyWorkspace) {
@@ -57,18 +156,35 @@ public class LibertyProjectsManager {
     }
 
     /**
-     * Given a serverXML URI return the corresponding workspace folder URI
+     * Given a serverXML URI return the corresponding workspace folder. When
+     * workspace folders are nested, the innermost folder is returned. Results
+     * are remembered per document URI until the workspace folders change.
      * 
      * @param serverXMLUri
-     * @return
+     * @return workspace folder, or null if the document is not in a workspace
+     *         folder
      */
     public LibertyWorkspace getWorkspaceFolder(String serverXMLUri) {
-        for (LibertyWorkspace folder : getInstance().getLibertyWorkspaceFolders()) {
-            if (serverXMLUri.contains(folder.getURI())) {
-                return folder;
+        if (serverXMLUri == null) {
+            return null;
+        }
+        LibertyWorkspace folder = resolvedDocuments.get(serverXMLUri);
+        if (folder == null) {
+            WorkspaceFolderTrie trie = this.workspaceFolderTrie;
+            folder = trie.find(serverXMLUri);
+            if (folder == null) {
+                folder = NO_WORKSPACE;
+            }
+            if (resolvedDocuments.size() >= MAX_RESOLVED_DOCUMENTS) {
+                resolvedDocuments.clear();
+            }
+            resolvedDocuments.put(serverXMLUri, folder);
+            // do not remember a result computed from a trie that was replaced meanwhile
+            if (trie != this.workspaceFolderTrie) {
+                resolvedDocuments.remove(serverXMLUri, folder);
             }
         }
-        return null;
+        return folder == NO_WORKSPACE ? null : folder;
     }
 
     public void cleanUpTempDirs() {
@@ -79,9 +195,8 @@ public class LibertyProjectsManager {
                 if (workspaceFolderURI != null) {
                     URI rootURI = new URI(workspaceFolderURI);
                     Path rootPath = Paths.get(rootURI);
-                    List<Path> matchingFiles = Files.walk(rootPath)
-                            .filter(p -> (Files.isDirectory(p) && p.getFileName().endsWith(".libertyls")))
-                            .collect(Collectors.toList());
+                    List<Path> matchingFiles = WorkspaceScanner.fromSettings().find(rootPath,
+                            (p, directory) -> directory && p.getFileName().endsWith(".libertyls"), Integer.MAX_VALUE);
 
                     // delete each liberty ls directory
                     for (Path libertylsDir : matchingFiles) {
@@ -90,10 +205,21 @@ public class LibertyProjectsManager {
                         }
                     }
                 }
-            } catch (IOException | URISyntaxException e) {
+            } catch (URISyntaxException | IllegalArgumentException e) {
                 LOGGER.warning("Could not clean up /.libertyls directory: " + e.getMessage());
             }
         }
     }
 
+    /**
+     * Stops watching the files of the workspace folders and forgets them
+     */
+    public synchronized void dispose() {
+        for (LibertyWorkspace folder : this.libertyWorkspaceFolders) {
+            folder.dispose();
+        }
+        this.libertyWorkspaceFolders.clear();
+        updateWorkspaceFolderTrie();
+    }
+
 }
@@ -12,17 +12,29 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.services;
 
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Logger;
 
 import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
 
 public class LibertyWorkspace {
 
+    private static final Logger LOGGER = Logger.getLogger(LibertyWorkspace.class.getName());
+
     private String workspaceFolderURI;
-    private String libertyVersion;
-    private boolean isLibertyInstalled;
-    private List<Feature> installedFeatureList;
+    // fields are read by concurrent language feature requests
+    private volatile String libertyVersion;
+    private volatile boolean isLibertyInstalled;
+    private volatile FeatureCatalog installedFeatureCatalog;
+    // true once the installed features of the installation have been looked up
+    private volatile boolean installedFeaturesLoaded;
+    private volatile WorkspaceFileIndex fileIndex;
+    private FileWatchService.Registration propertiesWatch;
+    private volatile boolean disposed;
 
     /**
      * Model of a Liberty Workspace. Each workspace indicates the
@@ -35,7 +47,7 @@ public class LibertyWorkspace {
         this.workspaceFolderURI = workspaceFolderURI;
         this.libertyVersion = null;
         this.isLibertyInstalled = false;
-        this.installedFeatureList = new ArrayList<Feature>();
+        this.installedFeatureCatalog = new FeatureCatalog(null, new ArrayList<Feature>());
     }
 
     public String getURI() {
@@ -59,11 +71,98 @@ public class LibertyWorkspace {
     }
 
     public List<Feature> getInstalledFeatureList() {
-        return this.installedFeatureList;
+        return this.installedFeatureCatalog.getFeatures();
     }
 
     public void setInstalledFeatureList(List<Feature> installedFeatureList){
-        this.installedFeatureList = installedFeatureList;
+        this.installedFeatureCatalog = new FeatureCatalog(this.libertyVersion, installedFeatureList);
+    }
+
+    public void setInstalledFeatureCatalog(FeatureCatalog installedFeatureCatalog) {
+        this.installedFeatureCatalog = installedFeatureCatalog;
+    }
+
+    /**
+     * @return true if the installed features of the current installation have
+     *         been looked up, even if none were found
+     */
+    public boolean isInstalledFeaturesLoaded() {
+        return this.installedFeaturesLoaded;
+    }
+
+    public void setInstalledFeaturesLoaded(boolean installedFeaturesLoaded) {
+        this.installedFeaturesLoaded = installedFeaturesLoaded;
+    }
+
+    /**
+     * Returns the catalog of installed features
+     * 
+     * @return catalog of installed features
+     */
+    public FeatureCatalog getInstalledFeatureCatalog() {
+        return this.installedFeatureCatalog;
+    }
+
+    /**
+     * Returns the index of the files in the workspace folder. The index is built
+     * in the background the first time it is requested.
+     * 
+     * @return file index, or null if the workspace folder is not a local folder
+     *         or has been removed
+     */
+    public WorkspaceFileIndex getFileIndex() {
+        WorkspaceFileIndex index = this.fileIndex;
+        if (index == null && this.workspaceFolderURI != null && !this.disposed) {
+            synchronized (this) {
+                index = this.fileIndex;
+                if (index == null && !this.disposed) {
+                    try {
+                        index = new WorkspaceFileIndex(Paths.get(new URI(this.workspaceFolderURI)));
+                    } catch (URISyntaxException | IllegalArgumentException e) {
+                        LOGGER.warning("Unable to index workspace folder " + this.workspaceFolderURI + ": " + e);
+                        return null;
+                    }
+                    index.start(true);
+                    this.fileIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Sets the watch of the Liberty properties file, replacing the previous
+     * watch
+     * 
+     * @param propertiesWatch watch of the lib/versions directory
+     */
+    public synchronized void setPropertiesWatch(FileWatchService.Registration propertiesWatch) {
+        if (this.propertiesWatch != null) {
+            this.propertiesWatch.close();
+        }
+        if (this.disposed && propertiesWatch != null) {
+            // the workspace folder was removed while the watch was being registered
+            propertiesWatch.close();
+            propertiesWatch = null;
+        }
+        this.propertiesWatch = propertiesWatch;
+    }
+
+    /**
+     * Stops watching the files of the workspace. The workspace is not indexed
+     * or watched again once it has been disposed.
+     */
+    public synchronized void dispose() {
+        this.disposed = true;
+        if (this.fileIndex != null) {
+            this.fileIndex.close();
+            this.fileIndex = null;
+        }
+        setPropertiesWatch(null);
+    }
+
+    public boolean isDisposed() {
+        return this.disposed;
     }
 
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import org.eclipse.lsp4j.WorkDoneProgressBegin;
+import org.eclipse.lsp4j.WorkDoneProgressEnd;
+import org.eclipse.lsp4j.WorkDoneProgressNotification;
+import org.eclipse.lsp4j.WorkDoneProgressReport;
+
+/**
+ * Reports the progress of long running background work as LSP work done
+ * progress notifications ($/progress).
+ *
+ * LemMinX does not give extensions access to the language client, so the
+ * notifications are passed to a sink. The sink is responsible for creating the
+ * token on the client (window/workDoneProgress/create) before forwarding the
+ * notifications. Without a sink, progress is only logged.
+ */
+public class ProgressService {
+
+    private static final Logger LOGGER = Logger.getLogger(ProgressService.class.getName());
+
+    private static final ProgressService INSTANCE = new ProgressService();
+
+    private static final BiConsumer<String, WorkDoneProgressNotification> LOGGING_SINK = (token, notification) -> {
+        if (notification instanceof WorkDoneProgressBegin) {
+            LOGGER.fine(token + ": " + ((WorkDoneProgressBegin) notification).getTitle());
+        } else if (notification instanceof WorkDoneProgressReport) {
+            LOGGER.fine(token + ": " + ((WorkDoneProgressReport) notification).getMessage());
+        } else if (notification instanceof WorkDoneProgressEnd) {
+            LOGGER.fine(token + ": " + ((WorkDoneProgressEnd) notification).getMessage());
+        }
+    };
+
+    private final AtomicInteger tokenCounter = new AtomicInteger();
+    private volatile BiConsumer<String, WorkDoneProgressNotification> sink = LOGGING_SINK;
+    private volatile boolean workDoneProgressSupported;
+
+    public static ProgressService getInstance() {
+        return INSTANCE;
+    }
+
+    private ProgressService() {
+    }
+
+    /**
+     * Sets the sink that forwards work done progress notifications to the client
+     *
+     * @param sink receives the token and the notification, or null to only log
+     *             progress
+     */
+    public void setSink(BiConsumer<String, WorkDoneProgressNotification> sink) {
+        this.sink = sink == null ? LOGGING_SINK : sink;
+    }
+
+    /**
+     * @param workDoneProgressSupported true if the client declared the
+     *                                  window.workDoneProgress capability
+     */
+    public void setWorkDoneProgressSupported(boolean workDoneProgressSupported) {
+        this.workDoneProgressSupported = workDoneProgressSupported;
+    }
+
+    public boolean isWorkDoneProgressSupported() {
+        return workDoneProgressSupported;
+    }
+
+    /**
+     * Starts reporting progress for a piece of work
+     *
+     * @param title title of the work
+     * @return token identifying the work in following notifications
+     */
+    public String begin(String title) {
+        String token = "liberty-" + tokenCounter.incrementAndGet();
+        WorkDoneProgressBegin begin = new WorkDoneProgressBegin();
+        begin.setTitle(title);
+        begin.setCancellable(false);
+        notify(token, begin);
+        return token;
+    }
+
+    /**
+     * Reports progress of the work
+     *
+     * @param token      token returned by {@link #begin(String)}
+     * @param message    progress message
+     * @param percentage progress in percent, or null if unknown
+     */
+    public void report(String token, String message, Integer percentage) {
+        WorkDoneProgressReport report = new WorkDoneProgressReport();
+        report.setMessage(message);
+        report.setPercentage(percentage);
+        notify(token, report);
+    }
+
+    /**
+     * Reports that the work is done
+     *
+     * @param token   token returned by {@link #begin(String)}
+     * @param message final message
+     */
+    public void end(String token, String message) {
+        WorkDoneProgressEnd end = new WorkDoneProgressEnd();
+        end.setMessage(message);
+        notify(token, end);
+    }
+
+    private void notify(String token, WorkDoneProgressNotification notification) {
+        BiConsumer<String, WorkDoneProgressNotification> currentSink = workDoneProgressSupported ? sink : LOGGING_SINK;
+        try {
+            currentSink.accept(token, notification);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Unable to report progress: " + e);
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.services.extensions.IXMLDocumentProvider;
+import org.eclipse.lemminx.services.extensions.IXMLValidationService;
+
+/**
+ * Keeps track of the server.xml documents that have been validated so that
+ * they can be validated again when information used by the Liberty diagnostics
+ * changes in the background (ie. a feature list finished downloading).
+ *
+ * Documents are validated on a thread of their own, so that the threads
+ * reporting the changes, such as file watch events and diagnostics jobs, never
+ * wait for a validation. Requests are coalesced: the documents requested while
+ * a validation is pending or running are validated once by the next one.
+ */
+public class RevalidationService {
+
+    private static final Logger LOGGER = Logger.getLogger(RevalidationService.class.getName());
+
+    private static final RevalidationService INSTANCE = new RevalidationService();
+
+    public static RevalidationService getInstance() {
+        return INSTANCE;
+    }
+
+    // a burst of file events, such as an editor saving through a temporary
+    // file, is collected for this long before validating
+    private static final long COALESCE_MILLIS = 50;
+
+    private final Set<String> serverXMLDocuments;
+    // documents waiting for the next validation
+    private final Set<String> pendingDocuments;
+    private final AtomicBoolean validationScheduled;
+    private final ScheduledThreadPoolExecutor executor;
+    private volatile IXMLDocumentProvider documentProvider;
+    private volatile IXMLValidationService validationService;
+
+    private RevalidationService() {
+        serverXMLDocuments = ConcurrentHashMap.newKeySet();
+        pendingDocuments = ConcurrentHashMap.newKeySet();
+        validationScheduled = new AtomicBoolean();
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "liberty-revalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(60, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets the LemMinX services used to look up and validate open documents
+     * 
+     * @param documentProvider  provider of the open documents
+     * @param validationService service used to validate documents
+     */
+    public void initialize(IXMLDocumentProvider documentProvider, IXMLValidationService validationService) {
+        this.documentProvider = documentProvider;
+        this.validationService = validationService;
+    }
+
+    public void dispose() {
+        this.documentProvider = null;
+        this.validationService = null;
+        serverXMLDocuments.clear();
+        pendingDocuments.clear();
+    }
+
+    /**
+     * Records a server.xml document that the Liberty diagnostics have run on
+     * 
+     * @param documentURI server.xml URI
+     */
+    public void trackDocument(String documentURI) {
+        serverXMLDocuments.add(documentURI);
+    }
+
+    /**
+     * Validates every tracked server.xml document that is still open
+     */
+    public void revalidateServerXMLDocuments() {
+        revalidate(serverXMLDocuments);
+    }
+
+    /**
+     * Validates the given server.xml documents that are tracked and still open,
+     * for example the documents that include a configuration file that changed.
+     * The documents are validated in the background.
+     * 
+     * @param documentURIs server.xml URIs
+     */
+    public void revalidate(Collection<String> documentURIs) {
+        if (documentProvider == null || validationService == null) {
+            return;
+        }
+        pendingDocuments.addAll(documentURIs);
+        if (validationScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::validatePending, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void validatePending() {
+        // documents requested from now on are validated by the next validation
+        validationScheduled.set(false);
+        List<String> documents = new ArrayList<String>(pendingDocuments);
+        pendingDocuments.removeAll(documents);
+        validate(documents);
+    }
+
+    private void validate(Collection<String> documentURIs) {
+        IXMLDocumentProvider provider = this.documentProvider;
+        IXMLValidationService validator = this.validationService;
+        if (provider == null || validator == null) {
+            return;
+        }
+        for (String documentURI : documentURIs) {
+            if (!serverXMLDocuments.contains(documentURI)) {
+                continue;
+            }
+            DOMDocument document = provider.getDocument(documentURI);
+            if (document == null) {
+                // document has been closed
+                serverXMLDocuments.remove(documentURI);
+                DocumentContextService.getInstance().remove(documentURI);
+                FeatureDiagnosticsCache.getInstance().remove(documentURI);
+                ServerConfigGraph.getInstance().remove(documentURI);
+                FeatureDiagnosticsJobs.getInstance().cancel(documentURI);
+                continue;
+            }
+            try {
+                validator.validate(document);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Unable to revalidate " + documentURI + ": " + e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,693 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+import io.openliberty.tools.langserver.lemminx.util.LibertyUtils;
+
+/**
+ * The configuration files that server.xml documents depend on: the files of
+ * their include elements, the files those include in turn, and the files of
+ * configDropins/defaults and configDropins/overrides.
+ *
+ * Each file is parsed once and its features, variables and includes are kept
+ * until its modification time or size changes, and it is only parsed again if
+ * its content hash changed too. The documents that depend on each file are
+ * tracked, so that when a file changes on disk only those documents are
+ * validated again.
+ */
+public class ServerConfigGraph {
+
+    private static final Logger LOGGER = Logger.getLogger(ServerConfigGraph.class.getName());
+
+    private static final ServerConfigGraph INSTANCE = new ServerConfigGraph();
+
+    public static ServerConfigGraph getInstance() {
+        return INSTANCE;
+    }
+
+    private static final String CONFIG_DROPINS = "configDropins";
+    private static final String DEFAULTS = "defaults";
+    private static final String OVERRIDES = "overrides";
+    private static final String SERVER_CONFIG_DIR = "server.config.dir";
+    private static final String WLP_USER_DIR = "wlp.user.dir";
+    private static final String WLP_INSTALL_DIR = "wlp.install.dir";
+    private static final String SHARED_CONFIG_DIR = "shared.config.dir";
+    private static final String SERVERS = "servers";
+    private static final String USR = "usr";
+    private static final String SHARED = "shared";
+    private static final String CONFIG = "config";
+    private static final String OPENLIBERTY_PROPERTIES = "openliberty.properties";
+    // guards against include chains that are too long to be intentional
+    private static final int MAX_INCLUDE_DEPTH = 16;
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{([^}]+)\\}");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    // parsed configuration files
+    private final Map<Path, ConfigFile> files = new ConcurrentHashMap<>();
+    // document URI -> configuration files and dropins directories it depends on
+    private final Map<String, Set<Path>> dependencies = new HashMap<>();
+    // configuration file or dropins directory -> documents that depend on it
+    private final Map<Path, Set<String>> dependents = new ConcurrentHashMap<>();
+    // watched directories of the dependencies
+    private final Map<Path, FileWatchService.Registration> watches = new HashMap<>();
+    private final LongAdder parseCount = new LongAdder();
+    // false when configuration files are read once, as in batch validation
+    private volatile boolean watching = true;
+
+    private ServerConfigGraph() {
+    }
+
+    /**
+     * Resolves the configuration files a server.xml document depends on
+     *
+     * @param documentURI      URI of the server.xml document
+     * @param includeLocations location of each include element of the document
+     * @return features of each include and of the configDropins
+     */
+    public Resolution resolve(String documentURI, List<String> includeLocations) {
+        return resolve(documentURI, includeLocations, Collections.<String, String>emptyMap(), null);
+    }
+
+    /**
+     * Resolves the configuration files a server.xml document depends on,
+     * checking for cancellation before each file is read
+     *
+     * @param documentURI      URI of the server.xml document
+     * @param includeLocations location of each include element of the document
+     * @param cancelChecker    cancel checker of the validation, or null
+     * @return features of each include and of the configDropins
+     * @throws CancellationException if the validation is cancelled, the
+     *                               dependencies of the document are unchanged
+     */
+    public Resolution resolve(String documentURI, List<String> includeLocations, CancelChecker cancelChecker) {
+        return resolve(documentURI, includeLocations, Collections.<String, String>emptyMap(), cancelChecker);
+    }
+
+    /**
+     * Resolves the configuration files a server.xml document depends on,
+     * checking for cancellation before each file is read
+     *
+     * @param documentURI       URI of the server.xml document
+     * @param includeLocations  location of each include element of the document
+     * @param documentVariables variables defined by the variable elements of the
+     *                          document
+     * @param cancelChecker     cancel checker of the validation, or null
+     * @return features of each include and of the configDropins
+     * @throws CancellationException if the validation is cancelled, the
+     *                               dependencies of the document are unchanged
+     */
+    public Resolution resolve(String documentURI, List<String> includeLocations,
+            Map<String, String> documentVariables, CancelChecker cancelChecker) {
+        Path serverXML = toPath(documentURI);
+        Path configDir = serverXML == null ? null : serverXML.getParent();
+        Map<String, String> variables = new HashMap<String, String>(documentVariables);
+        if (configDir != null) {
+            putLocationVariables(documentURI, configDir, variables);
+        }
+        Set<Path> documentDependencies = new HashSet<Path>();
+
+        // defaults are read before server.xml and overrides after it
+        List<IncludedFeature> dropinFeatures = new ArrayList<IncludedFeature>();
+        if (configDir != null) {
+            visitDropins(configDir.resolve(CONFIG_DROPINS).resolve(DEFAULTS), variables, documentDependencies,
+                    dropinFeatures, cancelChecker);
+        }
+        List<List<IncludedFeature>> includeFeatures = new ArrayList<List<IncludedFeature>>(includeLocations.size());
+        boolean[] unresolvedIncludes = new boolean[includeLocations.size()];
+        for (int i = 0; i < includeLocations.size(); i++) {
+            String location = includeLocations.get(i);
+            List<IncludedFeature> features = new ArrayList<IncludedFeature>();
+            if (isRemote(location)) {
+                // remote includes are not read
+                includeFeatures.add(features);
+                continue;
+            }
+            Path file = resolveLocation(location, configDir, variables);
+            if (file == null) {
+                unresolvedIncludes[i] = true;
+            } else {
+                unresolvedIncludes[i] = !visitFile(file, variables, documentDependencies, new HashSet<Path>(), 0,
+                        features, cancelChecker);
+            }
+            includeFeatures.add(features);
+        }
+        if (configDir != null) {
+            visitDropins(configDir.resolve(CONFIG_DROPINS).resolve(OVERRIDES), variables, documentDependencies,
+                    dropinFeatures, cancelChecker);
+        }
+        updateDependencies(documentURI, documentDependencies);
+        return new Resolution(includeFeatures, unresolvedIncludes, dropinFeatures, variables);
+    }
+
+    /**
+     * Defines the variables of the Liberty directories that include locations
+     * commonly use. The directories are derived from the servers directory the
+     * configuration directory is in, or from a Liberty installation in the
+     * workspace of the document.
+     */
+    private static void putLocationVariables(String documentURI, Path configDir, Map<String, String> variables) {
+        variables.put(SERVER_CONFIG_DIR, configDir.toString());
+        Path userDir = null;
+        Path installDir = null;
+        Path serversDir = configDir.getParent();
+        if (serversDir != null && serversDir.getFileName() != null
+                && SERVERS.equals(serversDir.getFileName().toString())) {
+            userDir = serversDir.getParent();
+            if (userDir != null && userDir.getFileName() != null && USR.equals(userDir.getFileName().toString())) {
+                installDir = userDir.getParent();
+            }
+        }
+        if (userDir == null || installDir == null) {
+            Path properties = LibertyUtils.findFileInWorkspace(documentURI, OPENLIBERTY_PROPERTIES);
+            if (properties != null) {
+                installDir = InstalledFeatureScanner.getInstallRoot(properties);
+                if (userDir == null && installDir != null) {
+                    userDir = installDir.resolve(USR);
+                }
+            }
+        }
+        if (installDir != null) {
+            variables.put(WLP_INSTALL_DIR, installDir.toString());
+        }
+        if (userDir != null) {
+            variables.put(WLP_USER_DIR, userDir.toString());
+            variables.put(SHARED_CONFIG_DIR, userDir.resolve(SHARED).resolve(CONFIG).toString());
+        }
+    }
+
+    private void visitDropins(Path dropinsDir, Map<String, String> variables, Set<Path> documentDependencies,
+            List<IncludedFeature> features, CancelChecker cancelChecker) {
+        documentDependencies.add(dropinsDir);
+        if (!Files.isDirectory(dropinsDir)) {
+            return;
+        }
+        List<Path> dropins = new ArrayList<Path>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dropinsDir, "*.xml")) {
+            for (Path dropin : stream) {
+                dropins.add(dropin);
+            }
+        } catch (IOException e) {
+            LOGGER.fine("Unable to list " + dropinsDir + ": " + e);
+            return;
+        }
+        // dropins are processed in alphabetical order
+        Collections.sort(dropins);
+        for (Path dropin : dropins) {
+            visitFile(dropin, variables, documentDependencies, new HashSet<Path>(), 0, features, cancelChecker);
+        }
+    }
+
+    private void visit(String location, Path baseDir, Map<String, String> variables, Set<Path> documentDependencies,
+            Set<Path> visited, int depth, List<IncludedFeature> features, CancelChecker cancelChecker) {
+        Path file = resolveLocation(location, baseDir, variables);
+        if (file != null) {
+            visitFile(file, variables, documentDependencies, visited, depth, features, cancelChecker);
+        }
+    }
+
+    /**
+     * @return false if the file does not exist
+     */
+    private boolean visitFile(Path file, Map<String, String> variables, Set<Path> documentDependencies,
+            Set<Path> visited, int depth, List<IncludedFeature> features, CancelChecker cancelChecker) {
+        if (depth > MAX_INCLUDE_DEPTH) {
+            return true;
+        }
+        if (cancelChecker != null) {
+            cancelChecker.checkCanceled();
+        }
+        documentDependencies.add(file);
+        if (!visited.add(file)) {
+            // include cycle
+            return true;
+        }
+        ConfigFile configFile = load(file);
+        if (configFile == null) {
+            return false;
+        }
+        variables.putAll(configFile.variables);
+        for (String feature : configFile.features) {
+            features.add(new IncludedFeature(feature, file));
+        }
+        for (String include : configFile.includes) {
+            // relative locations are relative to the including file
+            visit(include, file.getParent(), variables, documentDependencies, visited, depth + 1, features,
+                    cancelChecker);
+        }
+        return true;
+    }
+
+    private static boolean isRemote(String location) {
+        return location != null && location.contains("://");
+    }
+
+    /**
+     * Returns the file of an include location, or null if it is a URL or uses a
+     * variable that is not defined
+     */
+    private static Path resolveLocation(String location, Path baseDir, Map<String, String> variables) {
+        if (location == null) {
+            return null;
+        }
+        StringBuffer resolved = new StringBuffer();
+        Matcher matcher = VARIABLE.matcher(location.trim());
+        while (matcher.find()) {
+            String value = variables.get(matcher.group(1));
+            if (value == null) {
+                return null;
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(resolved);
+        String path = resolved.toString();
+        if (path.isEmpty() || path.contains("://")) {
+            return null;
+        }
+        try {
+            Path file = Paths.get(path);
+            if (!file.isAbsolute()) {
+                if (baseDir == null) {
+                    return null;
+                }
+                file = baseDir.resolve(file);
+            }
+            return file.normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static Path toPath(String documentURI) {
+        try {
+            URI uri = new URI(documentURI);
+            if ("file".equalsIgnoreCase(uri.getScheme())) {
+                return Paths.get(uri);
+            }
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            // not a local file
+        }
+        return null;
+    }
+
+    /**
+     * Returns the parsed configuration file, parsing it only if it changed
+     *
+     * @return configuration file, or null if it does not exist
+     */
+    private ConfigFile load(Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            files.remove(file);
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        ConfigFile cached = files.get(file);
+        if (cached != null && cached.lastModified == lastModified && cached.size == size) {
+            return cached;
+        }
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            LOGGER.fine("Unable to read " + file + ": " + e);
+            files.remove(file);
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        long hash = crc.getValue();
+        ConfigFile configFile;
+        if (cached != null && cached.hash == hash) {
+            // touched but not changed
+            configFile = new ConfigFile(lastModified, size, hash, cached.features, cached.variables, cached.includes);
+        } else {
+            configFile = parse(file, content, lastModified, size, hash);
+        }
+        files.put(file, configFile);
+        return configFile;
+    }
+
+    private ConfigFile parse(Path file, byte[] content, long lastModified, long size, long hash) {
+        parseCount.increment();
+        List<String> features = new ArrayList<String>();
+        Map<String, String> variables = new HashMap<String, String>();
+        List<String> includes = new ArrayList<String>();
+        try {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(content));
+            try {
+                reader.nextTag();
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    String element = reader.getLocalName();
+                    if (LibertyConstants.FEATURE_MANAGER_ELEMENT.equals(element)) {
+                        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                            if (LibertyConstants.FEATURE_ELEMENT.equals(reader.getLocalName())) {
+                                features.add(reader.getElementText().trim());
+                            } else {
+                                skipElement(reader);
+                            }
+                        }
+                    } else if (LibertyConstants.VARIABLE_ELEMENT.equals(element)) {
+                        String name = reader.getAttributeValue(null, "name");
+                        String value = reader.getAttributeValue(null, "value");
+                        if (value == null) {
+                            value = reader.getAttributeValue(null, "defaultValue");
+                        }
+                        if (name != null && value != null) {
+                            variables.put(name, value);
+                        }
+                        skipElement(reader);
+                    } else if (LibertyConstants.INCLUDE_ELEMENT.equals(element)) {
+                        String location = reader.getAttributeValue(null, LibertyConstants.LOCATION_ATTRIBUTE);
+                        if (location != null) {
+                            includes.add(location);
+                        }
+                        skipElement(reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // keep what was read before the error, the file is parsed again once it changes
+            LOGGER.fine("Unable to parse " + file + ": " + e);
+        }
+        return new ConfigFile(lastModified, size, hash, features, variables, includes);
+    }
+
+    /**
+     * Skips the current element, including its children. Leaves the reader on
+     * the matching end element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // server configuration does not use DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private synchronized void updateDependencies(String documentURI, Set<Path> documentDependencies) {
+        Set<Path> previous = dependencies.put(documentURI, documentDependencies);
+        if (previous != null && previous.equals(documentDependencies)) {
+            return;
+        }
+        if (previous != null) {
+            for (Path path : previous) {
+                if (documentDependencies.contains(path)) {
+                    continue;
+                }
+                Set<String> documents = dependents.get(path);
+                if (documents != null && documents.remove(documentURI) && documents.isEmpty()) {
+                    dependents.remove(path);
+                    files.remove(path);
+                }
+            }
+        }
+        for (Path path : documentDependencies) {
+            dependents.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(documentURI);
+        }
+        updateWatches();
+    }
+
+    /**
+     * Watches the directories of the dependencies, and stops watching the
+     * directories that are no longer needed
+     */
+    private void updateWatches() {
+        if (!watching) {
+            return;
+        }
+        Set<Path> directories = new HashSet<Path>();
+        for (Path path : dependents.keySet()) {
+            // dropins directories are watched for new files
+            Path directory = Files.isDirectory(path) ? path : path.getParent();
+            if (directory != null) {
+                directories.add(directory);
+            }
+        }
+        for (Path directory : new ArrayList<Path>(watches.keySet())) {
+            if (!directories.contains(directory)) {
+                watches.remove(directory).close();
+            }
+        }
+        for (Path directory : directories) {
+            if (!watches.containsKey(directory) && Files.isDirectory(directory)) {
+                try {
+                    watches.put(directory, FileWatchService.getInstance().register(directory,
+                            (kind, path) -> fileChanged(directory, kind == StandardWatchEventKinds.OVERFLOW ? null : path)));
+                } catch (IOException e) {
+                    LOGGER.fine("Unable to watch " + directory + ": " + e);
+                }
+            }
+        }
+    }
+
+    private void fileChanged(Path directory, Path path) {
+        Set<String> documents = new HashSet<String>();
+        if (path == null) {
+            // events were lost, every file of the directory may have changed
+            for (Map.Entry<Path, Set<String>> entry : dependents.entrySet()) {
+                if (directory.equals(entry.getKey()) || directory.equals(entry.getKey().getParent())) {
+                    documents.addAll(entry.getValue());
+                }
+            }
+        } else {
+            addDependents(path, documents);
+            // a file added to or removed from a dropins directory
+            addDependents(path.getParent(), documents);
+        }
+        if (!documents.isEmpty()) {
+            // validated in the background, the file events of other listeners are
+            // dispatched on this thread
+            LOGGER.fine("Configuration changed in " + directory + ", validating " + documents);
+            RevalidationService.getInstance().revalidate(documents);
+        }
+    }
+
+    private void addDependents(Path path, Set<String> documents) {
+        Set<String> pathDependents = path == null ? null : dependents.get(path);
+        if (pathDependents != null) {
+            documents.addAll(pathDependents);
+        }
+    }
+
+    /**
+     * Returns the documents that depend on a configuration file
+     *
+     * @param file configuration file
+     * @return URIs of the server.xml documents
+     */
+    public Set<String> getDependents(Path file) {
+        Set<String> documents = dependents.get(file.normalize());
+        return documents == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(documents);
+    }
+
+    /**
+     * Forgets the dependencies of a closed document
+     *
+     * @param documentURI URI of the server.xml document
+     */
+    public synchronized void remove(String documentURI) {
+        if (dependencies.containsKey(documentURI)) {
+            updateDependencies(documentURI, Collections.<Path>emptySet());
+            dependencies.remove(documentURI);
+        }
+    }
+
+    /**
+     * Stops watching and forgets every file
+     */
+    public synchronized void dispose() {
+        for (FileWatchService.Registration watch : watches.values()) {
+            watch.close();
+        }
+        watches.clear();
+        dependencies.clear();
+        dependents.clear();
+        files.clear();
+    }
+
+    /**
+     * Enables or disables watching the configuration files for changes. Batch
+     * validation reads each file once, watching them is only overhead.
+     *
+     * @param watching true to watch the configuration files of the documents
+     */
+    public synchronized void setWatching(boolean watching) {
+        this.watching = watching;
+        if (!watching) {
+            for (FileWatchService.Registration watch : watches.values()) {
+                watch.close();
+            }
+            watches.clear();
+        } else {
+            updateWatches();
+        }
+    }
+
+    /**
+     * @return number of times a configuration file has been parsed
+     */
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    private static class ConfigFile {
+        final long lastModified;
+        final long size;
+        final long hash;
+        final List<String> features;
+        final Map<String, String> variables;
+        final List<String> includes;
+
+        ConfigFile(long lastModified, long size, long hash, List<String> features, Map<String, String> variables,
+                List<String> includes) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.features = features;
+            this.variables = variables;
+            this.includes = includes;
+        }
+    }
+
+    /**
+     * A feature enabled by a configuration file
+     */
+    public static class IncludedFeature {
+
+        private final String name;
+        private final Path file;
+
+        IncludedFeature(String name, Path file) {
+            this.name = name;
+            this.file = file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return configuration file of the featureManager element
+         */
+        public Path getFile() {
+            return file;
+        }
+    }
+
+    /**
+     * The configuration a server.xml document depends on
+     */
+    public static class Resolution {
+
+        private final List<List<IncludedFeature>> includeFeatures;
+        private final boolean[] unresolvedIncludes;
+        private final List<IncludedFeature> dropinFeatures;
+        private final Map<String, String> variables;
+
+        Resolution(List<List<IncludedFeature>> includeFeatures, boolean[] unresolvedIncludes,
+                List<IncludedFeature> dropinFeatures, Map<String, String> variables) {
+            this.includeFeatures = includeFeatures;
+            this.unresolvedIncludes = unresolvedIncludes;
+            this.dropinFeatures = dropinFeatures;
+            this.variables = variables;
+        }
+
+        /**
+         * @param includeIndex index of the include element in the document
+         * @return features of the included file and of the files it includes
+         */
+        public List<IncludedFeature> getIncludeFeatures(int includeIndex) {
+            return includeFeatures.get(includeIndex);
+        }
+
+        /**
+         * @param includeIndex index of the include element in the document
+         * @return false if the location of the include uses an undefined variable
+         *         or the included file does not exist
+         */
+        public boolean isIncludeResolved(int includeIndex) {
+            return !unresolvedIncludes[includeIndex];
+        }
+
+        /**
+         * @return features of configDropins/defaults and configDropins/overrides
+         */
+        public List<IncludedFeature> getDropinFeatures() {
+            return dropinFeatures;
+        }
+
+        /**
+         * @return variables defined by the configuration files
+         */
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+    }
+
+}
@@ -12,8 +12,12 @@
 *******************************************************************************/
 package io.openliberty.tools.langserver.lemminx.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.lemminx.utils.JSONUtility;
 import io.openliberty.tools.langserver.lemminx.models.settings.*;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
 
 public class SettingsService {
 
@@ -29,10 +33,29 @@ public class SettingsService {
   // default request delay is 120 seconds
   private static int DEFAULT_REQUEST_DELAY = 120;
 
+  // default feature list download timeouts are 10 seconds to connect and 30
+  // seconds to read
+  private static int DEFAULT_CONNECT_TIMEOUT = 10;
+  private static int DEFAULT_READ_TIMEOUT = 30;
+
+  // default time allowed to generate the installed feature list is 120 seconds
+  private static int DEFAULT_INSTALLED_FEATURES_TIMEOUT = 120;
+
+  // default feature cache budget is 10 Liberty versions and 32 megabytes
+  private static int DEFAULT_FEATURE_CACHE_ENTRIES = 10;
+  private static int DEFAULT_FEATURE_CACHE_SIZE = 32;
+
+  // default maximum directory depth scanned in workspace folders
+  private static int DEFAULT_SCAN_DEPTH = 20;
+
+  // default time a diagnostics pass waits for its results before publishing the
+  // problems found so far is 500 milliseconds
+  private static int DEFAULT_DIAGNOSTICS_TIME_BUDGET = 500;
+
   private SettingsService() {
   }
 
-  private LibertySettings settings;
+  private volatile LibertySettings settings;
 
   /**
    * Takes the xml settings object and parses out the Liberty Settings
@@ -67,4 +90,103 @@ public class SettingsService {
     return DEFAULT_REQUEST_DELAY;
   }
 
+  public String getRepositoryUrl() {
+    if (settings != null) {
+      String repositoryUrl = settings.getRepositoryUrl();
+      if (repositoryUrl != null && !repositoryUrl.trim().isEmpty()) {
+        return repositoryUrl.trim();
+      }
+    }
+
+    return LibertyConstants.DEFAULT_FEATURE_REPOSITORY_URL;
+  }
+
+  public int getConnectTimeout() {
+    if (settings != null) {
+      int connectTimeout = settings.getConnectTimeout();
+      if (connectTimeout > 0) {
+        return connectTimeout;
+      }
+    }
+
+    return DEFAULT_CONNECT_TIMEOUT;
+  }
+
+  public int getReadTimeout() {
+    if (settings != null) {
+      int readTimeout = settings.getReadTimeout();
+      if (readTimeout > 0) {
+        return readTimeout;
+      }
+    }
+
+    return DEFAULT_READ_TIMEOUT;
+  }
+
+  public int getInstalledFeaturesTimeout() {
+    if (settings != null) {
+      int installedFeaturesTimeout = settings.getInstalledFeaturesTimeout();
+      if (installedFeaturesTimeout > 0) {
+        return installedFeaturesTimeout;
+      }
+    }
+
+    return DEFAULT_INSTALLED_FEATURES_TIMEOUT;
+  }
+
+  public int getFeatureCacheEntries() {
+    if (settings != null) {
+      int featureCacheEntries = settings.getFeatureCacheEntries();
+      if (featureCacheEntries > 0) {
+        return featureCacheEntries;
+      }
+    }
+
+    return DEFAULT_FEATURE_CACHE_ENTRIES;
+  }
+
+  public int getFeatureCacheSize() {
+    if (settings != null) {
+      int featureCacheSize = settings.getFeatureCacheSize();
+      if (featureCacheSize > 0) {
+        return featureCacheSize;
+      }
+    }
+
+    return DEFAULT_FEATURE_CACHE_SIZE;
+  }
+
+  public List<String> getIgnorePatterns() {
+    if (settings != null) {
+      List<String> ignorePatterns = settings.getIgnorePatterns();
+      if (ignorePatterns != null) {
+        return ignorePatterns;
+      }
+    }
+
+    return new ArrayList<String>();
+  }
+
+  public int getScanDepth() {
+    if (settings != null) {
+      int scanDepth = settings.getScanDepth();
+      if (scanDepth > 0) {
+        return scanDepth;
+      }
+    }
+
+    return DEFAULT_SCAN_DEPTH;
+  }
+
+  public int getDiagnosticsTimeBudget() {
+    if (settings != null) {
+      int diagnosticsTimeBudget = settings.getDiagnosticsTimeBudget();
+      if (diagnosticsTimeBudget > 0) {
+        return diagnosticsTimeBudget;
+      }
+    }
+
+    return DEFAULT_DIAGNOSTICS_TIME_BUDGET;
+  }
+
 }
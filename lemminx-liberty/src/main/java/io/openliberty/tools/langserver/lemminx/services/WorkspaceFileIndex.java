@@ -0,0 +1,382 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Index of the files of a workspace folder by file name. The index is built
+ * once in the background and is then kept up to date from file system events,
+ * so that looking up a file is a hash lookup instead of a walk of the
+ * workspace.
+ *
+ * Lookups never wait for the index: until it is built they return the files
+ * indexed so far.
+ *
+ * At most {@link #MAX_WATCHED_DIRECTORIES} directories are watched. If the
+ * workspace has more directories, or cannot be watched, for example because
+ * the watch limit of the operating system is reached, the index is rebuilt in
+ * the background when a lookup finds nothing, at most once every
+ * {@link #REFRESH_INTERVAL} milliseconds.
+ */
+public class WorkspaceFileIndex implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(WorkspaceFileIndex.class.getName());
+
+    static final long REFRESH_INTERVAL = 30000;
+    // stays well below the default inotify limit, which is shared with the
+    // other processes of the user
+    static final int MAX_WATCHED_DIRECTORIES = 2048;
+
+    private final Path root;
+    private final WorkspaceScanner scanner;
+    // file name -> files with that name
+    private volatile Map<String, Set<Path>> filesByName = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    // indexes created directories and rebuilds the index, off the thread that
+    // dispatches the file events of every listener of the FileWatchService
+    private final ThreadPoolExecutor indexExecutor;
+
+    // watched directory -> registration with the file watch service
+    private final Map<Path, FileWatchService.Registration> watchedDirectories = new ConcurrentHashMap<>();
+    private volatile boolean watching;
+    private volatile boolean closed;
+    private volatile long lastRefresh;
+
+    /**
+     * @param root workspace folder to index
+     */
+    public WorkspaceFileIndex(Path root) {
+        this(root, WorkspaceScanner.fromSettings());
+    }
+
+    /**
+     * @param root    workspace folder to index
+     * @param scanner scanner that determines the indexed paths
+     */
+    public WorkspaceFileIndex(Path root, WorkspaceScanner scanner) {
+        this.root = root;
+        this.scanner = scanner;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, "liberty-file-index");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.indexExecutor = executor;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Builds the index in a background thread. The directories of the workspace
+     * are then watched with the {@link FileWatchService} until the index is
+     * closed.
+     *
+     * @param watch true to keep the index up to date from file system events
+     */
+    public void start(boolean watch) {
+        Thread thread = new Thread(() -> run(watch), "liberty-file-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(boolean watch) {
+        try {
+            watching = watch;
+            long start = System.currentTimeMillis();
+            index(root, filesByName);
+            lastRefresh = System.currentTimeMillis();
+            LOGGER.fine("Indexed " + size() + " files of " + root + " in " + (lastRefresh - start) + " ms");
+        } catch (RuntimeException e) {
+            LOGGER.warning("Unable to index workspace " + root + ": " + e);
+        } finally {
+            ready.complete(null);
+        }
+    }
+
+    /**
+     * Adds the files under a directory to the index and, if the index is
+     * watching, watches the directories
+     */
+    private void index(Path directory, Map<String, Set<Path>> index) {
+        scanner.scan(root, directory, new WorkspaceScanner.Visitor() {
+            @Override
+            public boolean visitDirectory(Path dir) {
+                if (closed) {
+                    return false;
+                }
+                watch(dir);
+                return true;
+            }
+
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attributes) {
+                add(index, file);
+            }
+        });
+    }
+
+    private void watch(Path dir) {
+        if (!watching || watchedDirectories.containsKey(dir)) {
+            return;
+        }
+        if (watchedDirectories.size() >= MAX_WATCHED_DIRECTORIES) {
+            LOGGER.warning("Workspace " + root + " has more than " + MAX_WATCHED_DIRECTORIES
+                    + " directories, changes to it are only picked up periodically");
+            watching = false;
+            unwatchAll();
+            return;
+        }
+        try {
+            watchedDirectories.put(dir, FileWatchService.getInstance().register(dir, this::onEvent));
+        } catch (IOException e) {
+            // typically the limit of watched directories, fall back to refreshing on misses
+            LOGGER.warning("Unable to watch " + dir + ", changes to workspace " + root
+                    + " are only picked up periodically: " + e);
+            watching = false;
+            unwatchAll();
+        }
+    }
+
+    private void onEvent(WatchEvent.Kind<?> kind, Path path) {
+        if (closed) {
+            return;
+        }
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            LOGGER.fine("Lost file events for " + root + ", rebuilding the index");
+            if (rebuildPending.compareAndSet(false, true)) {
+                runInBackground(() -> {
+                    rebuildPending.set(false);
+                    rebuild();
+                });
+            }
+        } else if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            fileCreated(path);
+        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            FileWatchService.Registration registration = watchedDirectories.remove(path);
+            if (registration != null) {
+                registration.close();
+            }
+            fileDeleted(path);
+        }
+    }
+
+    /**
+     * Updates the index for a file or directory that was created. Can also be
+     * called for changes reported by the client. The files of a created
+     * directory are indexed in the background.
+     *
+     * @param path created file or directory
+     */
+    public void fileCreated(Path path) {
+        if (Files.isDirectory(path)) {
+            runInBackground(() -> index(path, filesByName));
+        } else if (Files.isRegularFile(path) && !scanner.isExcluded(root, path, false)) {
+            add(filesByName, path);
+        }
+    }
+
+    /**
+     * Updates the index for a file or directory that was deleted. Can also be
+     * called for changes reported by the client.
+     *
+     * @param path deleted file or directory
+     */
+    public void fileDeleted(Path path) {
+        Set<Path> files = filesByName.get(fileName(path));
+        if (files != null && files.remove(path)) {
+            return;
+        }
+        // a directory, remove everything below it
+        for (Set<Path> paths : filesByName.values()) {
+            paths.removeIf(p -> p.startsWith(path));
+        }
+    }
+
+    private static void add(Map<String, Set<Path>> index, Path file) {
+        index.computeIfAbsent(fileName(file), name -> ConcurrentHashMap.newKeySet()).add(file);
+    }
+
+    private static String fileName(Path path) {
+        Path fileName = path.getFileName();
+        return fileName == null ? "" : fileName.toString();
+    }
+
+    /**
+     * Builds a new index and replaces the current one once it is complete, so
+     * that lookups meanwhile still find the files of the current one
+     */
+    private synchronized void rebuild() {
+        Map<String, Set<Path>> index = new ConcurrentHashMap<>();
+        index(root, index);
+        filesByName = index;
+        lastRefresh = System.currentTimeMillis();
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        runInBackground(() -> {
+            try {
+                if (System.currentTimeMillis() - lastRefresh > REFRESH_INTERVAL) {
+                    rebuild();
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Runs a scan of the workspace on the thread of the index, in the order the
+     * scans were requested
+     */
+    private void runInBackground(Runnable scan) {
+        try {
+            indexExecutor.execute(() -> {
+                if (closed) {
+                    return;
+                }
+                try {
+                    scan.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warning("Unable to index workspace " + root + ": " + e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the index has been closed
+        }
+    }
+
+    /**
+     * Waits for the index to be built the first time. Lookups do not wait, this
+     * is for background tasks that need the complete index.
+     */
+    public void awaitReady() {
+        ready.join();
+    }
+
+    /**
+     * @return true once the index has been built the first time
+     */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Returns the files of the workspace with the given name. Until the index
+     * has been built the first time, only the files indexed so far are
+     * returned.
+     *
+     * @param filename file name, for example openliberty.properties
+     * @return matching files, possibly empty
+     */
+    public List<Path> getFiles(String filename) {
+        Set<Path> files = filesByName.get(filename);
+        if ((files == null || files.isEmpty()) && ready.isDone() && !watching && !closed
+                && System.currentTimeMillis() - lastRefresh > REFRESH_INTERVAL) {
+            // found by a later lookup once the index has been rebuilt
+            refresh();
+        }
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<Path>(files);
+    }
+
+    /**
+     * Returns the most recently modified file of the workspace with the given
+     * name
+     *
+     * @param filename file name, for example openliberty.properties
+     * @return path to the file, or null if there is no such file
+     */
+    public Path findFile(String filename) {
+        Path lastModified = null;
+        long lastModifiedTime = Long.MIN_VALUE;
+        for (Path file : getFiles(filename)) {
+            long modifiedTime = file.toFile().lastModified();
+            // lastModified is 0 for files deleted since they were indexed
+            if (modifiedTime != 0 && (lastModified == null || modifiedTime > lastModifiedTime)) {
+                lastModified = file;
+                lastModifiedTime = modifiedTime;
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * @return number of indexed files
+     */
+    public int size() {
+        int size = 0;
+        for (Set<Path> files : filesByName.values()) {
+            size += files.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return true if the index is kept up to date from file system events
+     */
+    public boolean isWatching() {
+        return watching;
+    }
+
+    /**
+     * Stops watching the workspace
+     */
+    @Override
+    public void close() {
+        closed = true;
+        watching = false;
+        unwatchAll();
+        indexExecutor.shutdown();
+    }
+
+    private void unwatchAll() {
+        for (Path dir : watchedDirectories.keySet()) {
+            FileWatchService.Registration registration = watchedDirectories.remove(dir);
+            if (registration != null) {
+                registration.close();
+            }
+        }
+    }
+
+}
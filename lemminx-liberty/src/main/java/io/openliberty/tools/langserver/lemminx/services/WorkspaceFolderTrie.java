@@ -0,0 +1,141 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix tree of workspace folders by normalized path segments. A document
+ * belongs to the workspace folder with the longest path that is a prefix of
+ * the document path, so nested folders resolve to the innermost folder and
+ * folders are only matched on whole segments (/app does not contain
+ * /app2/server.xml).
+ *
+ * Not thread safe, readers must only see a trie that is no longer modified.
+ */
+public class WorkspaceFolderTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds a workspace folder, replacing a folder with the same normalized URI
+     *
+     * @param libertyWorkspace workspace folder
+     */
+    public void put(LibertyWorkspace libertyWorkspace) {
+        Node node = root;
+        for (String segment : normalize(libertyWorkspace.getURI())) {
+            node = node.children.computeIfAbsent(segment, s -> new Node());
+        }
+        if (node.workspace == null) {
+            size++;
+        }
+        node.workspace = libertyWorkspace;
+    }
+
+    /**
+     * Returns the innermost workspace folder containing a document
+     *
+     * @param documentURI URI of the document
+     * @return workspace folder, or null if the document is not in a workspace
+     *         folder
+     */
+    public LibertyWorkspace find(String documentURI) {
+        Node node = root;
+        LibertyWorkspace longestMatch = root.workspace;
+        for (String segment : normalize(documentURI)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+            if (node.workspace != null) {
+                longestMatch = node.workspace;
+            }
+        }
+        return longestMatch;
+    }
+
+    /**
+     * @return number of workspace folders
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Splits a URI into normalized path segments. The scheme and authority are
+     * the first segments, percent encoded characters are decoded, "." and ".."
+     * segments are resolved, and Windows drive letters are lower cased, so that
+     * file:///C%3A/app and file:///c:/app/ are the same folder.
+     *
+     * @param uri URI or path
+     * @return path segments
+     */
+    static List<String> normalize(String uri) {
+        String scheme = "";
+        String authority = "";
+        String path = uri.replace('\\', '/');
+        try {
+            URI parsed = new URI(uri);
+            if (parsed.getPath() != null) {
+                scheme = parsed.getScheme() == null ? "" : parsed.getScheme().toLowerCase(Locale.ROOT);
+                authority = parsed.getAuthority() == null ? "" : parsed.getAuthority();
+                path = parsed.getPath();
+            }
+        } catch (URISyntaxException e) {
+            // not an encoded URI, for example a path with spaces
+            int schemeEnd = path.indexOf("://");
+            if (schemeEnd > 0 && path.substring(0, schemeEnd).matches("[A-Za-z][A-Za-z0-9+.-]*")) {
+                scheme = path.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+                int authorityEnd = path.indexOf('/', schemeEnd + 3);
+                authority = path.substring(schemeEnd + 3, authorityEnd < 0 ? path.length() : authorityEnd);
+                path = authorityEnd < 0 ? "" : path.substring(authorityEnd);
+            }
+        }
+
+        List<String> segments = new ArrayList<String>();
+        segments.add(scheme);
+        segments.add(authority);
+        int prefix = segments.size();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                if (segments.size() > prefix) {
+                    segments.remove(segments.size() - 1);
+                }
+                continue;
+            }
+            if (segments.size() == prefix && segment.length() == 2 && segment.charAt(1) == ':') {
+                // Windows drive letter
+                segment = segment.toLowerCase(Locale.ROOT);
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static class Node {
+        final Map<String, Node> children = new HashMap<String, Node>(4);
+        LibertyWorkspace workspace;
+    }
+
+}
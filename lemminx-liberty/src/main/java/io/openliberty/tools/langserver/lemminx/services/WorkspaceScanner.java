@@ -0,0 +1,309 @@
+/*******************************************************************************
+* Copyright (c) 2022 IBM Corporation and others.
+*
+* This program and the accompanying materials are made available under the
+* terms of the Eclipse Public License v. 2.0 which is available at
+* http://www.eclipse.org/legal/epl-2.0.
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+*******************************************************************************/
+package io.openliberty.tools.langserver.lemminx.services;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.logging.Logger;
+
+/**
+ * Walks workspace folders, skipping well known directories that never contain
+ * Liberty files (version control metadata, node_modules) and the paths matching
+ * the ignore patterns in the Liberty settings. Sibling directories are walked in
+ * parallel on a shared fork-join pool, and the walk is limited in depth.
+ *
+ * Ignore patterns follow the .gitignore conventions: a pattern without a slash
+ * matches a file or directory name at any level, a pattern with a slash is
+ * relative to the workspace folder, a trailing slash only matches directories
+ * and globs such as * and ** are supported. Negated patterns are not supported.
+ */
+public class WorkspaceScanner {
+
+    private static final Logger LOGGER = Logger.getLogger(WorkspaceScanner.class.getName());
+
+    /**
+     * Directories that are never scanned
+     */
+    public static final Set<String> DEFAULT_IGNORED_DIRECTORIES = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList(".git", ".hg", ".svn", "node_modules", "bower_components", ".idea", ".gradle")));
+
+    // walking is I/O bound, a few threads are enough to hide the latency
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+
+    private final List<IgnorePattern> ignorePatterns;
+    private final int maxDepth;
+
+    /**
+     * Returns a scanner configured with the ignore patterns and depth limit of
+     * the Liberty settings
+     */
+    public static WorkspaceScanner fromSettings() {
+        SettingsService settings = SettingsService.getInstance();
+        return new WorkspaceScanner(settings.getIgnorePatterns(), settings.getScanDepth());
+    }
+
+    /**
+     * @param ignorePatterns .gitignore style patterns of the paths to skip
+     * @param maxDepth       maximum depth of the directories to scan, the root is
+     *                       at depth 0
+     */
+    public WorkspaceScanner(List<String> ignorePatterns, int maxDepth) {
+        this.ignorePatterns = new ArrayList<IgnorePattern>();
+        for (String pattern : ignorePatterns) {
+            IgnorePattern ignorePattern = IgnorePattern.parse(pattern);
+            if (ignorePattern != null) {
+                this.ignorePatterns.add(ignorePattern);
+            }
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Checks if a path below a workspace folder is skipped by the scanner
+     *
+     * @param root      workspace folder
+     * @param path      path below the workspace folder
+     * @param directory true if the path is a directory
+     * @return true if the path is not scanned
+     */
+    public boolean isIgnored(Path root, Path path, boolean directory) {
+        Path relativePath = root.relativize(path);
+        if (relativePath.getNameCount() == 0 || relativePath.toString().isEmpty()) {
+            return false;
+        }
+        if (directory && DEFAULT_IGNORED_DIRECTORIES.contains(relativePath.getFileName().toString())) {
+            return true;
+        }
+        for (IgnorePattern pattern : ignorePatterns) {
+            if (pattern.matches(relativePath, directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if a path below a workspace folder, or one of its parent
+     * directories, is skipped by the scanner
+     */
+    public boolean isExcluded(Path root, Path path, boolean directory) {
+        // files are reported one level below the deepest scanned directories
+        int depthLimit = directory ? maxDepth : maxDepth + 1;
+        if (!path.startsWith(root) || depth(root, path) > depthLimit) {
+            return true;
+        }
+        boolean isDirectory = directory;
+        for (Path current = path; current != null && !current.equals(root); current = current.getParent()) {
+            if (isIgnored(root, current, isDirectory)) {
+                return true;
+            }
+            isDirectory = true;
+        }
+        return false;
+    }
+
+    /**
+     * Walks a directory of a workspace folder and reports the directories and
+     * regular files that are not skipped. The visitor is called concurrently
+     * from several threads.
+     *
+     * @param root    workspace folder, used to evaluate ignore patterns and depth
+     * @param start   directory to walk, the workspace folder or a directory
+     *                below it
+     * @param visitor receives the directories and files
+     */
+    public void scan(Path root, Path start, Visitor visitor) {
+        if (!Files.isDirectory(start) || isExcluded(root, start, true)) {
+            return;
+        }
+        POOL.invoke(new ScanTask(root, start, depth(root, start), visitor));
+    }
+
+    private static int depth(Path root, Path path) {
+        Path relativePath = root.relativize(path);
+        // the empty path of the root itself has one empty name
+        return relativePath.toString().isEmpty() ? 0 : relativePath.getNameCount();
+    }
+
+    /**
+     * Finds the files or directories of a workspace folder that match a
+     * predicate. Matching directories are not scanned further. The scan stops as
+     * soon as the maximum number of matches has been found.
+     *
+     * @param root       workspace folder
+     * @param matcher    tests a path and whether it is a directory
+     * @param maxMatches number of matches after which to stop scanning
+     * @return matching paths, in no particular order
+     */
+    public List<Path> find(Path root, BiPredicate<Path, Boolean> matcher, int maxMatches) {
+        ConcurrentLinkedQueue<Path> matches = new ConcurrentLinkedQueue<Path>();
+        AtomicInteger remaining = new AtomicInteger(maxMatches);
+        scan(root, root, new Visitor() {
+            @Override
+            public boolean visitDirectory(Path dir) {
+                if (remaining.get() <= 0) {
+                    return false;
+                }
+                if (!dir.equals(root) && matcher.test(dir, true)) {
+                    if (remaining.getAndDecrement() > 0) {
+                        matches.add(dir);
+                    }
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void visitFile(Path file, BasicFileAttributes attributes) {
+                if (remaining.get() > 0 && matcher.test(file, false) && remaining.getAndDecrement() > 0) {
+                    matches.add(file);
+                }
+            }
+        });
+        return new ArrayList<Path>(matches);
+    }
+
+    /**
+     * Receives the paths found by a scan
+     */
+    public interface Visitor {
+
+        /**
+         * @param dir directory about to be scanned
+         * @return false to skip the directory
+         */
+        boolean visitDirectory(Path dir);
+
+        /**
+         * @param file       regular file
+         * @param attributes attributes of the file
+         */
+        void visitFile(Path file, BasicFileAttributes attributes);
+    }
+
+    private class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final Path dir;
+        private final int depth;
+        private final Visitor visitor;
+
+        ScanTask(Path root, Path dir, int depth, Visitor visitor) {
+            this.root = root;
+            this.dir = dir;
+            this.depth = depth;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected void compute() {
+            if (!visitor.visitDirectory(dir)) {
+                return;
+            }
+            List<ScanTask> subdirectories = new ArrayList<ScanTask>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes;
+                    try {
+                        // symbolic links are not followed, so the walk cannot loop
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        if (depth < maxDepth && !isIgnored(root, child, true)) {
+                            subdirectories.add(new ScanTask(root, child, depth + 1, visitor));
+                        }
+                    } else if (attributes.isRegularFile() && !isIgnored(root, child, false)) {
+                        visitor.visitFile(child, attributes);
+                    }
+                }
+            } catch (IOException e) {
+                // unreadable directories are skipped
+                LOGGER.fine("Unable to scan " + dir + ": " + e);
+            }
+            invokeAll(subdirectories);
+        }
+    }
+
+    /**
+     * A .gitignore style pattern
+     */
+    private static class IgnorePattern {
+
+        private final PathMatcher matcher;
+        // patterns without a slash match the name of the path at any level
+        private final boolean nameOnly;
+        private final boolean directoryOnly;
+
+        private IgnorePattern(PathMatcher matcher, boolean nameOnly, boolean directoryOnly) {
+            this.matcher = matcher;
+            this.nameOnly = nameOnly;
+            this.directoryOnly = directoryOnly;
+        }
+
+        static IgnorePattern parse(String pattern) {
+            String glob = pattern == null ? "" : pattern.trim();
+            if (glob.isEmpty() || glob.startsWith("#") || glob.startsWith("!")) {
+                return null;
+            }
+            boolean directoryOnly = glob.endsWith("/");
+            while (glob.endsWith("/")) {
+                glob = glob.substring(0, glob.length() - 1);
+            }
+            boolean nameOnly = glob.indexOf('/') < 0;
+            while (glob.startsWith("/")) {
+                glob = glob.substring(1);
+            }
+            if (glob.isEmpty()) {
+                return null;
+            }
+            try {
+                return new IgnorePattern(FileSystems.getDefault().getPathMatcher("glob:" + glob), nameOnly,
+                        directoryOnly);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Ignoring invalid ignore pattern " + pattern + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        boolean matches(Path relativePath, boolean directory) {
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            return matcher.matches(nameOnly ? relativePath.getFileName() : relativePath);
+        }
+    }
+
+}
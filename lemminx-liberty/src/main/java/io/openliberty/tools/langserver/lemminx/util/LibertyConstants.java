@@ -23,8 +23,18 @@ public final class LibertyConstants {
     public static final String FEATURE_MANAGER_ELEMENT = "featureManager";
     public static final String FEATURE_ELEMENT = "feature";
 
+    public static final String INCLUDE_ELEMENT = "include";
+    public static final String LOCATION_ATTRIBUTE = "location";
+    public static final String OPTIONAL_ATTRIBUTE = "optional";
+    public static final String VARIABLE_ELEMENT = "variable";
+
     public static final String PUBLIC_VISIBILITY = "PUBLIC";
 
     public static final String DEFAULT_SERVER_VERSION = "20.0.0.9";
 
+    // generated from src/main/features/features-20.0.0.9.json by the build
+    public static final String DEFAULT_FEATURE_CATALOG = "features-" + DEFAULT_SERVER_VERSION + ".bin";
+
+    public static final String DEFAULT_FEATURE_REPOSITORY_URL = "https://repo1.maven.org/maven2";
+
 }
@@ -14,35 +14,25 @@ package io.openliberty.tools.langserver.lemminx.util;
 
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import org.eclipse.lemminx.dom.DOMDocument;
 
 import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FileWatchService;
 import io.openliberty.tools.langserver.lemminx.services.LibertyProjectsManager;
 import io.openliberty.tools.langserver.lemminx.services.LibertyWorkspace;
 import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+import io.openliberty.tools.langserver.lemminx.services.WorkspaceFileIndex;
 
 public class LibertyUtils {
 
     private static final Logger LOGGER = Logger.getLogger(LibertyUtils.class.getName());
 
-    private static Thread thread;
-
     private LibertyUtils() {
     }
 
@@ -56,7 +46,9 @@ public class LibertyUtils {
 
     /**
      * Given a server.xml URI find the associated workspace folder and search that
-     * folder for the most recently edited file that matches the given name.
+     * folder for the most recently edited file that matches the given name. The
+     * search uses the file index of the workspace, which is built once and kept up
+     * to date in the background.
      * 
      * @param serverXmlURI
      * @param filename
@@ -64,32 +56,16 @@ public class LibertyUtils {
      */
     public static Path findFileInWorkspace(String serverXmlURI, String filename) {
         LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(serverXmlURI);
-        if (libertyWorkspace.getURI() == null) {
+        if (libertyWorkspace == null || libertyWorkspace.getURI() == null) {
             return null;
         }
-        try {
-            URI rootURI = new URI(libertyWorkspace.getURI());
-            Path rootPath = Paths.get(rootURI);
-            List<Path> matchingFiles = Files.walk(rootPath)
-                    .filter(p -> (Files.isRegularFile(p) && p.getFileName().endsWith(filename)))
-                    .collect(Collectors.toList());
-            if (matchingFiles.isEmpty()) {
-                return null;
-            }
-            if (matchingFiles.size() == 1) {
-                return matchingFiles.get(0);
-            }
-            Path lastModified = matchingFiles.get(0);
-            for (Path p : matchingFiles) {
-                if (lastModified.toFile().lastModified() < p.toFile().lastModified()) {
-                    lastModified = p;
-                }
-            }
-            return lastModified;
-        } catch (IOException | URISyntaxException e) {
-            LOGGER.warning("Could not find: " + filename + ": " + e.getMessage());
+        WorkspaceFileIndex fileIndex = libertyWorkspace.getFileIndex();
+        if (fileIndex == null) {
+            LOGGER.warning("Could not find: " + filename + ": workspace " + libertyWorkspace.getURI()
+                    + " cannot be indexed");
             return null;
         }
+        return fileIndex.findFile(filename);
     }
 
     /**
@@ -109,7 +85,18 @@ public class LibertyUtils {
         }
         // find workspace folder this serverXML belongs to
         LibertyWorkspace libertyWorkspace = LibertyProjectsManager.getInstance().getWorkspaceFolder(serverXML.getDocumentURI());
+        return detectVersion(libertyWorkspace);
+    }
 
+    /**
+     * Returns the version of the Liberty installation in a workspace folder. The
+     * version is cached in the workspace until the installation changes,
+     * otherwise the workspace is searched for an openliberty.properties file.
+     * 
+     * @param libertyWorkspace workspace folder
+     * @return version of Liberty or null
+     */
+    public static String detectVersion(LibertyWorkspace libertyWorkspace) {
         if (libertyWorkspace == null || libertyWorkspace.getURI() == null) {
             return null;
         }
@@ -120,7 +107,8 @@ public class LibertyUtils {
         if (version != null && libertyWorkspace.isLibertyInstalled()) {
             return version;
         }
-        Path propertiesFile = findFileInWorkspace(serverXML.getDocumentURI(), "openliberty.properties");
+        WorkspaceFileIndex fileIndex = libertyWorkspace.getFileIndex();
+        Path propertiesFile = fileIndex == null ? null : fileIndex.findFile("openliberty.properties");
 
         // detected a new Liberty properties file, re-calculate version
         if (propertiesFile != null && propertiesFile.toFile().exists()) {
@@ -128,6 +116,7 @@ public class LibertyUtils {
             // so that the installed features list will be regenerated as it may have
             // changed between Liberty installations
             libertyWorkspace.setInstalledFeatureList(new ArrayList<Feature>());
+            libertyWorkspace.setInstalledFeaturesLoaded(false);
             Properties prop = new Properties();
             try {
                 // add a file watcher on this file
@@ -183,47 +172,29 @@ public class LibertyUtils {
     // }
 
     /**
-     * Watches the parent directory of the Liberty properties file in a separate
-     * thread. If the the contents of the directory have been modified or deleted,
-     * the installation of Liberty has changed and the corresponding Liberty
-     * Workspace item is updated.
+     * Watches the parent directory of the Liberty properties file with the
+     * {@link FileWatchService}. If the contents of the directory have been
+     * modified or deleted, the installation of Liberty has changed and the
+     * corresponding Liberty Workspace item is updated.
      * 
      * @param propertiesFile   openliberty.properties file to watch
      * @param libertyWorkspace Liberty Workspace object, updated to indicate if
      *                         there is an associated installation of Liberty
      */
     public static void watchFiles(Path propertiesFile, LibertyWorkspace libertyWorkspace) {
+        Path versionsDir = propertiesFile.getParent();
         try {
-            WatchService watcher = FileSystems.getDefault().newWatchService();
-            propertiesFile.getParent().register(watcher, StandardWatchEventKinds.ENTRY_MODIFY);
-            thread = new Thread(() -> {
-                WatchKey watchKey = null;
-                try {
-                    while (true) {
-                        watchKey = watcher.poll(5, TimeUnit.SECONDS);
-                        if (watchKey != null) {
-                            watchKey.pollEvents().stream().forEach(event -> {
-                                LOGGER.fine("Liberty properties file (" + propertiesFile + ") has been modified: "
-                                        + event.context());
-                                // if modified re-calculate version
-                                libertyWorkspace.setLibertyInstalled(false);
-                            });
-
-                            // if watchkey.reset() returns false indicates that the parent folder has been
-                            // deleted
-                            boolean valid = watchKey.reset();
-                            if (!valid) {
-                                // if deleted re-calculate version
-                                LOGGER.fine("Liberty properties file (" + propertiesFile + ") has been deleted");
-                                libertyWorkspace.setLibertyInstalled(false);
-                            }
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    LOGGER.warning("Unable to watch properties file(s): " + e.toString());
+            libertyWorkspace.setPropertiesWatch(FileWatchService.getInstance().register(versionsDir, (kind, path) -> {
+                if (kind == StandardWatchEventKinds.ENTRY_MODIFY || kind == StandardWatchEventKinds.OVERFLOW) {
+                    LOGGER.fine("Liberty properties file (" + propertiesFile + ") has been modified: " + path);
+                    // if modified re-calculate version
+                    libertyWorkspace.setLibertyInstalled(false);
+                } else if (kind == StandardWatchEventKinds.ENTRY_DELETE && versionsDir.equals(path)) {
+                    // if deleted re-calculate version
+                    LOGGER.fine("Liberty properties file (" + propertiesFile + ") has been deleted");
+                    libertyWorkspace.setLibertyInstalled(false);
                 }
-            });
-            thread.start();
+            }));
         } catch (IOException e) {
             LOGGER.warning("Unable to watch properties file(s): " + e.toString());
         }
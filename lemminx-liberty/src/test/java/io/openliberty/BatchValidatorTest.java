@@ -0,0 +1,120 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonObject;
+
+import io.openliberty.tools.langserver.lemminx.BatchValidator;
+
+public class BatchValidatorTest {
+
+    static Path writeServerXML(Path dir, String... features) throws Exception {
+        StringBuilder serverXML = new StringBuilder("<server description=\"test\">\n  <featureManager>\n");
+        for (String feature : features) {
+            serverXML.append("    <feature>").append(feature).append("</feature>\n");
+        }
+        serverXML.append("  </featureManager>\n</server>\n");
+        Files.createDirectories(dir);
+        return Files.write(dir.resolve("server.xml"), serverXML.toString().getBytes("UTF-8"));
+    }
+
+    @Test
+    public void testValidateDirectory() throws Exception {
+        Path root = Files.createTempDirectory("batchValidator");
+        try {
+            writeServerXML(root.resolve("a"), "jaxrs-2.1", "unknownFeature-1.0");
+            writeServerXML(root.resolve("b/src/main/liberty/config"), "jsonp-1.1");
+            writeServerXML(root.resolve("node_modules/x"), "unknownFeature-1.0");
+            writeServerXML(root.resolve("b/target/liberty/wlp/usr/servers/defaultServer"), "unknownFeature-1.0");
+
+            List<Path> files = BatchValidator.findServerXMLFiles(root, Arrays.asList("target/"));
+            assertEquals(Arrays.asList(root.resolve("a/server.xml"), root.resolve("b/src/main/liberty/config/server.xml")),
+                    files);
+
+            BatchValidator.Report report = new BatchValidator(2).validate(files);
+            assertEquals(1, report.getProblemCount());
+            assertEquals("ERROR: The feature \"unknownFeature-1.0\" does not exist.",
+                    report.getFiles().get(0).getDiagnostics().get(0).getMessage());
+            assertTrue(report.getFiles().get(1).getDiagnostics().isEmpty());
+
+            JsonObject json = report.toJson(root);
+            assertEquals(2, json.getAsJsonObject("summary").get("files").getAsInt());
+            assertEquals("a/server.xml", json.getAsJsonArray("files").get(0).getAsJsonObject().get("path").getAsString());
+
+            JsonObject sarif = report.toSarif(root);
+            assertEquals("2.1.0", sarif.get("version").getAsString());
+            JsonObject result = sarif.getAsJsonArray("runs").get(0).getAsJsonObject().getAsJsonArray("results").get(0)
+                    .getAsJsonObject();
+            assertEquals("error", result.get("level").getAsString());
+            JsonObject location = result.getAsJsonArray("locations").get(0).getAsJsonObject()
+                    .getAsJsonObject("physicalLocation");
+            assertEquals("a/server.xml", location.getAsJsonObject("artifactLocation").get("uri").getAsString());
+            // the fourth line of the file, after the indentation and the <feature> tag
+            assertEquals(4, location.getAsJsonObject("region").get("startLine").getAsInt());
+            assertEquals(14, location.getAsJsonObject("region").get("startColumn").getAsInt());
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testUnreadableFileFailsExecution() throws Exception {
+        Path root = Files.createTempDirectory("batchValidator");
+        try {
+            Path valid = writeServerXML(root.resolve("a"), "jaxrs-2.1");
+            Path missing = root.resolve("b/server.xml");
+
+            BatchValidator.Report report = new BatchValidator(2).validate(Arrays.asList(valid, missing));
+            assertEquals(0, report.getProblemCount());
+            assertEquals(1, report.getErrorCount());
+
+            JsonObject invocation = report.toSarif(root).getAsJsonArray("runs").get(0).getAsJsonObject()
+                    .getAsJsonArray("invocations").get(0).getAsJsonObject();
+            assertFalse(invocation.get("executionSuccessful").getAsBoolean());
+            assertEquals(1, invocation.getAsJsonArray("toolExecutionNotifications").size());
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    // Benchmark: validating 500 server.xml files on one thread and on every core
+    @Test
+    @Tag("benchmark")
+    public void benchmarkValidate() throws Exception {
+        Path root = Files.createTempDirectory("batchValidator");
+        try {
+            List<Path> files = new ArrayList<Path>();
+            for (int i = 0; i < 500; i++) {
+                files.add(writeServerXML(root.resolve("server" + i), "jaxrs-2.1", "jsonp-1.1", "cdi-2.0",
+                        "mpHealth-2.2", "servlet-4.0", "unknownFeature-" + i + ".0"));
+            }
+            // warm up the feature catalog and the JIT
+            new BatchValidator(1).validate(files.subList(0, 50));
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            BatchValidator.Report sequential = new BatchValidator(1).validate(files);
+            BatchValidator.Report parallel = new BatchValidator(cores).validate(files);
+            assertEquals(500, sequential.getProblemCount());
+            assertEquals(500, parallel.getProblemCount());
+            // the files are validated independently, so more threads validate more
+            // files per second
+            assertTrue(cores == 1 || parallel.getFilesPerSecond() > sequential.getFilesPerSecond(),
+                    () -> String.format("500 files: %.0f files/s on 1 thread, %.0f files/s on %d threads",
+                            sequential.getFilesPerSecond(), parallel.getFilesPerSecond(), cores));
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.DefaultFeatureCatalogGenerator;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogStore;
+import io.openliberty.tools.langserver.lemminx.services.FeatureJsonReader;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+
+public class DefaultFeatureCatalogGeneratorTest {
+
+    @Test
+    public void testGeneratedCatalogHasAllPublicFeatures() throws IOException {
+        Path output = Files.createTempDirectory("defaultFeatureCatalog").resolve("features-20.0.0.9.bin");
+        FeatureCatalog catalog = DefaultFeatureCatalogGenerator.generate(FeatureJsonReaderTest.FEATURES_JSON, output,
+                "20.0.0.9");
+
+        List<Feature> expected = readJson();
+        assertEquals(expected.size(), catalog.size());
+        for (Feature feature : expected) {
+            Feature generated = catalog.getFeature(feature.getWlpInformation().getShortName()).get();
+            assertEquals(feature.getShortDescription(), generated.getShortDescription());
+            assertEquals(feature.getWlpInformation().getRequireFeature(),
+                    generated.getWlpInformation().getRequireFeature());
+        }
+        assertTrue(Files.size(output) < Files.size(FeatureJsonReaderTest.FEATURES_JSON) / 10);
+    }
+
+    @Test
+    public void testDefaultCatalogIsOnClasspath() {
+        // the default catalog is used when there is no Liberty version or installation
+        FeatureCatalog catalog = FeatureService.getInstance().getFeatureCatalog(null, 0, null);
+        assertEquals("20.0.0.9", catalog.getLibertyVersion());
+        assertEquals(156, catalog.size());
+    }
+
+    // Benchmark: the time to read the default features from the generated
+    // catalog compared to parsing the bundled json
+    @Test
+    @Tag("benchmark")
+    public void benchmarkLoadDefaultCatalog() throws IOException {
+        Path output = Files.createTempDirectory("defaultFeatureCatalog").resolve("features-20.0.0.9.bin");
+        DefaultFeatureCatalogGenerator.generate(FeatureJsonReaderTest.FEATURES_JSON, output, "20.0.0.9");
+        int iterations = 20;
+        for (int i = 0; i < iterations; i++) {
+            readJson();
+            readGenerated(output);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            readJson();
+        }
+        long json = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            readGenerated(output);
+        }
+        long generated = (System.nanoTime() - start) / iterations;
+
+        assertTrue(generated < json, () -> String.format("Bundled json: %.2f ms, generated catalog: %.2f ms",
+                json / 1e6, generated / 1e6));
+    }
+
+    private static List<Feature> readJson() throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(FeatureJsonReaderTest.FEATURES_JSON),
+                StandardCharsets.UTF_8)) {
+            return FeatureJsonReader.readPublicFeatures(reader);
+        }
+    }
+
+    private static FeatureCatalog readGenerated(Path output) throws IOException {
+        return new FeatureCatalogStore(output.getParent()).load("20.0.0.9");
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.DocumentContext;
+import io.openliberty.tools.langserver.lemminx.services.DocumentContextService;
+
+public class DocumentContextServiceTest {
+
+    static final String SERVER_XML = "<server><featureManager><feature>jaxrs-2.1</feature></featureManager></server>";
+
+    @Test
+    public void testContextIsResolvedOncePerDocumentVersion() {
+        DOMDocument document = DOMParser.getInstance().parse(SERVER_XML, "test/context/server.xml", null);
+        DocumentContextService service = DocumentContextService.getInstance();
+
+        DocumentContext context = service.getContext(document);
+        assertNull(context.getLibertyWorkspace());
+        assertTrue(context.getFeatureCatalog().featureExists("jaxrs-2.1"));
+        // completion, hover and diagnostics of the same version share the context
+        assertSame(context, service.getContext(document));
+
+        // an edit creates a new version of the document
+        document.getTextDocument().setVersion(document.getTextDocument().getVersion() + 1);
+        DocumentContext edited = service.getContext(document);
+        assertNotSame(context, edited);
+        assertSame(edited, service.getContext(document));
+
+        // settings and catalog changes invalidate every context
+        service.invalidate();
+        assertNotSame(edited, service.getContext(document));
+    }
+
+}
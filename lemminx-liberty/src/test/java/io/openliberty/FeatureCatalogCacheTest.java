@@ -0,0 +1,94 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogCache;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogStore;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+
+public class FeatureCatalogCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        FeatureCatalogCache cache = new FeatureCatalogCache(() -> 2, () -> Long.MAX_VALUE);
+        FeatureCatalog first = new FeatureCatalog("21.0.0.1", FeatureCatalogTest.createFeatures(10));
+        FeatureCatalog second = new FeatureCatalog("21.0.0.2", FeatureCatalogTest.createFeatures(10));
+        cache.put("21.0.0.1", first);
+        Thread.sleep(1);
+        cache.put("21.0.0.2", second);
+        Thread.sleep(1);
+        // using the first catalog makes the second one the least recently used
+        assertSame(first, cache.get("21.0.0.1"));
+        cache.put("21.0.0.3", new FeatureCatalog("21.0.0.3", FeatureCatalogTest.createFeatures(10)));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("21.0.0.1"));
+        assertNull(cache.get("21.0.0.2"));
+        assertNotNull(cache.get("21.0.0.3"));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testByteBudget() {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", FeatureCatalogTest.createFeatures(100));
+        long catalogSize = catalog.getEstimatedSize();
+        assertTrue(catalogSize > 100 * 100, "estimated size " + catalogSize);
+
+        FeatureCatalogCache cache = new FeatureCatalogCache(() -> 100, () -> catalogSize * 3);
+        for (int i = 0; i < 10; i++) {
+            cache.put("21.0.0." + i, new FeatureCatalog("21.0.0." + i, FeatureCatalogTest.createFeatures(100)));
+        }
+        assertEquals(3, cache.size());
+        assertEquals(catalogSize * 3, cache.getEstimatedSize());
+        assertEquals(7, cache.getEvictionCount());
+
+        // a catalog larger than the whole budget is still cached
+        FeatureCatalog large = new FeatureCatalog("22.0.0.1", FeatureCatalogTest.createFeatures(1000));
+        cache.put("22.0.0.1", large);
+        assertEquals(1, cache.size());
+        assertSame(large, cache.peek("22.0.0.1"));
+
+        cache.remove("22.0.0.1");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getEstimatedSize());
+    }
+
+    @Test
+    public void testEvictedCatalogIsReloadedFromStore() throws Exception {
+        String libertyVersion = "97.0.0." + System.nanoTime();
+        Path storeDirectory = Files.createTempDirectory("featureCatalogStore");
+        FeatureCatalogStore store = new FeatureCatalogStore(storeDirectory);
+        store.save(new FeatureCatalog(libertyVersion, FeatureCatalogTest.createFeatures(20)));
+        FeatureService featureService = FeatureService.getInstance();
+        FeatureCatalogStore previousStore = featureService.setFeatureCatalogStore(store);
+        try {
+            FeatureCatalogCache cache = featureService.getFeatureCatalogCache();
+            assertEquals(20, featureService.getFeatures(libertyVersion, 120, "test/server.xml").size());
+            assertNotNull(cache.peek(libertyVersion));
+
+            featureService.evictFeatureCatalog(libertyVersion);
+            assertNull(cache.peek(libertyVersion));
+            long misses = cache.getMissCount();
+            assertEquals(20, featureService.getFeatures(libertyVersion, 120, "test/server.xml").size());
+            assertEquals(misses + 1, cache.getMissCount());
+            assertNotNull(cache.peek(libertyVersion));
+        } finally {
+            featureService.setFeatureCatalogStore(previousStore);
+            featureService.evictFeatureCatalog(libertyVersion);
+            WorkspaceFileIndexTest.deleteTree(storeDirectory);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureJsonReader;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+
+public class FeatureCatalogHeapTest {
+
+    static final int CACHED_VERSIONS = 8;
+
+    @Test
+    public void testRepeatedStringsAreShared() throws IOException {
+        FeatureCatalog first = readCatalog("21.0.0.1");
+        FeatureCatalog second = readCatalog("21.0.0.2");
+
+        // names, versions and visibility are shared across cached versions
+        Feature a = first.getFeature("jaxrs-2.1").get();
+        Feature b = second.getFeature("jaxrs-2.1").get();
+        assertSame(a.getName(), b.getName());
+        assertSame(a.getVersion(), b.getVersion());
+        assertSame(a.getWlpInformation().getVisibility(), b.getWlpInformation().getVisibility());
+        assertSame(a.getWlpInformation().getRequireFeature().get(0), b.getWlpInformation().getRequireFeature().get(0));
+        // and between the features of a version
+        Feature client = first.getFeature("jaxrsClient-2.1").get();
+        // both require com.ibm.websphere.appserver.eeCompatible-8.0
+        assertSame(a.getWlpInformation().getRequireFeature().get(2),
+                client.getWlpInformation().getRequireFeature().get(1));
+        // descriptions are not pooled
+        assertEquals(a.getShortDescription(), b.getShortDescription());
+        assertNotSame(a.getShortDescription(), b.getShortDescription());
+    }
+
+    // Benchmark: the heap retained by the feature lists of several cached
+    // Liberty versions, with the previous model (every field of the JSON, one
+    // String instance per value, ArrayLists) and with the compact model
+    @Test
+    @Tag("benchmark")
+    public void benchmarkRetainedHeap() throws IOException {
+        // load the classes involved before measuring
+        readLegacyFeatures();
+        readCatalog("0");
+
+        long legacyBytes = retainedHeap(CACHED_VERSIONS, () -> {
+            List<List<LegacyFeature>> legacy = new ArrayList<>();
+            for (int i = 0; i < CACHED_VERSIONS; i++) {
+                legacy.add(readLegacyFeatures());
+            }
+            return legacy;
+        });
+        long firstBytes = retainedHeap(1, () -> Arrays.asList(readCatalog("21.0.0.0")));
+        long compactBytes = retainedHeap(CACHED_VERSIONS, () -> {
+            List<FeatureCatalog> catalogs = new ArrayList<>();
+            for (int i = 0; i < CACHED_VERSIONS; i++) {
+                catalogs.add(readCatalog("21.0.0." + i));
+            }
+            return catalogs;
+        });
+        // the versions cached after the first reuse its names and versions
+        long additionalBytes = (compactBytes - firstBytes) / (CACHED_VERSIONS - 1);
+
+        String sizes = String.format(
+                "Previous model: %d KB retained per cached version, compact model: %d KB for the first version"
+                        + " and %d KB for each additional version",
+                legacyBytes / CACHED_VERSIONS / 1024, firstBytes / 1024, additionalBytes / 1024);
+        assertTrue(compactBytes < legacyBytes, sizes);
+        assertTrue(additionalBytes < firstBytes, sizes);
+    }
+
+    private static FeatureCatalog readCatalog(String libertyVersion) throws IOException {
+        try (Reader reader = newReader()) {
+            return new FeatureCatalog(libertyVersion, FeatureJsonReader.readPublicFeatures(reader));
+        }
+    }
+
+    private static List<LegacyFeature> readLegacyFeatures() throws IOException {
+        try (Reader reader = newReader()) {
+            LegacyFeature[] features = new Gson().fromJson(reader, LegacyFeature[].class);
+            return Arrays.asList(features).stream()
+                    .filter(f -> LibertyConstants.PUBLIC_VISIBILITY.equals(f.wlpInformation.visibility))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long retainedHeap(int versions, Loader loader) throws IOException {
+        long before = usedHeap();
+        List<?> loaded = loader.load();
+        long retained = usedHeap() - before;
+        assertEquals(versions, loaded.size());
+        return retained;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // collections may not free everything at once, keep the lowest reading
+        for (int i = 0; i < 8; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static Reader newReader() throws IOException {
+        return new InputStreamReader(Files.newInputStream(FeatureJsonReaderTest.FEATURES_JSON), StandardCharsets.UTF_8);
+    }
+
+    interface Loader {
+        List<?> load() throws IOException;
+    }
+
+    // shape of the feature model before it was made compact
+    static class LegacyFeature {
+        String description;
+        String licenseId;
+        String licenseType;
+        String name;
+        String shortDescription;
+        String type;
+        String version;
+        LegacyWlpInformation wlpInformation;
+    }
+
+    static class LegacyWlpInformation {
+        String appliesTo;
+        String displayPolicy;
+        String downloadPolicy;
+        String ibmInstallTo;
+        String installPolicy;
+        LegacyJavaSEVersionRequirements javaSEVersionRequirements;
+        ArrayList<String> provideFeature;
+        ArrayList<String> requireFeature;
+        String singleton;
+        String typeLabel;
+        String visibility;
+        String webDisplayPolicy;
+        String mavenCoordinates;
+        String shortName;
+    }
+
+    static class LegacyJavaSEVersionRequirements {
+        String minVersion;
+        ArrayList<String> rawRequirements;
+        String versionDisplayString;
+    }
+
+}
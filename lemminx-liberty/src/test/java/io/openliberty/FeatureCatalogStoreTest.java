@@ -0,0 +1,139 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.JavaSEVersionRequirements;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogStore;
+
+public class FeatureCatalogStoreTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("featureCatalogStore");
+    }
+
+    @AfterEach
+    public void deleteDirectory() throws IOException {
+        WorkspaceFileIndexTest.deleteTree(directory);
+    }
+
+    static FeatureCatalog createCatalog(String libertyVersion) {
+        List<Feature> features = new ArrayList<>();
+
+        Feature jaxrs = new Feature();
+        jaxrs.setName("com.ibm.websphere.appserver.jaxrs-2.1");
+        jaxrs.setShortDescription("This feature enables support for JAX-RS 2.1 \u2013 REST services.");
+        jaxrs.setVersion("1.0.0");
+        WlpInformation wlpInformation = new WlpInformation("jaxrs-2.1");
+        wlpInformation.setVisibility("PUBLIC");
+        wlpInformation.setSingleton("true");
+        wlpInformation.setProvideFeature(new ArrayList<>(Arrays.asList("com.ibm.websphere.appserver.jaxrs-2.1")));
+        wlpInformation.setRequireFeature(new ArrayList<>(Arrays.asList("com.ibm.websphere.appserver.jaxrsClient-2.1",
+                "com.ibm.websphere.appserver.eeCompatible-8.0")));
+        JavaSEVersionRequirements javaSEVersionRequirements = new JavaSEVersionRequirements();
+        javaSEVersionRequirements.setMinVersion("1.8.0");
+        wlpInformation.setJavaSEVersionRequirements(javaSEVersionRequirements);
+        jaxrs.setWlpInformation(wlpInformation);
+        features.add(jaxrs);
+
+        // feature with only a short name, as generated from installed features
+        Feature usr = new Feature();
+        usr.setWlpInformation(new WlpInformation("jsonp-1.1"));
+        features.add(usr);
+
+        return new FeatureCatalog(libertyVersion, features);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        FeatureCatalogStore store = new FeatureCatalogStore(directory);
+        store.save(createCatalog("21.0.0.12"));
+
+        FeatureCatalog catalog = store.load("21.0.0.12");
+        assertNotNull(catalog);
+        assertEquals("21.0.0.12", catalog.getLibertyVersion());
+        assertEquals(2, catalog.size());
+
+        Feature jaxrs = catalog.getFeature("jaxrs-2.1").get();
+        assertEquals("com.ibm.websphere.appserver.jaxrs-2.1", jaxrs.getName());
+        assertEquals("This feature enables support for JAX-RS 2.1 \u2013 REST services.", jaxrs.getShortDescription());
+        assertEquals("1.0.0", jaxrs.getVersion());
+        assertEquals("PUBLIC", jaxrs.getWlpInformation().getVisibility());
+        assertEquals("true", jaxrs.getWlpInformation().getSingleton());
+        assertEquals("1.8.0", jaxrs.getWlpInformation().getJavaSEVersionRequirements().getMinVersion());
+        assertEquals(Arrays.asList("com.ibm.websphere.appserver.jaxrs-2.1"),
+                jaxrs.getWlpInformation().getProvideFeature());
+        assertEquals(2, jaxrs.getWlpInformation().getRequireFeature().size());
+
+        Feature jsonp = catalog.getFeature("jsonp-1.1").get();
+        assertNull(jsonp.getShortDescription());
+        assertNull(jsonp.getWlpInformation().getRequireFeature());
+
+        assertNull(store.load("22.0.0.1"));
+    }
+
+    @Test
+    public void testSaveAndLoadValidators() throws IOException {
+        FeatureCatalogStore store = new FeatureCatalogStore(directory);
+        store.save(new FeatureCatalogStore.Entry(createCatalog("21.0.0.12"), "\"etag\"",
+                "Tue, 07 Dec 2021 16:00:00 GMT"));
+
+        FeatureCatalogStore.Entry entry = store.loadEntry("21.0.0.12");
+        assertNotNull(entry);
+        assertEquals(2, entry.getCatalog().size());
+        assertEquals("\"etag\"", entry.getETag());
+        assertEquals("Tue, 07 Dec 2021 16:00:00 GMT", entry.getLastModified());
+    }
+
+    @Test
+    public void testSaveAndLoadInstalled() throws IOException {
+        FeatureCatalogStore store = new FeatureCatalogStore(directory);
+        store.saveInstalled("0123abcd", createCatalog("21.0.0.12"));
+
+        FeatureCatalog catalog = store.loadInstalled("0123abcd", "21.0.0.12");
+        assertNotNull(catalog);
+        assertEquals(2, catalog.size());
+        assertNull(store.loadInstalled("4567ef01", "21.0.0.12"));
+        // installed features are not mistaken for the features of the version
+        assertNull(store.load("21.0.0.12"));
+    }
+
+    @Test
+    public void testCorruptCatalogIsDiscarded() throws IOException {
+        FeatureCatalogStore store = new FeatureCatalogStore(directory);
+        store.save(createCatalog("21.0.0.12"));
+        Path file = store.getCatalogFile("21.0.0.12");
+
+        // flip a byte in the payload so that the checksum no longer matches
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+
+        assertNull(store.load("21.0.0.12"));
+        assertFalse(Files.exists(file));
+    }
+
+}
@@ -0,0 +1,169 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lemminx.dom.DOMDocument;
+import org.eclipse.lemminx.dom.DOMElement;
+import org.eclipse.lemminx.dom.DOMParser;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.LibertyCompletionParticipant;
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+
+public class FeatureCatalogTest {
+
+    static final int CATALOG_SIZE = 1000;
+
+    static List<Feature> createFeatures(int count) {
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Feature feature = new Feature();
+            feature.setShortDescription("Description of feature " + i);
+            feature.setWlpInformation(new WlpInformation("feature" + i + "-1.0"));
+            features.add(feature);
+        }
+        return features;
+    }
+
+    @Test
+    public void testCaseInsensitiveLookup() {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", createFeatures(10));
+
+        assertTrue(catalog.featureExists("feature3-1.0"));
+        assertTrue(catalog.featureExists("FEATURE3-1.0"));
+        assertEquals("Description of feature 3", catalog.getFeature("Feature3-1.0").get().getShortDescription());
+        assertFalse(catalog.featureExists("feature3"));
+        assertFalse(catalog.getFeature(null).isPresent());
+    }
+
+    // Microbenchmark: the cost of validating a featureManager should grow with
+    // the number of <feature> elements only, not with the size of the catalog
+    @Test
+    @Tag("benchmark")
+    public void benchmarkLookupCost() {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", createFeatures(CATALOG_SIZE));
+        int[] featureManagerSizes = { 10, 40, 80, 160 };
+        int iterations = 2000;
+
+        // warm up
+        validate(catalog, 160, iterations);
+
+        double firstCost = lookupCost(catalog, featureManagerSizes[0], iterations);
+        for (int i = 1; i < featureManagerSizes.length; i++) {
+            int size = featureManagerSizes[i];
+            // the cost of a lookup stays flat as the featureManager grows
+            double cost = lookupCost(catalog, size, iterations);
+            assertTrue(cost < firstCost * 3, () -> String.format(
+                    "featureManager with %d features: %.1f ns per lookup, %.1f ns with %d features", size, cost,
+                    firstCost, featureManagerSizes[0]));
+        }
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", createFeatures(200));
+
+        assertEquals(200, catalog.getFeaturesWithPrefix("").size());
+        // feature1-1.0, feature10-1.0 ... feature19-1.0, feature100-1.0 ... feature199-1.0
+        assertEquals(111, catalog.getFeaturesWithPrefix("FEATURE1").size());
+        assertEquals(1, catalog.getFeaturesWithPrefix("feature42-").size());
+        assertEquals("feature42-1.0",
+                catalog.getFeaturesWithPrefix("feature42-").get(0).getWlpInformation().getShortName());
+        assertTrue(catalog.getFeaturesWithPrefix("zzz").isEmpty());
+    }
+
+    @Test
+    public void testContainingLookup() {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", createFeatures(200));
+
+        // feature42-1.0, feature142-1.0
+        List<Feature> features = catalog.getFeaturesContaining("42-", 10);
+        assertEquals(2, features.size());
+        assertTrue(features.stream().anyMatch(f -> "feature142-1.0".equals(f.getWlpInformation().getShortName())));
+        assertEquals(200, catalog.getFeaturesContaining("ATURE", 500).size());
+        assertEquals(10, catalog.getFeaturesContaining("ature", 10).size());
+        assertTrue(catalog.getFeaturesContaining("zzz", 10).isEmpty());
+    }
+
+    // Microbenchmark: building the completion items of a typed text costs as
+    // much as the number of items returned, which is capped, regardless of the
+    // size of the catalog
+    @Test
+    @Tag("benchmark")
+    public void benchmarkCompletionCost() {
+        int[] catalogSizes = { 1000, 10000, 100000 };
+        int iterations = 200;
+        String serverXML = "<server><featureManager><feature>feature</feature></featureManager></server>";
+        DOMDocument document = DOMParser.getInstance().parse(serverXML, "test/completion/server.xml", null);
+        DOMElement featureElement = (DOMElement) document.getDocumentElement().getChildren().get(0).getChildren()
+                .get(0);
+
+        double firstCost = completionCost(catalogSizes[0], document, featureElement, iterations);
+        for (int i = 1; i < catalogSizes.length; i++) {
+            int catalogSize = catalogSizes[i];
+            // a hundred times as many features do not make a completion three
+            // times as expensive
+            double cost = completionCost(catalogSize, document, featureElement, iterations);
+            assertTrue(cost < firstCost * 3, () -> String.format(
+                    "catalog with %d features: %.1f ns per completion, %.1f ns with %d features", catalogSize, cost,
+                    firstCost, catalogSizes[0]));
+        }
+    }
+
+    private double completionCost(int catalogSize, DOMDocument document, DOMElement featureElement,
+            int iterations) {
+        FeatureCatalog catalog = new FeatureCatalog("21.0.0.1", createFeatures(catalogSize));
+        // warm up, which also builds the suffix index
+        complete(catalog, document, featureElement, iterations);
+
+        long start = System.nanoTime();
+        int items = complete(catalog, document, featureElement, iterations);
+        long elapsed = System.nanoTime() - start;
+        // 500 items for each typed text, the rest of the matches are left out
+        assertEquals(iterations * 1000, items);
+        return (double) elapsed / iterations;
+    }
+
+    private int complete(FeatureCatalog catalog, DOMDocument document, DOMElement featureElement, int iterations) {
+        int items = 0;
+        for (int i = 0; i < iterations; i++) {
+            // features starting with the text, then features containing it
+            items += LibertyCompletionParticipant.buildCompletionItems(featureElement, document, catalog,
+                    Collections.<String>emptySet(), "feature").size();
+            items += LibertyCompletionParticipant.buildCompletionItems(featureElement, document, catalog,
+                    Collections.<String>emptySet(), "ature").size();
+        }
+        return items;
+    }
+
+    private double lookupCost(FeatureCatalog catalog, int featureManagerSize, int iterations) {
+        long start = System.nanoTime();
+        int found = validate(catalog, featureManagerSize, iterations);
+        long elapsed = System.nanoTime() - start;
+        assertEquals(featureManagerSize * iterations, found);
+        return (double) elapsed / (featureManagerSize * iterations);
+    }
+
+    private int validate(FeatureCatalog catalog, int featureManagerSize, int iterations) {
+        int found = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (int f = 0; f < featureManagerSize; f++) {
+                // spread lookups across the catalog, including its tail
+                if (catalog.featureExists("Feature" + ((f * 7919) % CATALOG_SIZE) + "-1.0")) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+}
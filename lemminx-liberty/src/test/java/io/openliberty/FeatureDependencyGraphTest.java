@@ -0,0 +1,136 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDependencyGraph;
+import io.openliberty.tools.langserver.lemminx.services.FeatureJsonReader;
+
+public class FeatureDependencyGraphTest {
+
+    static Feature feature(String shortName, boolean singleton, String... requires) {
+        WlpInformation wlpInformation = new WlpInformation(shortName);
+        wlpInformation.setSingleton(Boolean.toString(singleton));
+        wlpInformation.setProvideFeature(Arrays.asList("com.example." + shortName));
+        wlpInformation.setRequireFeature(
+                Arrays.stream(requires).map(r -> "com.example." + r).collect(Collectors.toList()));
+        Feature feature = new Feature();
+        feature.setName("com.example." + shortName);
+        feature.setWlpInformation(wlpInformation);
+        return feature;
+    }
+
+    static List<String> shortNames(List<Feature> features) {
+        return features.stream().map(f -> f.getWlpInformation().getShortName()).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTransitiveSingletonConflict() throws Exception {
+        List<Feature> features;
+        try (Reader reader = Files.newBufferedReader(FeatureJsonReaderTest.FEATURES_JSON, StandardCharsets.UTF_8)) {
+            features = FeatureJsonReader.readPublicFeatures(reader);
+        }
+        FeatureCatalog catalog = new FeatureCatalog("20.0.0.9", features);
+        FeatureDependencyGraph graph = catalog.getDependencyGraph();
+
+        // mpOpenAPI-1.1 requires servlet-3.1 but tolerates servlet-4.0
+        assertFalse(graph.resolve(Arrays.asList("microProfile-3.3")).hasConflicts());
+
+        FeatureDependencyGraph.Resolution resolution = graph.resolve(Arrays.asList("servlet-3.1", "microProfile-3.3"));
+        assertTrue(resolution.isEnabled("jaxrs-2.1"));
+        assertTrue(resolution.hasConflicts());
+        List<List<Feature>> conflicts = resolution.getConflicts();
+        assertTrue(conflicts.stream().anyMatch(c -> shortNames(c).containsAll(Arrays.asList("servlet-3.1", "servlet-4.0"))));
+        assertEquals(Arrays.asList("microProfile-3.3"), shortNames(resolution.getEnabledBy("servlet-4.0")));
+        assertEquals(Arrays.asList("servlet-3.1"), shortNames(resolution.getEnabledBy("servlet-3.1")));
+
+        resolution = graph.resolve(Arrays.asList("jaxrs-2.1", "jsonp-1.1", "usr:custom-1.0", "unknown-1.0"));
+        assertFalse(resolution.hasConflicts());
+        assertTrue(resolution.isEnabled("jaxrsClient-2.1"));
+    }
+
+    @Test
+    public void testCyclesAndCase() {
+        FeatureCatalog catalog = new FeatureCatalog(null, Arrays.asList(
+                feature("a-1.0", false, "b-1.0"),
+                feature("b-1.0", false, "c-1.0", "a-1.0"),
+                feature("c-1.0", true, "a-1.0"),
+                feature("c-2.0", true),
+                feature("d-1.0", false, "c-2.0")));
+        FeatureDependencyGraph graph = catalog.getDependencyGraph();
+        assertEquals(Arrays.asList("a-1.0", "b-1.0", "c-1.0"),
+                shortNames(graph.resolve(Arrays.asList("C-1.0")).getEnabledFeatures()));
+
+        FeatureDependencyGraph.Resolution resolution = graph.resolve(Arrays.asList("a-1.0", "d-1.0"));
+        assertEquals(1, resolution.getConflicts().size());
+        List<Feature> conflict = resolution.getConflicts().get(0);
+        assertEquals(Arrays.asList("c-1.0", "c-2.0"), shortNames(conflict));
+        assertEquals(Arrays.asList("c-1.0"), shortNames(resolution.getConflictingVersions("a-1.0", conflict)));
+        assertEquals(Arrays.asList("c-2.0"), shortNames(resolution.getConflictingVersions("d-1.0", conflict)));
+    }
+
+    // Benchmark: resolving featureManager blocks of 100 features against a
+    // catalog of 2000 features with 10 requirements each
+    @Test
+    @Tag("benchmark")
+    public void benchmarkResolve() {
+        Random random = new Random(42);
+        int catalogSize = 2000;
+        List<Feature> features = new ArrayList<Feature>();
+        for (int i = 0; i < catalogSize; i++) {
+            String[] requires = new String[10];
+            for (int r = 0; r < requires.length; r++) {
+                requires[r] = "f" + random.nextInt(catalogSize) + "-1.0";
+            }
+            // every tenth feature family has a second version
+            features.add(feature("f" + i + "-1.0", i % 10 == 0, requires));
+            if (i % 10 == 0) {
+                features.add(feature("f" + i + "-2.0", true));
+            }
+        }
+        long start = System.nanoTime();
+        FeatureDependencyGraph graph = new FeatureCatalog(null, features).getDependencyGraph();
+        long buildTime = System.nanoTime() - start;
+
+        List<List<String>> configurations = new ArrayList<List<String>>();
+        for (int c = 0; c < 100; c++) {
+            List<String> configuration = new ArrayList<String>();
+            for (int f = 0; f < 100; f++) {
+                configuration.add("f" + random.nextInt(catalogSize) + (random.nextInt(20) == 0 ? "-2.0" : "-1.0"));
+            }
+            configurations.add(configuration);
+        }
+        for (List<String> configuration : configurations) {
+            graph.resolve(configuration);
+        }
+        int resolutions = 10000;
+        int conflictCount = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < resolutions; i++) {
+            conflictCount += graph.resolve(configurations.get(i % configurations.size())).getConflicts().size();
+        }
+        long resolveTime = System.nanoTime() - start;
+        double resolveMicros = resolveTime / 1e3 / resolutions;
+        double conflictsPerResolution = (double) conflictCount / resolutions;
+        assertTrue(resolveMicros < 1000, () -> String.format(
+                "%d features: graph build %.1f ms, 100 feature resolution %.1f us, %.1f conflicts", graph.size(),
+                buildTime / 1e6, resolveMicros, conflictsPerResolution));
+    }
+
+}
@@ -0,0 +1,73 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache.Block;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache.Problem;
+
+public class FeatureDiagnosticsCacheTest {
+
+    static Block block(Object... namesAndStarts) {
+        Block block = new Block();
+        for (int i = 0; i < namesAndStarts.length; i += 2) {
+            String name = (String) namesAndStarts[i];
+            int start = (Integer) namesAndStarts[i + 1];
+            block.add(name, start, start + name.length());
+        }
+        return block;
+    }
+
+    @Test
+    public void testReuseForUnchangedBlock() {
+        FeatureDiagnosticsCache cache = FeatureDiagnosticsCache.getInstance();
+        String uri = "file:///featureDiagnosticsCache/server.xml";
+        FeatureCatalog catalog = new FeatureCatalog("22.0.0.1", new ArrayList<Feature>());
+        List<Problem> problems = Arrays.asList(new Problem(40, 43, "ERROR: The feature \"jax\" does not exist."));
+        try {
+            cache.put(uri, block("jaxrs-2.1", 10, "jax", 40), catalog, problems);
+            long hits = cache.getHitCount();
+            List<Problem> cached = cache.get(uri, block("jaxrs-2.1", 10, "jax", 40), catalog);
+            assertEquals(1, cached.size());
+            assertSame(problems.get(0), cached.get(0));
+            assertEquals(hits + 1, cache.getHitCount());
+
+            // a changed feature, a moved feature inside the block or a new catalog
+            assertNull(cache.get(uri, block("jaxrs-2.1", 10, "jaxb", 40), catalog));
+            assertNull(cache.get(uri, block("jaxrs-2.1", 10, "jax", 41), catalog));
+            assertNull(cache.get(uri, block("jaxrs-2.1", 10), catalog));
+            assertNull(cache.get(uri, block("jaxrs-2.1", 10, "jax", 40),
+                    new FeatureCatalog("22.0.0.1", new ArrayList<Feature>())));
+            assertNull(cache.get("file:///other/server.xml", block("jaxrs-2.1", 10, "jax", 40), catalog));
+        } finally {
+            cache.remove(uri);
+        }
+        assertNull(cache.get(uri, block("jaxrs-2.1", 10, "jax", 40), catalog));
+    }
+
+    @Test
+    public void testLargeBlock() {
+        Block first = new Block();
+        Block second = new Block();
+        for (int i = 0; i < 100; i++) {
+            first.add("feature-" + i, i * 40, i * 40 + 10);
+            second.add("feature-" + i, i * 40, i * 40 + 10);
+        }
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(100, first.size());
+        assertEquals(3960, first.getStart(99));
+        assertEquals(3970, first.getEnd(99));
+    }
+
+}
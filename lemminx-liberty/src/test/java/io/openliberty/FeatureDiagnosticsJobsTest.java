@@ -0,0 +1,165 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache;
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsJobs;
+
+public class FeatureDiagnosticsJobsTest {
+
+    static final String DOCUMENT_URI = "file:///test/diagnosticsJobs/server.xml";
+
+    static List<String> messages(List<FeatureDiagnosticsCache.Problem> problems) {
+        return problems.stream().map(FeatureDiagnosticsCache.Problem::getMessage).collect(Collectors.toList());
+    }
+
+    static FeatureDiagnosticsCache.Problem problem(String message) {
+        return new FeatureDiagnosticsCache.Problem(0, 1, message);
+    }
+
+    @Test
+    public void testCompletedWithinBudget() {
+        List<FeatureDiagnosticsCache.Problem> problems = FeatureDiagnosticsJobs.getInstance().run(DOCUMENT_URI,
+                job -> {
+                    job.report(problem("first"));
+                    job.report(problem("second"));
+                }, () -> {}, 5000);
+        assertEquals(2, problems.size());
+        assertFalse(FeatureDiagnosticsJobs.getInstance().isRunning(DOCUMENT_URI));
+    }
+
+    @Test
+    public void testPartialResultsWhenOutOfTime() throws Exception {
+        FeatureDiagnosticsJobs jobs = FeatureDiagnosticsJobs.getInstance();
+        CountDownLatch release = new CountDownLatch(1);
+        List<FeatureDiagnosticsCache.Problem> problems = jobs.run(DOCUMENT_URI, job -> {
+            job.report(problem("found before the budget ran out"));
+            await(release);
+            job.report(problem("found after the budget ran out"));
+        }, () -> {}, 50);
+        assertEquals(1, problems.size());
+        assertEquals("found before the budget ran out", problems.get(0).getMessage());
+
+        // the job keeps running until it completes
+        assertTrue(jobs.isRunning(DOCUMENT_URI));
+        release.countDown();
+        assertTrue(WorkspaceFileIndexTest.waitFor(() -> !jobs.isRunning(DOCUMENT_URI)));
+    }
+
+    @Test
+    public void testFollowUpsUntilCompletedWithinBudget() throws Exception {
+        FeatureDiagnosticsJobs jobs = FeatureDiagnosticsJobs.getInstance();
+        String documentURI = DOCUMENT_URI + "?followUps";
+        // the validation runs out of time
+        runOverBudget(jobs, documentURI);
+        // so the document is validated again once the job completes
+        assertTrue(WorkspaceFileIndexTest.waitFor(() -> jobs.getFollowUpCount(documentURI) == 1));
+        // the follow up validation runs out of time as well
+        runOverBudget(jobs, documentURI);
+        assertTrue(WorkspaceFileIndexTest.waitFor(() -> jobs.getFollowUpCount(documentURI) == 2));
+
+        // a validation completing within the budget ends the follow ups
+        jobs.run(documentURI, job -> job.report(problem("complete")), () -> {}, 5000);
+        assertEquals(0, jobs.getFollowUpCount(documentURI));
+    }
+
+    @Test
+    public void testSupersededValidationIsCancelled() throws Exception {
+        FeatureDiagnosticsJobs jobs = FeatureDiagnosticsJobs.getInstance();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean stopped = new AtomicBoolean();
+        CompletableFuture<List<FeatureDiagnosticsCache.Problem>> first = CompletableFuture.supplyAsync(
+                () -> jobs.run(DOCUMENT_URI, job -> {
+                    started.countDown();
+                    // a task that checks for cancellation while it works
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (System.nanoTime() < deadline) {
+                        if (job.isCanceled()) {
+                            stopped.set(true);
+                        }
+                        job.checkCanceled();
+                        Thread.yield();
+                    }
+                }, () -> {}, 10000));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<FeatureDiagnosticsCache.Problem> problems = jobs.run(DOCUMENT_URI, job -> job.report(problem("latest")),
+                () -> {}, 5000);
+        assertEquals("latest", messages(problems).get(0));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof CancellationException);
+        assertTrue(WorkspaceFileIndexTest.waitFor(stopped::get));
+    }
+
+    @Test
+    public void testCancelledValidationCancelsJob() throws Exception {
+        FeatureDiagnosticsJobs jobs = FeatureDiagnosticsJobs.getInstance();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        long start = System.nanoTime();
+        assertThrows(CancellationException.class, () -> jobs.run(DOCUMENT_URI, job -> {
+            await(release);
+            cancelled.set(job.isCanceled());
+        }, () -> {
+            if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(100)) {
+                throw new CancellationException();
+            }
+        }, 10000));
+        // cancellation is noticed well before the budget runs out
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(jobs.isRunning(DOCUMENT_URI));
+        release.countDown();
+        assertTrue(WorkspaceFileIndexTest.waitFor(cancelled::get));
+    }
+
+    @Test
+    public void testValidationFromJobRunsInline() throws Exception {
+        FeatureDiagnosticsJobs jobs = FeatureDiagnosticsJobs.getInstance();
+        // every thread of the pool validates another document from its job, none
+        // of them may wait for a job that cannot start
+        List<CompletableFuture<List<FeatureDiagnosticsCache.Problem>>> validations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String outerURI = DOCUMENT_URI + "?outer" + i;
+            String innerURI = DOCUMENT_URI + "?inner" + i;
+            validations.add(CompletableFuture.supplyAsync(() -> jobs.run(outerURI,
+                    job -> jobs.run(innerURI, inner -> inner.report(problem("inner")), null, 10000)
+                            .forEach(job::report),
+                    null, 10000)));
+        }
+        for (CompletableFuture<List<FeatureDiagnosticsCache.Problem>> validation : validations) {
+            assertEquals(Arrays.asList("inner"), messages(validation.get(5, TimeUnit.SECONDS)));
+        }
+    }
+
+    // runs a validation that completes after its time budget ran out
+    static void runOverBudget(FeatureDiagnosticsJobs jobs, String documentURI) {
+        CountDownLatch release = new CountDownLatch(1);
+        jobs.run(documentURI, job -> await(release), () -> {}, 50);
+        release.countDown();
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FeatureJsonReader;
+import io.openliberty.tools.langserver.lemminx.util.LibertyConstants;
+
+public class FeatureJsonReaderTest {
+
+    static final Path FEATURES_JSON = Paths.get("src", "main", "features", "features-20.0.0.9.json");
+
+    // the previous implementation: deserialize every feature, then filter
+    static List<Feature> readWithGson(Reader reader) {
+        Feature[] featureList = new Gson().fromJson(reader, Feature[].class);
+        return Arrays.asList(featureList).stream()
+                .filter(f -> f.getWlpInformation().getVisibility().equals(LibertyConstants.PUBLIC_VISIBILITY))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSameFeaturesAsGson() throws IOException {
+        List<Feature> expected;
+        try (Reader reader = newReader()) {
+            expected = readWithGson(reader);
+        }
+        List<Feature> actual;
+        try (Reader reader = newReader()) {
+            actual = FeatureJsonReader.readPublicFeatures(reader);
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Feature e = expected.get(i);
+            Feature a = actual.get(i);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getShortDescription(), a.getShortDescription());
+            assertEquals(e.getVersion(), a.getVersion());
+            assertEquals(e.getWlpInformation().getShortName(), a.getWlpInformation().getShortName());
+            assertEquals(e.getWlpInformation().getSingleton(), a.getWlpInformation().getSingleton());
+            assertEquals(e.getWlpInformation().getProvideFeature(), a.getWlpInformation().getProvideFeature());
+            assertEquals(e.getWlpInformation().getRequireFeature(), a.getWlpInformation().getRequireFeature());
+            assertEquals(e.getWlpInformation().getJavaSEVersionRequirements().getMinVersion(),
+                    a.getWlpInformation().getJavaSEVersionRequirements().getMinVersion());
+        }
+    }
+
+    // Benchmark: the parse time and the bytes allocated by the parsing thread
+    // for the full Gson deserialization and the streaming reader
+    @Test
+    @Tag("benchmark")
+    public void benchmarkParse() throws IOException {
+        int iterations = 10;
+        // warm up both paths
+        for (int i = 0; i < iterations; i++) {
+            parseWithGson();
+            parseWithStreamingReader();
+        }
+
+        long[] gson = measure(iterations, true);
+        long[] streaming = measure(iterations, false);
+        // the streaming reader skips the fields that are not used, allocations
+        // are 0 if the JVM cannot measure them
+        assertTrue(gson[1] == 0 || streaming[1] < gson[1], () -> String.format(
+                "Gson: %.2f ms, %d KB allocated per parse, streaming: %.2f ms, %d KB allocated per parse",
+                gson[0] / 1e6, gson[1] / 1024, streaming[0] / 1e6, streaming[1] / 1024));
+    }
+
+    private long[] measure(int iterations, boolean useGson) throws IOException {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (useGson) {
+                parseWithGson();
+            } else {
+                parseWithStreamingReader();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        return new long[] { elapsed / iterations, allocated / iterations };
+    }
+
+    private void parseWithGson() throws IOException {
+        try (Reader reader = newReader()) {
+            assertEquals(156, readWithGson(reader).size());
+        }
+    }
+
+    private void parseWithStreamingReader() throws IOException {
+        try (Reader reader = newReader()) {
+            assertEquals(156, FeatureJsonReader.readPublicFeatures(reader).size());
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static Reader newReader() throws IOException {
+        return new InputStreamReader(Files.newInputStream(FEATURES_JSON), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,120 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.FeatureListReader;
+
+public class FeatureListReaderTest {
+
+    static final Path FEATURE_LIST = InstalledFeatureScannerTest.SAMPLE_LIBERTY.resolve("featurelist.xml");
+
+    @Test
+    public void testReadFeatures() throws Exception {
+        Map<String, String> expected = InstalledFeatureScannerTest.readFeatureList(FEATURE_LIST);
+        List<Feature> features = FeatureListReader.readFeatures(FEATURE_LIST);
+
+        assertEquals(expected.size(), features.size());
+        int i = 0;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            Feature feature = features.get(i++);
+            assertEquals(entry.getKey(), feature.getName());
+            assertEquals(entry.getKey(), feature.getWlpInformation().getShortName());
+            assertEquals(entry.getValue(), feature.getShortDescription());
+        }
+    }
+
+    @Test
+    public void testSameFeaturesAsJAXB() throws Exception {
+        Path featureList = generateFeatureList(50);
+        List<Feature> expected = FeatureListReader.readFeaturesWithJAXB(featureList);
+        List<Feature> features = FeatureListReader.readFeatures(featureList);
+
+        assertEquals(50, features.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), features.get(i).getName());
+            assertEquals(expected.get(i).getShortDescription(), features.get(i).getShortDescription());
+            assertEquals(expected.get(i).getWlpInformation().getShortName(),
+                    features.get(i).getWlpInformation().getShortName());
+        }
+    }
+
+    // Benchmark: the time to read a large featurelist with the StAX reader and
+    // with JAXB. The first JAXB read includes creating the context.
+    @Test
+    @Tag("benchmark")
+    public void benchmarkRead() throws Exception {
+        int featureCount = 5000;
+        Path featureList = generateFeatureList(featureCount);
+
+        long start = System.nanoTime();
+        assertEquals(featureCount, FeatureListReader.readFeaturesWithJAXB(featureList).size());
+        long firstJAXB = System.nanoTime() - start;
+
+        int iterations = 10;
+        for (int i = 0; i < iterations; i++) {
+            readWithStAX(featureList);
+            FeatureListReader.readFeaturesWithJAXB(featureList);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals(featureCount, readWithStAX(featureList).size());
+        }
+        long stax = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            assertEquals(featureCount, FeatureListReader.readFeaturesWithJAXB(featureList).size());
+        }
+        long jaxb = (System.nanoTime() - start) / iterations;
+
+        // the featurelist is read once per installation, so the first JAXB read
+        // is the one to beat
+        assertTrue(stax < firstJAXB, () -> String.format(
+                "featurelist with %d features: StAX %.1f ms, JAXB %.1f ms (first read with context creation %.1f ms)",
+                featureCount, stax / 1e6, jaxb / 1e6, firstJAXB / 1e6));
+    }
+
+    private static List<Feature> readWithStAX(Path featureList) throws Exception {
+        try (InputStream in = Files.newInputStream(featureList)) {
+            return FeatureListReader.readFeatures(in);
+        }
+    }
+
+    // featurelist in the format generated by ws-featurelist.jar
+    static Path generateFeatureList(int featureCount) throws IOException {
+        Path featureList = Files.createTempFile("featurelist", ".xml");
+        try (Writer writer = Files.newBufferedWriter(featureList, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<featureInfo name=\"Open Liberty\">\n");
+            for (int i = 0; i < featureCount; i++) {
+                writer.write("  <feature name=\"feature" + i + "-1.0\">\n");
+                writer.write("    <description>Description of feature " + i + " &amp; its API.</description>\n");
+                writer.write("    <displayName>Feature " + i + "</displayName>\n");
+                writer.write("    <symbolicName>io.openliberty.feature" + i + "-1.0</symbolicName>\n");
+                writer.write("    <singleton>true</singleton>\n");
+                for (int j = 0; j < 5; j++) {
+                    writer.write("    <apiJar>dev/api/spec/io.openliberty.feature" + i + "." + j + ".jar</apiJar>\n");
+                }
+                writer.write("    <include symbolicName=\"io.openliberty.common" + i + "-1.0\" shortName=\"common-1.0\"/>\n");
+                writer.write("    <configElement>feature" + i + "</configElement>\n");
+                writer.write("  </feature>\n");
+            }
+            writer.write("  <defaultInstance providingFeatures=\"feature1-1.0\"/>\n");
+            writer.write("</featureInfo>\n");
+        }
+        return featureList;
+    }
+
+}
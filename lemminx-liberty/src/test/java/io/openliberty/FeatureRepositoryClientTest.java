@@ -0,0 +1,78 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.FeatureRepositoryClient;
+import io.openliberty.tools.langserver.lemminx.services.FeatureRepositoryClient.FetchResult;
+
+public class FeatureRepositoryClientTest {
+
+    static final String FEATURES_JSON = "[{\"name\":\"com.ibm.websphere.appserver.jaxrs-2.1\","
+            + "\"shortDescription\":\"JAX-RS 2.1\",\"wlpInformation\":{\"shortName\":\"jaxrs-2.1\",\"visibility\":\"PUBLIC\"}},"
+            + "{\"name\":\"com.ibm.websphere.appserver.internal\",\"wlpInformation\":{\"visibility\":\"PRIVATE\"}}]";
+
+    private MavenRepositoryStandIn repository;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        repository = new MavenRepositoryStandIn(FEATURES_JSON);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        repository.stop();
+    }
+
+    @Test
+    public void testCompressedDownload() throws IOException {
+        FeatureRepositoryClient client = new FeatureRepositoryClient(repository.getURL(), 1000, 1000);
+        FetchResult result = client.fetchFeatures("21.0.0.12", null, null);
+
+        assertFalse(result.isNotModified());
+        assertEquals(1, result.getFeatures().size());
+        assertEquals("jaxrs-2.1", result.getFeatures().get(0).getWlpInformation().getShortName());
+        assertEquals(MavenRepositoryStandIn.ETAG, result.getETag());
+        assertEquals("gzip", repository.getFeatureRequests().get(0).getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    @Test
+    public void testConditionalDownload() throws IOException {
+        FeatureRepositoryClient client = new FeatureRepositoryClient(repository.getURL(), 1000, 1000);
+        FetchResult result = client.fetchFeatures("21.0.0.12", MavenRepositoryStandIn.ETAG, null);
+
+        assertTrue(result.isNotModified());
+        assertNull(result.getFeatures());
+        assertEquals(MavenRepositoryStandIn.ETAG, result.getETag());
+    }
+
+    @Test
+    public void testChecksumMismatch() {
+        repository.setSHA1(MavenRepositoryStandIn.sha1("something else"));
+        FeatureRepositoryClient client = new FeatureRepositoryClient(repository.getURL(), 1000, 1000);
+
+        IOException e = assertThrows(IOException.class, () -> client.fetchFeatures("21.0.0.12", null, null));
+        assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+    }
+
+    @Test
+    public void testReadTimeout() {
+        repository.setResponseDelay(2000);
+        FeatureRepositoryClient client = new FeatureRepositoryClient(repository.getURL(), 1000, 200);
+
+        long start = System.nanoTime();
+        assertThrows(SocketTimeoutException.class, () -> client.fetchFeatures("21.0.0.12", null, null));
+        assertTrue(System.nanoTime() - start < 1_500_000_000L);
+    }
+
+}
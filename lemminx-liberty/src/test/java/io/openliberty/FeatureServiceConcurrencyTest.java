@@ -0,0 +1,108 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.models.feature.WlpInformation;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogStore;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+
+public class FeatureServiceConcurrencyTest {
+
+    static final int READER_THREADS = 16;
+    static final long DURATION = 2000; // milliseconds
+
+    // Hammers getFeature/getFeatures from many threads while another thread keeps
+    // evicting the catalog, so that readers race with catalogs being reloaded and
+    // swapped in
+    @Test
+    public void testConcurrentReadsWhileCatalogsAreSwapped() throws Exception {
+        String libertyVersion = "98.0.0." + System.nanoTime();
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Feature feature = new Feature();
+            feature.setShortDescription("Feature " + i);
+            feature.setWlpInformation(new WlpInformation("feature" + i + "-1.0"));
+            features.add(feature);
+        }
+        Path storeDirectory = Files.createTempDirectory("featureCatalogStore");
+        FeatureCatalogStore store = new FeatureCatalogStore(storeDirectory);
+        store.save(new FeatureCatalog(libertyVersion, features));
+
+        FeatureService featureService = FeatureService.getInstance();
+        FeatureCatalogStore previousStore = featureService.setFeatureCatalogStore(store);
+        ExecutorService executor = Executors.newFixedThreadPool(READER_THREADS + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong swaps = new AtomicLong();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(READER_THREADS + 1);
+
+        try {
+            for (int t = 0; t < READER_THREADS; t++) {
+                final int offset = t;
+                executor.execute(() -> {
+                    try {
+                        int i = offset;
+                        while (running.get()) {
+                            String featureName = "Feature" + (i++ % 200) + "-1.0";
+                            if (!featureService.featureExists(featureName, libertyVersion, 120, "test/server.xml")) {
+                                throw new AssertionError(featureName + " not found");
+                            }
+                            if (featureService.getFeatures(libertyVersion, 120, "test/server.xml").size() != 200) {
+                                throw new AssertionError("incomplete feature list");
+                            }
+                            reads.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            executor.execute(() -> {
+                try {
+                    while (running.get()) {
+                        featureService.evictFeatureCatalog(libertyVersion);
+                        swaps.incrementAndGet();
+                        Thread.yield();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+
+            Thread.sleep(DURATION);
+            running.set(false);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            featureService.setFeatureCatalogStore(previousStore);
+            featureService.evictFeatureCatalog(libertyVersion);
+            WorkspaceFileIndexTest.deleteTree(storeDirectory);
+        }
+
+        assertEquals(0, failures.size(), "failures: " + failures);
+        // the reads raced with the catalog swaps
+        assertTrue(reads.get() > 0);
+        assertTrue(swaps.get() > 0);
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalog;
+import io.openliberty.tools.langserver.lemminx.services.FeatureCatalogStore;
+import io.openliberty.tools.langserver.lemminx.services.FeatureService;
+
+public class FeatureServiceFetchTest {
+
+    static final String FEATURES_JSON = "[{\"name\": \"com.example.test-1.0\", \"shortDescription\": \"Test feature\", "
+            + "\"wlpInformation\": {\"shortName\": \"test-1.0\", \"visibility\": \"PUBLIC\"}}]";
+    static final int RESPONSE_DELAY = 1000; // milliseconds
+
+    private MavenRepositoryStandIn repository;
+    private String libertyVersion;
+    private Path storeDirectory;
+    private FeatureCatalogStore previousStore;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        // unique version so that catalogs cached by other tests are not used
+        libertyVersion = "99.0.0." + System.nanoTime();
+        // downloaded catalogs are persisted to a temporary store, not the LemMinX cache
+        storeDirectory = Files.createTempDirectory("featureCatalogStore");
+        previousStore = FeatureService.getInstance().setFeatureCatalogStore(new FeatureCatalogStore(storeDirectory));
+
+        // local stand-in for Maven Central that responds slowly
+        repository = new MavenRepositoryStandIn(FEATURES_JSON);
+        repository.setResponseDelay(RESPONSE_DELAY);
+        repository.useInSettings(30);
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        repository.stop();
+        MavenRepositoryStandIn.resetSettings();
+        FeatureService.getInstance().setFeatureCatalogStore(previousStore);
+        FeatureService.getInstance().evictFeatureCatalog(libertyVersion);
+        WorkspaceFileIndexTest.deleteTree(storeDirectory);
+    }
+
+    @Test
+    public void testConcurrentFetchesShareDownload() throws Exception {
+        CompletableFuture<FeatureCatalog> first = FeatureService.getInstance().fetchFeatureCatalog(libertyVersion);
+        CompletableFuture<FeatureCatalog> second = FeatureService.getInstance().fetchFeatureCatalog(libertyVersion);
+        assertSame(first, second);
+
+        FeatureCatalog catalog = first.get(10, TimeUnit.SECONDS);
+        assertTrue(catalog.featureExists("test-1.0"));
+        assertEquals(1, repository.getFeatureRequests().size());
+
+        // once downloaded the catalog is served from the cache
+        assertSame(catalog, FeatureService.getInstance().fetchFeatureCatalog(libertyVersion).get());
+        assertEquals(1, repository.getFeatureRequests().size());
+    }
+
+    @Test
+    public void testGetFeaturesDoesNotWaitForDownload() throws Exception {
+        long start = System.currentTimeMillis();
+        FeatureCatalog catalog = FeatureService.getInstance().getFeatureCatalog(libertyVersion, 0, "test/server.xml");
+        long elapsed = System.currentTimeMillis() - start;
+
+        // the default catalog is returned while the download is in progress
+        assertTrue(elapsed < RESPONSE_DELAY, "getFeatureCatalog waited " + elapsed + "ms for the download");
+        assertTrue(catalog.featureExists("jaxrs-2.1"));
+
+        FeatureService.getInstance().fetchFeatureCatalog(libertyVersion).get(10, TimeUnit.SECONDS);
+        catalog = FeatureService.getInstance().getFeatureCatalog(libertyVersion, 0, "test/server.xml");
+        assertTrue(catalog.featureExists("test-1.0"));
+        assertEquals(1, repository.getFeatureRequests().size());
+    }
+
+}
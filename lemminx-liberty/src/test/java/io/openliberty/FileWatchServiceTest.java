@@ -0,0 +1,82 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.FileWatchService;
+
+public class FileWatchServiceTest {
+
+    static long countThreads(String name) {
+        return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals(name)).count();
+    }
+
+    @Test
+    public void testRegistrationsShareOneThread() throws Exception {
+        Path first = Files.createTempDirectory("fileWatchService");
+        Path second = Files.createTempDirectory("fileWatchService");
+        FileWatchService service = FileWatchService.getInstance();
+        try {
+            Set<Path> firstEvents = ConcurrentHashMap.newKeySet();
+            Set<Path> secondEvents = ConcurrentHashMap.newKeySet();
+            Set<Path> otherEvents = ConcurrentHashMap.newKeySet();
+            FileWatchService.Registration firstRegistration = service.register(first, (kind, path) -> {
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                    firstEvents.add(path);
+                }
+            });
+            service.register(second, (kind, path) -> secondEvents.add(path));
+            // a second listener on the same directory
+            service.register(first, (kind, path) -> otherEvents.add(path));
+            assertEquals(1, countThreads("liberty-file-watch"));
+            assertEquals(2, service.getWatchedDirectoryCount());
+
+            Path a = Files.createFile(first.resolve("a.txt"));
+            Path b = Files.createFile(second.resolve("b.txt"));
+            assertTrue(WorkspaceFileIndexTest.waitFor(() -> firstEvents.contains(a) && otherEvents.contains(a)
+                    && secondEvents.contains(b)));
+
+            // the directory is still watched for the other listener
+            firstRegistration.close();
+            Path c = Files.createFile(first.resolve("c.txt"));
+            assertTrue(WorkspaceFileIndexTest.waitFor(() -> otherEvents.contains(c)));
+            assertTrue(!firstEvents.contains(c));
+        } finally {
+            service.shutdown();
+            WorkspaceFileIndexTest.deleteTree(first);
+            WorkspaceFileIndexTest.deleteTree(second);
+        }
+        assertEquals(0, service.getWatchedDirectoryCount());
+        assertTrue(WorkspaceFileIndexTest.waitFor(() -> countThreads("liberty-file-watch") == 0));
+    }
+
+    @Test
+    public void testDeletedDirectoryIsReported() throws Exception {
+        Path parent = Files.createTempDirectory("fileWatchService");
+        Path dir = Files.createDirectory(parent.resolve("versions"));
+        FileWatchService service = FileWatchService.getInstance();
+        try {
+            Set<Path> deleted = ConcurrentHashMap.newKeySet();
+            service.register(dir, (kind, path) -> {
+                if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                    deleted.add(path);
+                }
+            });
+            Files.delete(dir);
+            assertTrue(WorkspaceFileIndexTest.waitFor(() -> deleted.contains(dir)));
+            assertEquals(0, service.getWatchedDirectoryCount());
+        } finally {
+            service.shutdown();
+            WorkspaceFileIndexTest.deleteTree(parent);
+        }
+    }
+
+}
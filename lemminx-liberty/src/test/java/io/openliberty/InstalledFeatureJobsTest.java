@@ -0,0 +1,58 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.InstalledFeatureJobs;
+
+public class InstalledFeatureJobsTest {
+
+    @Test
+    public void testProcessTimeout() {
+        long start = System.currentTimeMillis();
+        IOException e = assertThrows(IOException.class,
+                () -> InstalledFeatureJobs.runProcess(new ProcessBuilder("sleep", "30"), 1));
+        assertTrue(e.getMessage().contains("did not complete within 1 seconds"), e.getMessage());
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    public void testProcessFailureIncludesErrorOutput() {
+        IOException e = assertThrows(IOException.class, () -> InstalledFeatureJobs
+                .runProcess(new ProcessBuilder("sh", "-c", "echo oops >&2; exit 3"), 10));
+        assertTrue(e.getMessage().contains("exit code 3"), e.getMessage());
+        assertTrue(e.getMessage().contains("oops"), e.getMessage());
+    }
+
+    @Test
+    public void testSubmit() throws Exception {
+        InstalledFeatureJobs jobs = new InstalledFeatureJobs();
+        CompletableFuture<List<Feature>> result = jobs.submit("file:///workspace", "file:///workspace/server.xml",
+                InstalledFeatureScannerTest.INSTALL_ROOT);
+        List<Feature> features = result.get(30, TimeUnit.SECONDS);
+        assertEquals(3, features.size());
+        assertFalse(jobs.isRunning("file:///workspace"));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        InstalledFeatureJobs jobs = new InstalledFeatureJobs();
+        CompletableFuture<List<Feature>> result = jobs.submit("file:///workspace", "file:///workspace/server.xml",
+                InstalledFeatureScannerTest.INSTALL_ROOT);
+        jobs.cancel("file:///workspace");
+        assertFalse(jobs.isRunning("file:///workspace"));
+        // the job either completed before it was cancelled or never completes
+        assertTrue(result.isDone());
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import io.openliberty.tools.langserver.lemminx.models.feature.Feature;
+import io.openliberty.tools.langserver.lemminx.services.InstalledFeatureScanner;
+
+public class InstalledFeatureScannerTest {
+
+    static final Path SAMPLE_LIBERTY = Paths.get("src", "test", "resources", "sample-liberty");
+    static final Path INSTALL_ROOT = SAMPLE_LIBERTY.resolve("wlp");
+
+    // name and description of the features in a featurelist generated by ws-featurelist.jar
+    static Map<String, String> readFeatureList(Path featureList) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(featureList.toFile());
+        NodeList features = document.getDocumentElement().getElementsByTagName("feature");
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (int i = 0; i < features.getLength(); i++) {
+            Element feature = (Element) features.item(i);
+            expected.put(feature.getAttribute("name"),
+                    feature.getElementsByTagName("description").item(0).getTextContent());
+        }
+        return expected;
+    }
+
+    @Test
+    public void testSameFeaturesAsFeatureList() throws Exception {
+        Map<String, String> expected = readFeatureList(SAMPLE_LIBERTY.resolve("featurelist.xml"));
+        List<Feature> features = new InstalledFeatureScanner(INSTALL_ROOT, Locale.ENGLISH).scan();
+
+        assertEquals(expected.size(), features.size());
+        int i = 0;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            Feature feature = features.get(i++);
+            assertEquals(entry.getKey(), feature.getName());
+            assertEquals(entry.getKey(), feature.getWlpInformation().getShortName());
+            assertEquals(entry.getValue(), feature.getDescription());
+            assertEquals(entry.getValue(), feature.getShortDescription());
+        }
+    }
+
+    @Test
+    public void testLocalizedDescription() throws IOException {
+        List<Feature> features = new InstalledFeatureScanner(INSTALL_ROOT, Locale.FRANCE).scan();
+        Feature servlet = features.stream().filter(f -> f.getName().equals("servlet-4.0")).findFirst().get();
+        assertTrue(servlet.getDescription().startsWith("Cette fonction"));
+        // no French localization, falls back to the default one
+        Feature jaxrs = features.stream().filter(f -> f.getName().equals("jaxrs-2.1")).findFirst().get();
+        assertTrue(jaxrs.getDescription().startsWith("This feature"));
+    }
+
+    @Test
+    public void testInstallRoot() {
+        Path propertiesFile = INSTALL_ROOT.resolve("lib").resolve("versions").resolve("openliberty.properties");
+        assertEquals(INSTALL_ROOT.toAbsolutePath(), InstalledFeatureScanner.getInstallRoot(propertiesFile));
+        assertNull(InstalledFeatureScanner.getInstallRoot(SAMPLE_LIBERTY.resolve("featurelist.xml")));
+    }
+
+    @Test
+    public void testVisibility() {
+        assertTrue(InstalledFeatureScanner.isPublic("com.ibm.websphere.appserver.jaxrs-2.1; visibility:=public"));
+        assertTrue(InstalledFeatureScanner.isPublic("io.openliberty.a-1.0;singleton:=true;visibility:=\"public\""));
+        assertFalse(InstalledFeatureScanner.isPublic("io.openliberty.a-1.0; visibility:=private"));
+        assertFalse(InstalledFeatureScanner.isPublic("io.openliberty.a-1.0"));
+    }
+
+    @Test
+    public void testFingerprint() throws IOException {
+        Path installRoot = Files.createTempDirectory("wlp");
+        Path featuresDir = Files.createDirectories(installRoot.resolve("lib").resolve("features"));
+        Path manifest = featuresDir.resolve("io.openliberty.a-1.0.mf");
+        Files.write(manifest, "IBM-ShortName: a-1.0\n".getBytes(StandardCharsets.UTF_8));
+
+        String fingerprint = InstalledFeatureScanner.getFingerprint(installRoot, "21.0.0.12");
+        assertEquals(fingerprint, InstalledFeatureScanner.getFingerprint(installRoot, "21.0.0.12"));
+        assertNotEquals(fingerprint, InstalledFeatureScanner.getFingerprint(installRoot, "22.0.0.1"));
+
+        // a feature is added
+        Files.write(featuresDir.resolve("io.openliberty.b-1.0.mf"), "IBM-ShortName: b-1.0\n".getBytes(StandardCharsets.UTF_8));
+        String added = InstalledFeatureScanner.getFingerprint(installRoot, "21.0.0.12");
+        assertNotEquals(fingerprint, added);
+
+        // a feature is updated
+        Files.setLastModifiedTime(manifest, FileTime.fromMillis(Files.getLastModifiedTime(manifest).toMillis() + 1000));
+        assertNotEquals(added, InstalledFeatureScanner.getFingerprint(installRoot, "21.0.0.12"));
+    }
+
+    // Benchmark: the wall-clock time to read the installed features of an
+    // installation with as many feature manifests as a full Open Liberty
+    // installation. The ws-featurelist.jar subprocess takes several seconds.
+    @Test
+    @Tag("benchmark")
+    public void benchmarkScan() throws IOException {
+        int featureCount = 1500;
+        Path installRoot = Files.createTempDirectory("wlp");
+        Path featuresDir = Files.createDirectories(installRoot.resolve("lib").resolve("features").resolve("l10n"))
+                .getParent();
+        for (int i = 0; i < featureCount; i++) {
+            String symbolicName = "io.openliberty.feature" + i + "-1.0";
+            // a third of the features are public, as in a real installation
+            String visibility = i % 3 == 0 ? "public" : "private";
+            String manifest = "Manifest-Version: 1.0\n"
+                    + "IBM-ShortName: feature" + i + "-1.0\n"
+                    + "Subsystem-Description: %description\n"
+                    + "Subsystem-Localization: OSGI-INF/l10n/" + symbolicName + "\n"
+                    + "Subsystem-SymbolicName: " + symbolicName + "; visibility:=" + visibility + "\n";
+            Files.write(featuresDir.resolve(symbolicName + ".mf"), manifest.getBytes(StandardCharsets.UTF_8));
+            Files.write(featuresDir.resolve("l10n").resolve(symbolicName + ".properties"),
+                    ("description=Description of feature " + i + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        InstalledFeatureScanner scanner = new InstalledFeatureScanner(installRoot, Locale.ENGLISH);
+        // warm up
+        scanner.scan();
+
+        long start = System.nanoTime();
+        List<Feature> features = new InstalledFeatureScanner(installRoot, Locale.ENGLISH).scan();
+        long elapsed = System.nanoTime() - start;
+        assertEquals(featureCount / 3, features.size());
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1),
+                () -> String.format("Scanned %d feature manifests in %.1f ms", featureCount, elapsed / 1e6));
+    }
+
+}
@@ -3,9 +3,11 @@ package io.openliberty;
 import org.eclipse.lemminx.XMLAssert;
 import org.eclipse.lemminx.commons.BadLocationException;
 import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
 import org.junit.jupiter.api.Test;
 
 import static org.eclipse.lemminx.XMLAssert.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LibertyCompletionTest {
 
@@ -82,4 +84,64 @@ public class LibertyCompletionTest {
                                 microProfileCompletion);
         }
 
+        // Tests that feature completion only returns the features matching the
+        // text already typed inside the <feature> element
+        @Test
+        public void testFeatureCompletionItemWithPrefix() throws BadLocationException {
+                String serverXML = String.join(newLine, //
+                                "<server description=\"Sample Liberty server\">", //
+                                "       <featureManager>", //
+                                "               <feature>jax|</feature>", //
+                                "               <feature>jaxrs-2.0</feature>", //
+                                "       </featureManager>", //
+                                "</server>" //
+                );
+
+                CompletionItem jaxrsCompletion = c("jaxrs-2.1", "jaxrs-2.1");
+                CompletionItem jaxbCompletion = c("jaxb-2.2", "jaxb-2.2");
+                CompletionItem jaxwsCompletion = c("jaxws-2.2", "jaxws-2.2");
+
+                // jaxb-2.2, jaxrs-2.1, jaxrsClient-2.0, jaxrsClient-2.1 and jaxws-2.2
+                // plus the 2 non-feature items, jaxrs-2.0 is already specified
+                final int TOTAL_ITEMS = 7; // total number of available completion items
+
+                CompletionList list = XMLAssert.testCompletionFor(serverXML, null, serverXMLURI, TOTAL_ITEMS,
+                                jaxrsCompletion, jaxbCompletion, jaxwsCompletion);
+                // clients ask again as more text is typed
+                assertTrue(list.isIncomplete());
+        }
+
+        // Tests that feature completion also returns the features containing the
+        // typed text, after the features starting with it
+        @Test
+        public void testFeatureCompletionItemContainingText() throws BadLocationException {
+                String serverXML = String.join(newLine, //
+                                "<server description=\"Sample Liberty server\">", //
+                                "       <featureManager>", //
+                                "               <feature>rs|</feature>", //
+                                "       </featureManager>", //
+                                "</server>" //
+                );
+
+                CompletionItem jaxrsCompletion = c("jaxrs-2.1", "jaxrs-2.1");
+                CompletionItem timerCompletion = c("ejbPersistentTimer-3.2", "ejbPersistentTimer-3.2");
+
+                // ejbPersistentTimer-3.2, jaxrs-2.0, jaxrs-2.1, jaxrsClient-2.0 and
+                // jaxrsClient-2.1 plus the 2 non-feature items
+                final int TOTAL_ITEMS = 7; // total number of available completion items
+
+                CompletionList list = XMLAssert.testCompletionFor(serverXML, null, serverXMLURI, TOTAL_ITEMS,
+                                jaxrsCompletion, timerCompletion);
+                assertTrue(sortText(list, "jaxrs-2.1").startsWith("1"));
+        }
+
+        private static String sortText(CompletionList list, String label) {
+                for (CompletionItem item : list.getItems()) {
+                        if (label.equals(item.getLabel())) {
+                                return item.getSortText();
+                        }
+                }
+                throw new AssertionError(label + " not found");
+        }
+
 }
@@ -2,15 +2,39 @@ package io.openliberty;
 
 import org.eclipse.lemminx.XMLAssert;
 import org.eclipse.lsp4j.Diagnostic;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import com.google.gson.JsonObject;
+
+import io.openliberty.tools.langserver.lemminx.services.FeatureDiagnosticsCache;
+import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+
 import static org.eclipse.lemminx.XMLAssert.r;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LibertyDiagnosticTest {
 
     static String newLine = System.lineSeparator();
     static String serverXMLURI = "test/server.xml";
 
+    // the first validation loads the feature catalog, it must not publish
+    // partial results because it ran out of time
+    @BeforeAll
+    public static void setDiagnosticsTimeBudget() {
+        JsonObject liberty = new JsonObject();
+        liberty.addProperty("diagnosticsTimeBudget", 60000);
+        JsonObject settings = new JsonObject();
+        settings.add("liberty", liberty);
+        SettingsService.getInstance().updateLibertySettings(settings);
+    }
+
+    @AfterAll
+    public static void resetSettings() {
+        MavenRepositoryStandIn.resetSettings();
+    }
+
     @Test
     public void testFeatureDuplicateDiagnostic() {
         String serverXML = String.join(newLine, //
@@ -60,4 +84,78 @@ public class LibertyDiagnosticTest {
         XMLAssert.testDiagnosticsFor(serverXML, null, null, serverXMLURI, invalid1, invalid2);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testUnresolvedIncludeDiagnostic() {
+        String serverXML = String.join(newLine, //
+                "<server description=\"Sample Liberty server\">", //
+                "       <featureManager>", //
+                "               <feature>jaxrs-2.1</feature>", //
+                "       </featureManager>", //
+                "       <include location=\"${undefined.dir}/missing.xml\"/>", //
+                "       <include optional=\"true\" location=\"${undefined.dir}/optional.xml\"/>", //
+                "</server>" //
+        );
+        Diagnostic unresolved = new Diagnostic();
+        unresolved.setRange(r(4, 7, 4, 57));
+        unresolved.setMessage("ERROR: The include location \"${undefined.dir}/missing.xml\" could not be resolved.");
+
+        XMLAssert.testDiagnosticsFor(serverXML, null, null, serverXMLURI, unresolved);
+    }
+
+    @Test
+    public void testDiagnosticsAfterEditOutsideFeatureManager() {
+        String serverXML = String.join(newLine, //
+                "<server description=\"Sample Liberty server\">", //
+                "       <featureManager>", //
+                "               <feature>jax</feature>", //
+                "       </featureManager>", //
+                "</server>" //
+        );
+        Diagnostic invalid = new Diagnostic();
+        invalid.setRange(r(2, 24, 2, 27));
+        invalid.setMessage("ERROR: The feature \"jax\" does not exist.");
+        XMLAssert.testDiagnosticsFor(serverXML, null, null, serverXMLURI, invalid);
+
+        // the problems of the unchanged <featureManager> are reused at the new position
+        String editedServerXML = String.join(newLine, //
+                "<server description=\"Sample Liberty server\">", //
+                "       <httpEndpoint id=\"defaultHttpEndpoint\"", //
+                "               httpPort=\"9080\" />", //
+                "       <featureManager>", //
+                "               <feature>jax</feature>", //
+                "       </featureManager>", //
+                "</server>" //
+        );
+        Diagnostic shifted = new Diagnostic();
+        shifted.setRange(r(4, 24, 4, 27));
+        shifted.setMessage("ERROR: The feature \"jax\" does not exist.");
+        long hits = FeatureDiagnosticsCache.getInstance().getHitCount();
+        XMLAssert.testDiagnosticsFor(editedServerXML, null, null, serverXMLURI, shifted);
+        assertTrue(FeatureDiagnosticsCache.getInstance().getHitCount() > hits);
+    }
+
+    @Test
+    public void testSingletonConflictDiagnostic() {
+        // microProfile-3.3 requires servlet-4.0
+        String serverXML = String.join(newLine, //
+                "<server description=\"Sample Liberty server\">", //
+                "       <featureManager>", //
+                "               <feature>servlet-3.1</feature>", //
+                "               <feature>microProfile-3.3</feature>", //
+                "       </featureManager>", //
+                "</server>" //
+        );
+        Diagnostic servlet = new Diagnostic();
+        servlet.setRange(r(2, 24, 2, 35));
+        servlet.setMessage("ERROR: The feature \"servlet-3.1\" conflicts with \"microProfile-3.3\": "
+                + "only one of servlet-3.1, servlet-4.0 can be enabled.");
+
+        Diagnostic microProfile = new Diagnostic();
+        microProfile.setRange(r(3, 24, 3, 40));
+        microProfile.setMessage("ERROR: The feature \"microProfile-3.3\" conflicts with \"servlet-3.1\": "
+                + "only one of servlet-3.1, servlet-4.0 can be enabled.");
+
+        XMLAssert.testDiagnosticsFor(serverXML, null, null, serverXMLURI, servlet, microProfile);
+    }
+
+}
@@ -0,0 +1,147 @@
+package io.openliberty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.openliberty.tools.langserver.lemminx.services.SettingsService;
+
+/**
+ * Local stand-in for a Maven repository serving features-<version>.json files
+ * and their .sha1 checksums, used to test feature list downloads without
+ * network access.
+ */
+public class MavenRepositoryStandIn {
+
+    static final String ETAG = "\"features-etag\"";
+
+    private final HttpServer server;
+    private final String featuresJson;
+    private final List<HttpExchange> featureRequests = new CopyOnWriteArrayList<>();
+    private volatile int responseDelay;
+    private volatile String sha1;
+
+    public MavenRepositoryStandIn(String featuresJson) throws IOException {
+        this.featuresJson = featuresJson;
+        this.sha1 = sha1(featuresJson);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Delays every features-<version>.json response
+     */
+    public void setResponseDelay(int milliseconds) {
+        this.responseDelay = milliseconds;
+    }
+
+    /**
+     * Overrides the published checksum
+     */
+    public void setSHA1(String sha1) {
+        this.sha1 = sha1;
+    }
+
+    public String getURL() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public List<HttpExchange> getFeatureRequests() {
+        return featureRequests;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Points the Liberty settings at this repository
+     */
+    public void useInSettings(int readTimeout) {
+        JsonObject liberty = new JsonObject();
+        liberty.addProperty("repositoryUrl", getURL());
+        liberty.addProperty("readTimeout", readTimeout);
+        updateSettings(liberty);
+    }
+
+    public static void resetSettings() {
+        updateSettings(new JsonObject());
+    }
+
+    private static void updateSettings(JsonObject liberty) {
+        JsonObject settings = new JsonObject();
+        settings.add("liberty", liberty);
+        SettingsService.getInstance().updateLibertySettings(settings);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith(".json.sha1")) {
+            respond(exchange, 200, sha1.getBytes(StandardCharsets.US_ASCII), false);
+            return;
+        }
+        if (!path.endsWith(".json")) {
+            respond(exchange, 404, new byte[0], false);
+            return;
+        }
+
+        featureRequests.add(exchange);
+        if (responseDelay > 0) {
+            try {
+                Thread.sleep(responseDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        respond(exchange, 200, featuresJson.getBytes(StandardCharsets.UTF_8),
+                acceptEncoding != null && acceptEncoding.contains("gzip"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body, boolean gzip) throws IOException {
+        if (gzip) {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(body);
+            }
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String sha1(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.ServerConfigGraph;
+
+public class ServerConfigGraphTest {
+
+    static Path write(Path file, String... lines) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, Arrays.asList(lines));
+    }
+
+    static String config(String... elements) {
+        return "<server>" + String.join("", elements) + "</server>";
+    }
+
+    static List<String> names(List<ServerConfigGraph.IncludedFeature> features) {
+        return features.stream().map(ServerConfigGraph.IncludedFeature::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testIncludesAndDropins() throws Exception {
+        Path configDir = Files.createTempDirectory("serverConfigGraph");
+        String serverXML = configDir.resolve("server.xml").toUri().toString();
+        ServerConfigGraph graph = ServerConfigGraph.getInstance();
+        try {
+            write(configDir.resolve("configDropins/defaults/defaults.xml"),
+                    config("<variable name=\"shared\" value=\"common\"/>",
+                            "<featureManager><feature>jsonp-1.1</feature></featureManager>"));
+            Path included = write(configDir.resolve("app.xml"),
+                    config("<featureManager><feature>jaxrs-2.1</feature></featureManager>",
+                            "<include location=\"${shared}/nested.xml\"/>"));
+            Path nested = write(configDir.resolve("common/nested.xml"),
+                    config("<featureManager><feature>cdi-2.0</feature><!-- c --></featureManager>",
+                            "<include location=\"../app.xml\"/>"));
+            write(configDir.resolve("configDropins/overrides/overrides.xml"),
+                    config("<featureManager><feature>mpHealth-2.2</feature></featureManager>"));
+
+            ServerConfigGraph.Resolution resolution = graph.resolve(serverXML,
+                    Arrays.asList("app.xml", "missing.xml", "${undefined}/other.xml", "https://example.com/a.xml"));
+            assertEquals(Arrays.asList("jaxrs-2.1", "cdi-2.0"), names(resolution.getIncludeFeatures(0)));
+            assertEquals(nested, resolution.getIncludeFeatures(0).get(1).getFile());
+            assertTrue(resolution.getIncludeFeatures(1).isEmpty());
+            assertTrue(resolution.getIncludeFeatures(2).isEmpty());
+            assertTrue(resolution.isIncludeResolved(0));
+            assertFalse(resolution.isIncludeResolved(1));
+            assertFalse(resolution.isIncludeResolved(2));
+            // remote includes are not read
+            assertTrue(resolution.isIncludeResolved(3));
+            assertEquals(Arrays.asList("jsonp-1.1", "mpHealth-2.2"), names(resolution.getDropinFeatures()));
+            assertTrue(graph.getDependents(nested).contains(serverXML));
+            assertTrue(graph.getDependents(configDir.resolve("missing.xml")).contains(serverXML));
+
+            // unchanged and touched files are not parsed again
+            long parsed = graph.getParseCount();
+            graph.resolve(serverXML, Arrays.asList("app.xml"));
+            Files.setLastModifiedTime(included, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+            graph.resolve(serverXML, Arrays.asList("app.xml"));
+            assertEquals(parsed, graph.getParseCount());
+
+            write(included, config("<featureManager><feature>jaxrs-2.0</feature></featureManager>"));
+            Files.setLastModifiedTime(included, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+            resolution = graph.resolve(serverXML, Arrays.asList("app.xml"));
+            assertEquals(Arrays.asList("jaxrs-2.0"), names(resolution.getIncludeFeatures(0)));
+            assertEquals(parsed + 1, graph.getParseCount());
+            // nested.xml is no longer included
+            assertTrue(graph.getDependents(nested).isEmpty());
+        } finally {
+            graph.remove(serverXML);
+            WorkspaceFileIndexTest.deleteTree(configDir);
+        }
+        assertTrue(graph.getDependents(configDir.resolve("app.xml")).isEmpty());
+    }
+
+    @Test
+    public void testDependentsOfSharedInclude() throws Exception {
+        Path root = Files.createTempDirectory("serverConfigGraph");
+        ServerConfigGraph graph = ServerConfigGraph.getInstance();
+        String first = root.resolve("first/server.xml").toUri().toString();
+        String second = root.resolve("second/server.xml").toUri().toString();
+        try {
+            Path shared = write(root.resolve("shared.xml"), config("<featureManager><feature>jsonp-1.1</feature></featureManager>"));
+            write(root.resolve("first/own.xml"), config());
+            graph.resolve(first, Arrays.asList("../shared.xml", "own.xml"));
+            graph.resolve(second, Arrays.asList("../shared.xml"));
+            assertEquals(2, graph.getDependents(shared).size());
+            assertEquals(Arrays.asList(first), new ArrayList<String>(graph.getDependents(root.resolve("first/own.xml"))));
+        } finally {
+            graph.remove(first);
+            graph.remove(second);
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testLocationVariables() throws Exception {
+        Path installDir = Files.createTempDirectory("serverConfigGraph");
+        Path configDir = installDir.resolve("usr/servers/defaultServer");
+        String serverXML = configDir.resolve("server.xml").toUri().toString();
+        ServerConfigGraph graph = ServerConfigGraph.getInstance();
+        try {
+            write(installDir.resolve("usr/shared/config/shared.xml"),
+                    config("<featureManager><feature>jsonp-1.1</feature></featureManager>"));
+            write(installDir.resolve("usr/common.xml"),
+                    config("<featureManager><feature>cdi-2.0</feature></featureManager>"));
+            write(installDir.resolve("templates/template.xml"),
+                    config("<featureManager><feature>jaxrs-2.1</feature></featureManager>"));
+            write(configDir.resolve("app/app.xml"),
+                    config("<featureManager><feature>mpHealth-2.2</feature></featureManager>"));
+
+            ServerConfigGraph.Resolution resolution = graph.resolve(serverXML,
+                    Arrays.asList("${shared.config.dir}/shared.xml", "${wlp.user.dir}/common.xml",
+                            "${wlp.install.dir}/templates/template.xml", "${app.dir}/app.xml"),
+                    Collections.singletonMap("app.dir", "${server.config.dir}/app"), null);
+            assertEquals(Arrays.asList("jsonp-1.1"), names(resolution.getIncludeFeatures(0)));
+            assertEquals(Arrays.asList("cdi-2.0"), names(resolution.getIncludeFeatures(1)));
+            assertEquals(Arrays.asList("jaxrs-2.1"), names(resolution.getIncludeFeatures(2)));
+            // variables of the document are not expanded further
+            assertFalse(resolution.isIncludeResolved(3));
+
+            resolution = graph.resolve(serverXML, Arrays.asList("${app.dir}/app.xml"),
+                    Collections.singletonMap("app.dir", configDir.resolve("app").toString()), null);
+            assertEquals(Arrays.asList("mpHealth-2.2"), names(resolution.getIncludeFeatures(0)));
+            assertTrue(resolution.isIncludeResolved(0));
+        } finally {
+            graph.remove(serverXML);
+            WorkspaceFileIndexTest.deleteTree(installDir);
+        }
+    }
+
+    // Benchmark: validating a server.xml with 50 includes, parsing every include
+    // compared to the cached configuration files
+    @Test
+    @Tag("benchmark")
+    public void benchmarkResolve() throws Exception {
+        Path configDir = Files.createTempDirectory("serverConfigGraph");
+        String serverXML = configDir.resolve("server.xml").toUri().toString();
+        ServerConfigGraph graph = ServerConfigGraph.getInstance();
+        try {
+            List<String> locations = new ArrayList<String>();
+            for (int i = 0; i < 50; i++) {
+                StringBuilder elements = new StringBuilder("<featureManager>");
+                for (int f = 0; f < 5; f++) {
+                    elements.append("<feature>feature").append(i).append('-').append(f).append("</feature>");
+                }
+                elements.append("</featureManager>");
+                for (int d = 0; d < 40; d++) {
+                    elements.append("<dataSource id=\"ds").append(d).append("\" jndiName=\"jdbc/ds").append(d)
+                            .append("\"><properties databaseName=\"db\" serverName=\"localhost\"/></dataSource>");
+                }
+                write(configDir.resolve("include" + i + ".xml"), config(elements.toString()));
+                locations.add("include" + i + ".xml");
+            }
+            long start = System.nanoTime();
+            graph.resolve(serverXML, locations);
+            long firstTime = System.nanoTime() - start;
+
+            int iterations = 200;
+            long parsed = graph.getParseCount();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                assertEquals(5, graph.resolve(serverXML, locations).getIncludeFeatures(49).size());
+            }
+            long cachedTime = (System.nanoTime() - start) / iterations;
+            assertEquals(parsed, graph.getParseCount());
+            assertTrue(cachedTime < firstTime, () -> String.format(
+                    "50 includes: parsed %.2f ms, cached %.2f ms per resolution", firstTime / 1e6, cachedTime / 1e6));
+        } finally {
+            graph.remove(serverXML);
+            WorkspaceFileIndexTest.deleteTree(configDir);
+        }
+    }
+
+}
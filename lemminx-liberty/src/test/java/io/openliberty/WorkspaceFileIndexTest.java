@@ -0,0 +1,166 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.WorkspaceFileIndex;
+
+public class WorkspaceFileIndexTest {
+
+    static final int BENCHMARK_FILES = 200000;
+    static final int FILES_PER_DIRECTORY = 100;
+
+    static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    static boolean waitFor(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.get()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    @Test
+    public void testFindMostRecentlyModifiedFile() throws Exception {
+        Path root = Files.createTempDirectory("workspaceFileIndex");
+        try {
+            Path older = Files.createDirectories(root.resolve("a/wlp/lib/versions")).resolve("openliberty.properties");
+            Path newer = Files.createDirectories(root.resolve("b/wlp/lib/versions")).resolve("openliberty.properties");
+            Files.createFile(older);
+            Files.createFile(newer);
+            Files.setLastModifiedTime(older, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+
+            WorkspaceFileIndex index = new WorkspaceFileIndex(root);
+            index.start(false);
+            index.awaitReady();
+            assertEquals(newer, index.findFile("openliberty.properties"));
+            assertEquals(2, index.getFiles("openliberty.properties").size());
+            assertNull(index.findFile("ws-featurelist.jar"));
+            index.close();
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testIndexFollowsFileSystemChanges() throws Exception {
+        Path root = Files.createTempDirectory("workspaceFileIndex");
+        WorkspaceFileIndex index = new WorkspaceFileIndex(root);
+        try {
+            index.start(true);
+            index.awaitReady();
+            assertNull(index.findFile("openliberty.properties"));
+            assertTrue(index.isWatching());
+
+            // a new directory tree, as created when Liberty is installed
+            Path versions = Files.createDirectories(root.resolve("target/liberty/wlp/lib/versions"));
+            Path properties = Files.createFile(versions.resolve("openliberty.properties"));
+            assertTrue(waitFor(() -> properties.equals(index.findFile("openliberty.properties"))));
+
+            deleteTree(root.resolve("target"));
+            assertTrue(waitFor(() -> index.getFiles("openliberty.properties").isEmpty()));
+        } finally {
+            index.close();
+            if (Files.exists(root)) {
+                deleteTree(root);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeWorkspaceIsNotWatched() throws Exception {
+        Path root = Files.createTempDirectory("workspaceFileIndex");
+        WorkspaceFileIndex index = new WorkspaceFileIndex(root);
+        try {
+            // more directories than are watched
+            for (int d = 0; d < 2100; d++) {
+                Files.createDirectories(root.resolve("modules/module" + (d / 100) + "/dir" + d));
+            }
+            Path versions = Files.createDirectories(root.resolve("target/liberty/wlp/lib/versions"));
+            Path properties = Files.createFile(versions.resolve("openliberty.properties"));
+
+            index.start(true);
+            index.awaitReady();
+            assertFalse(index.isWatching());
+            assertEquals(properties, index.findFile("openliberty.properties"));
+        } finally {
+            index.close();
+            deleteTree(root);
+        }
+    }
+
+    // Benchmark: a workspace with 200k files, looking up a file with the index
+    // compared to walking the workspace for each lookup
+    @Test
+    @Tag("benchmark")
+    public void benchmarkLookup() throws Exception {
+        Path root = Files.createTempDirectory("workspaceFileIndex");
+        try {
+            for (int d = 0; d < BENCHMARK_FILES / FILES_PER_DIRECTORY; d++) {
+                Path dir = Files.createDirectories(root.resolve("modules/module" + (d / 100) + "/dir" + d));
+                for (int f = 0; f < FILES_PER_DIRECTORY; f++) {
+                    Files.createFile(dir.resolve("file" + f + ".js"));
+                }
+            }
+            Path versions = Files.createDirectories(root.resolve("target/liberty/wlp/lib/versions"));
+            Path properties = Files.createFile(versions.resolve("openliberty.properties"));
+
+            long start = System.nanoTime();
+            List<Path> walked;
+            try (Stream<Path> paths = Files.walk(root)) {
+                walked = paths.filter(p -> Files.isRegularFile(p) && p.getFileName().endsWith("openliberty.properties"))
+                        .collect(Collectors.toList());
+            }
+            long walkTime = System.nanoTime() - start;
+            assertEquals(1, walked.size());
+
+            start = System.nanoTime();
+            WorkspaceFileIndex index = new WorkspaceFileIndex(root);
+            index.start(false);
+            index.awaitReady();
+            assertEquals(properties, index.findFile("openliberty.properties"));
+            long buildTime = System.nanoTime() - start;
+            assertEquals(BENCHMARK_FILES + 1, index.size());
+
+            int lookups = 10000;
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                assertEquals(properties, index.findFile("openliberty.properties"));
+            }
+            long lookupTime = (System.nanoTime() - start) / lookups;
+            index.close();
+
+            // an indexed lookup is orders of magnitude cheaper than a walk
+            assertTrue(lookupTime * 1000 < walkTime,
+                    () -> String.format("%d files: walk %.1f ms, index build %.1f ms, indexed lookup %.1f us",
+                            BENCHMARK_FILES, walkTime / 1e6, buildTime / 1e6, lookupTime / 1e3));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+}
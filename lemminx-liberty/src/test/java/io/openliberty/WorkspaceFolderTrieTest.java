@@ -0,0 +1,110 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.LibertyWorkspace;
+import io.openliberty.tools.langserver.lemminx.services.WorkspaceFolderTrie;
+
+public class WorkspaceFolderTrieTest {
+
+    static final int BENCHMARK_ROOTS = 500;
+
+    static LibertyWorkspace put(WorkspaceFolderTrie trie, String uri) {
+        LibertyWorkspace workspace = new LibertyWorkspace(uri);
+        trie.put(workspace);
+        return workspace;
+    }
+
+    @Test
+    public void testSimilarlyNamedFolders() {
+        WorkspaceFolderTrie trie = new WorkspaceFolderTrie();
+        LibertyWorkspace app = put(trie, "file:///home/user/app");
+        LibertyWorkspace app2 = put(trie, "file:///home/user/app2");
+
+        assertSame(app, trie.find("file:///home/user/app/src/main/liberty/config/server.xml"));
+        assertSame(app2, trie.find("file:///home/user/app2/src/main/liberty/config/server.xml"));
+        assertNull(trie.find("file:///home/user/ap/server.xml"));
+        assertNull(trie.find("file:///home/user/app3/server.xml"));
+    }
+
+    @Test
+    public void testNestedFolders() {
+        WorkspaceFolderTrie trie = new WorkspaceFolderTrie();
+        LibertyWorkspace outer = put(trie, "file:///repo/");
+        LibertyWorkspace inner = put(trie, "file:///repo/services/inventory");
+
+        assertSame(inner, trie.find("file:///repo/services/inventory/src/main/liberty/config/server.xml"));
+        assertSame(outer, trie.find("file:///repo/services/system/src/main/liberty/config/server.xml"));
+        assertSame(outer, trie.find("file:///repo/services/inventory/../system/server.xml"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    public void testNormalizedURIs() {
+        WorkspaceFolderTrie trie = new WorkspaceFolderTrie();
+        LibertyWorkspace windows = put(trie, "file:///c%3A/Users/dev/my%20app");
+
+        assertSame(windows, trie.find("file:///C:/Users/dev/my%20app/server.xml"));
+        assertSame(windows, trie.find("FILE:///c:/Users/dev/my app/server.xml"));
+        assertNull(trie.find("file:///c:/users/dev/my%20app/server.xml"));
+    }
+
+    // Benchmark: resolving documents in a workspace with hundreds of folders,
+    // compared to testing every folder
+    @Test
+    @Tag("benchmark")
+    public void benchmarkFind() {
+        WorkspaceFolderTrie trie = new WorkspaceFolderTrie();
+        List<String> roots = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_ROOTS; i++) {
+            String root = "file:///home/user/workspace/service" + i;
+            roots.add(root);
+            put(trie, root);
+        }
+        String[] documents = new String[BENCHMARK_ROOTS];
+        for (int i = 0; i < BENCHMARK_ROOTS; i++) {
+            documents[i] = roots.get(i) + "/src/main/liberty/config/server.xml";
+        }
+        int iterations = 20;
+
+        long start = System.nanoTime();
+        int found = 0;
+        for (int n = 0; n < iterations; n++) {
+            for (String document : documents) {
+                // longest matching folder, as the previous linear search should have done
+                String best = null;
+                for (String root : roots) {
+                    if (document.startsWith(root + "/") && (best == null || root.length() > best.length())) {
+                        best = root;
+                    }
+                }
+                found += best == null ? 0 : 1;
+            }
+        }
+        long linearTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int n = 0; n < iterations; n++) {
+            for (String document : documents) {
+                found += trie.find(document) == null ? 0 : 1;
+            }
+        }
+        long trieTime = System.nanoTime() - start;
+
+        assertEquals(2 * iterations * BENCHMARK_ROOTS, found);
+        int lookups = iterations * BENCHMARK_ROOTS;
+        assertTrue(trieTime < linearTime,
+                () -> String.format("%d workspace folders: linear scan %.1f us, trie %.1f us per lookup",
+                        BENCHMARK_ROOTS, linearTime / 1e3 / lookups, trieTime / 1e3 / lookups));
+    }
+
+}
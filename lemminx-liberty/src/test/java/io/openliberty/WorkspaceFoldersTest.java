@@ -0,0 +1,54 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eclipse.lsp4j.WorkspaceFolder;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.LibertyProjectsManager;
+import io.openliberty.tools.langserver.lemminx.services.LibertyWorkspace;
+
+public class WorkspaceFoldersTest {
+
+    @Test
+    public void testRegisterAndDisposeWorkspaceFolders() throws Exception {
+        Path first = Files.createTempDirectory("workspaceFolders");
+        Path second = Files.createTempDirectory("workspaceFolders");
+        Path versions = Files.createDirectories(second.resolve("target/liberty/wlp/lib/versions"));
+        Files.write(versions.resolve("openliberty.properties"),
+                Arrays.asList("com.ibm.websphere.productVersion=22.0.0.1"));
+        String firstURI = first.toUri().toString();
+        String secondURI = second.toUri().toString();
+        LibertyProjectsManager manager = LibertyProjectsManager.getInstance();
+        try {
+            manager.setWorkspaceFolders(Arrays.asList(new WorkspaceFolder(firstURI), new WorkspaceFolder(secondURI)));
+            LibertyWorkspace firstWorkspace = manager.getWorkspaceFolder(firstURI + "src/main/liberty/config/server.xml");
+            assertEquals(firstURI, firstWorkspace.getURI());
+            assertEquals(2, manager.getLibertyWorkspaceFolders().size());
+
+            // the version of a folder is detected without opening a document
+            LibertyWorkspace secondWorkspace = manager.getWorkspaceFolder(secondURI + "server.xml");
+            assertEquals(secondURI, secondWorkspace.getURI());
+            assertTrue(WorkspaceFileIndexTest.waitFor(() -> "22.0.0.1".equals(secondWorkspace.getLibertyVersion())));
+
+            // disposed folders are released and no longer resolve documents
+            manager.dispose();
+            assertTrue(firstWorkspace.isDisposed());
+            assertNull(firstWorkspace.getFileIndex());
+            assertTrue(manager.getLibertyWorkspaceFolders().isEmpty());
+            assertNull(manager.getWorkspaceFolder(firstURI + "src/main/liberty/config/server.xml"));
+            assertNull(manager.getWorkspaceFolder(secondURI + "server.xml"));
+        } finally {
+            manager.dispose();
+            WorkspaceFileIndexTest.deleteTree(first);
+            WorkspaceFileIndexTest.deleteTree(second);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package io.openliberty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import io.openliberty.tools.langserver.lemminx.services.WorkspaceScanner;
+
+public class WorkspaceScannerTest {
+
+    static Path createFile(Path root, String relativePath) throws Exception {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.createFile(file);
+    }
+
+    static List<Path> findByName(WorkspaceScanner scanner, Path root, String name) {
+        List<Path> found = scanner.find(root, (p, directory) -> !directory && p.getFileName().toString().equals(name),
+                Integer.MAX_VALUE);
+        Collections.sort(found);
+        return found;
+    }
+
+    @Test
+    public void testIgnoredDirectoriesAndPatterns() throws Exception {
+        Path root = Files.createTempDirectory("workspaceScanner");
+        try {
+            Path installed = createFile(root, "app/target/liberty/wlp/lib/versions/openliberty.properties");
+            createFile(root, "node_modules/pkg/openliberty.properties");
+            createFile(root, ".git/objects/openliberty.properties");
+            createFile(root, "build/tmp/openliberty.properties");
+            createFile(root, "app/generated/openliberty.properties");
+            Path kept = createFile(root, "build-tools/openliberty.properties");
+
+            WorkspaceScanner scanner = new WorkspaceScanner(Arrays.asList("# comment", "/build/", "generated"), 20);
+            assertEquals(Arrays.asList(installed, kept), findByName(scanner, root, "openliberty.properties"));
+
+            assertTrue(scanner.isExcluded(root, root.resolve("node_modules/pkg/a.txt"), false));
+            assertTrue(scanner.isExcluded(root, root.resolve("app/generated"), true));
+            assertFalse(scanner.isExcluded(root, root.resolve("app/src/server.xml"), false));
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testDepthLimit() throws Exception {
+        Path root = Files.createTempDirectory("workspaceScanner");
+        try {
+            Path shallow = createFile(root, "a/b/server.xml");
+            createFile(root, "a/b/c/d/server.xml");
+
+            WorkspaceScanner scanner = new WorkspaceScanner(new ArrayList<String>(), 2);
+            assertEquals(Arrays.asList(shallow), findByName(scanner, root, "server.xml"));
+            assertTrue(scanner.isExcluded(root, root.resolve("a/b/c"), true));
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    @Test
+    public void testStopsAfterMaxMatches() throws Exception {
+        Path root = Files.createTempDirectory("workspaceScanner");
+        try {
+            for (int i = 0; i < 50; i++) {
+                createFile(root, "dir" + i + "/.libertyls/marker");
+            }
+            WorkspaceScanner scanner = new WorkspaceScanner(new ArrayList<String>(), 20);
+            List<Path> all = scanner.find(root, (p, directory) -> directory && p.endsWith(".libertyls"),
+                    Integer.MAX_VALUE);
+            assertEquals(50, all.size());
+            List<Path> first = scanner.find(root, (p, directory) -> directory && p.endsWith(".libertyls"), 3);
+            assertEquals(3, first.size());
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+    // Benchmark: finding an installation in a workspace where most files are in
+    // node_modules, compared to a full walk
+    @Test
+    @Tag("benchmark")
+    public void benchmarkFind() throws Exception {
+        Path root = Files.createTempDirectory("workspaceScanner");
+        try {
+            for (int d = 0; d < 500; d++) {
+                Path dir = Files.createDirectories(root.resolve("node_modules/module" + d));
+                for (int f = 0; f < 100; f++) {
+                    Files.createFile(dir.resolve("file" + f + ".js"));
+                }
+            }
+            for (int d = 0; d < 100; d++) {
+                Path dir = Files.createDirectories(root.resolve("src/main/java/pkg" + d));
+                for (int f = 0; f < 20; f++) {
+                    Files.createFile(dir.resolve("Class" + f + ".java"));
+                }
+            }
+            createFile(root, "target/liberty/wlp/lib/versions/openliberty.properties");
+
+            long start = System.nanoTime();
+            long walked;
+            try (Stream<Path> paths = Files.walk(root)) {
+                walked = paths.filter(p -> p.getFileName().toString().equals("openliberty.properties")).count();
+            }
+            long walkTime = System.nanoTime() - start;
+
+            WorkspaceScanner scanner = new WorkspaceScanner(new ArrayList<String>(), 20);
+            start = System.nanoTime();
+            List<Path> found = findByName(scanner, root, "openliberty.properties");
+            long scanTime = System.nanoTime() - start;
+
+            assertEquals(1, walked);
+            assertEquals(1, found.size());
+            // node_modules is pruned
+            assertTrue(scanTime < walkTime, () -> String.format("full walk %.1f ms, pruned parallel scan %.1f ms",
+                    walkTime / 1e6, scanTime / 1e6));
+            assertEquals(Arrays.asList("openliberty.properties"),
+                    found.stream().map(p -> p.getFileName().toString()).collect(Collectors.toList()));
+        } finally {
+            WorkspaceFileIndexTest.deleteTree(root);
+        }
+    }
+
+}